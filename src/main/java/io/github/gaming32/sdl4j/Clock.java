@@ -0,0 +1,229 @@
+package io.github.gaming32.sdl4j;
+
+import java.util.Arrays;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2FrameLibrary;
+
+/**
+ * <p>Keeps track of time between frames, and optionally limits the framerate. Call {@link #tick(int)} once
+ * per frame.</p>
+ *
+ * <p>Times are measured with {@code SDL_GetPerformanceCounter}. {@link #tick(int)} waits for the next
+ * frame with {@code SDL_Delay} until it's close, then spins for the last fraction of a millisecond, so it's
+ * accurate without keeping a core busy. How late {@code SDL_Delay} tends to wake up is measured as it
+ * goes, and the sleeps are cut short by that much. {@link #tickBusyLoop(int)} spins the whole time, for
+ * the last bit of precision.</p>
+ *
+ * <p>The times of the last {@link #getStatsWindow()} frames are kept for {@link #getAverageFrameTime()},
+ * {@link #getFrameTimePercentile(double)} and {@link #getMaxFrameTime()}.</p>
+ */
+public final class Clock {
+    private static final int FPS_FRAMES = 10;
+
+    private final long frequency;
+    // How long before a deadline to stop sleeping and start spinning
+    private final long spinTicks;
+    private final long[] frameTimes;
+    private int frameCount, frameIndex;
+    private long[] sorted;
+    private boolean started;
+    private long lastTick;
+    private long frameTime, rawTime;
+    // Running estimate of how late SDL_Delay wakes up
+    private long sleepOvershoot;
+
+    /**
+     * Same as {@link #Clock(int)} with a window of 256 frames.
+     */
+    public Clock() {
+        this(256);
+    }
+
+    /**
+     * @param statsWindow how many of the latest frames to keep statistics on
+     */
+    public Clock(int statsWindow) {
+        this(statsWindow, LowLevel.getInstance().SDL_GetPerformanceFrequency());
+    }
+
+    /**
+     * @param frequency the performance counter ticks per second
+     */
+    Clock(int statsWindow, long frequency) {
+        if (statsWindow <= 0) {
+            throw new IllegalArgumentException("statsWindow must be positive");
+        }
+        this.frequency = frequency;
+        spinTicks = frequency / 2000;
+        frameTimes = new long[statsWindow];
+    }
+
+    /**
+     * Same as {@link #tick(int)} with no framerate limit.
+     */
+    public int tick() {
+        return tick(0, false);
+    }
+
+    /**
+     * Mark the end of a frame. If {@code framerate} is positive, first wait until at least
+     * {@code 1 / framerate} seconds have passed since the last tick.
+     *
+     * @return the milliseconds since the last tick, including the wait
+     */
+    public int tick(int framerate) {
+        return tick(framerate, false);
+    }
+
+    /**
+     * Same as {@link #tick(int)}, but spins for the whole wait instead of sleeping. This is more precise,
+     * but keeps a core busy.
+     */
+    public int tickBusyLoop(int framerate) {
+        return tick(framerate, true);
+    }
+
+    private int tick(int framerate, boolean busy) {
+        SDL2FrameLibrary frame = LowLevel.getFrameInstance();
+        long now = frame.SDL_GetPerformanceCounter();
+        if (!started) {
+            started = true;
+            lastTick = now;
+            return 0;
+        }
+        rawTime = now - lastTick;
+
+        if (framerate > 0) {
+            long deadline = lastTick + frequency / framerate;
+            if (!busy) {
+                long sleepMs = (deadline - now - spinTicks - sleepOvershoot) * 1000 / frequency;
+                if (sleepMs > 0) {
+                    frame.SDL_Delay((int)sleepMs);
+                    long woke = frame.SDL_GetPerformanceCounter();
+                    long overshoot = Math.max(woke - now - sleepMs * frequency / 1000, 0);
+                    sleepOvershoot += (overshoot - sleepOvershoot) / 8;
+                    now = woke;
+                }
+            }
+            while (now < deadline) {
+                now = frame.SDL_GetPerformanceCounter();
+            }
+        }
+
+        frameTime = now - lastTick;
+        lastTick = now;
+        record(frameTime);
+        return (int)(frameTime * 1000 / frequency);
+    }
+
+    /**
+     * Add a frame time, in performance counter ticks, to the stats window.
+     */
+    void record(long time) {
+        frameTimes[frameIndex] = time;
+        frameIndex = (frameIndex + 1) % frameTimes.length;
+        if (frameCount < frameTimes.length) {
+            frameCount++;
+        }
+        sorted = null;
+    }
+
+    private double toMillis(long ticks) {
+        return ticks * 1000.0 / frequency;
+    }
+
+    /**
+     * @return the milliseconds between the last two ticks, including the wait
+     */
+    public int getTime() {
+        return (int)(frameTime * 1000 / frequency);
+    }
+
+    /**
+     * @return the milliseconds between the last two ticks, not counting the wait for the framerate limit
+     */
+    public int getRawTime() {
+        return (int)(rawTime * 1000 / frequency);
+    }
+
+    /**
+     * @return the framerate, averaged over the last 10 frames, or 0 if there were none
+     */
+    public double getFps() {
+        int frames = Math.min(frameCount, FPS_FRAMES);
+        if (frames == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 1; i <= frames; i++) {
+            total += frameTimes[(frameIndex - i + frameTimes.length) % frameTimes.length];
+        }
+        return total == 0 ? 0 : frames * (double)frequency / total;
+    }
+
+    public int getStatsWindow() {
+        return frameTimes.length;
+    }
+
+    /**
+     * @return the average frame time over the stats window in milliseconds, or 0 if there were no frames
+     */
+    public double getAverageFrameTime() {
+        if (frameCount == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < frameCount; i++) {
+            total += frameTimes[i];
+        }
+        return toMillis(total) / frameCount;
+    }
+
+    /**
+     * @param percentile from 0 to 100
+     * @return the frame time in milliseconds that the given percentage of the frames in the stats window
+     *         took at most, or 0 if there were no frames
+     */
+    public double getFrameTimePercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        if (frameCount == 0) {
+            return 0;
+        }
+        if (sorted == null) {
+            sorted = Arrays.copyOf(frameTimes, frameCount);
+            Arrays.sort(sorted);
+        }
+        int index = (int)Math.ceil(percentile / 100 * frameCount) - 1;
+        return toMillis(sorted[Math.max(index, 0)]);
+    }
+
+    public double getP95FrameTime() {
+        return getFrameTimePercentile(95);
+    }
+
+    public double getP99FrameTime() {
+        return getFrameTimePercentile(99);
+    }
+
+    /**
+     * @return the longest frame time in the stats window in milliseconds, or 0 if there were no frames
+     */
+    public double getMaxFrameTime() {
+        long max = 0;
+        for (int i = 0; i < frameCount; i++) {
+            max = Math.max(max, frameTimes[i]);
+        }
+        return toMillis(max);
+    }
+
+    /**
+     * Forget the frame time statistics.
+     */
+    public void resetStats() {
+        frameCount = 0;
+        frameIndex = 0;
+        sorted = null;
+    }
+}
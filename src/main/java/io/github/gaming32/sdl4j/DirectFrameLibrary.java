@@ -0,0 +1,166 @@
+package io.github.gaming32.sdl4j;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2FrameLibrary;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Rect;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Renderer;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Texture;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Window;
+
+/**
+ * <p>{@link SDL2FrameLibrary} backed by JNA direct mapping.</p>
+ *
+ * <p>The calls are bound with {@link Native#register(Class, NativeLibrary)} to static native methods,
+ * which skips the proxy, the reflective method lookup and the argument boxing that interface mapping
+ * goes through on every call.</p>
+ */
+final class DirectFrameLibrary implements SDL2FrameLibrary {
+    private static final class Natives {
+        static {
+            Native.register(Natives.class, NativeLibrary.getInstance("SDL2"));
+        }
+
+        static native void SDL_PumpEvents();
+        static native int SDL_PeepEvents(Pointer events, int numevents, int action, int minType, int maxType);
+        static native int SDL_UpdateWindowSurface(SDL_Window window);
+        static native int SDL_UpdateWindowSurfaceRects(SDL_Window window, Pointer rects, int numrects);
+        static native int SDL_UpdateTexture(SDL_Texture texture, SDL_Rect rect, Pointer pixels, int pitch);
+        static native int SDL_UpdateTexture(SDL_Texture texture, Pointer rect, Pointer pixels, int pitch);
+        static native int SDL_LockTexture(SDL_Texture texture, SDL_Rect rect, PointerByReference pixels, IntByReference pitch);
+        static native void SDL_UnlockTexture(SDL_Texture texture);
+        static native int SDL_RenderCopy(SDL_Renderer renderer, SDL_Texture texture, SDL_Rect srcrect, SDL_Rect dstrect);
+        static native void SDL_RenderPresent(SDL_Renderer renderer);
+        static native int SDL_UpperBlit(Pointer src, Pointer srcrect, Pointer dst, Pointer dstrect);
+        static native int SDL_LowerBlit(Pointer src, Pointer srcrect, Pointer dst, Pointer dstrect);
+        static native int SDL_UpperBlitScaled(Pointer src, Pointer srcrect, Pointer dst, Pointer dstrect);
+        static native int SDL_LockSurface(Pointer surface);
+        static native void SDL_UnlockSurface(Pointer surface);
+        static native int SDL_GetTicks();
+        static native long SDL_GetPerformanceCounter();
+        static native void SDL_Delay(int ms);
+        static native int SDL_GetMouseState(IntByReference x, IntByReference y);
+        static native int SDL_RenderCopyEx(SDL_Renderer renderer, SDL_Texture texture, Pointer srcrect, Pointer dstrect, double angle, Pointer center, int flip);
+    }
+
+    private static DirectFrameLibrary instance;
+
+    private DirectFrameLibrary() {
+    }
+
+    static synchronized DirectFrameLibrary load() {
+        if (instance == null) {
+            try {
+                Class.forName(Natives.class.getName(), true, Natives.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new AssertionError(e);
+            }
+            instance = new DirectFrameLibrary();
+        }
+        return instance;
+    }
+
+    @Override
+    public void SDL_PumpEvents() {
+        Natives.SDL_PumpEvents();
+    }
+
+    @Override
+    public int SDL_PeepEvents(Pointer events, int numevents, int action, int minType, int maxType) {
+        return Natives.SDL_PeepEvents(events, numevents, action, minType, maxType);
+    }
+
+    @Override
+    public int SDL_UpdateWindowSurface(SDL_Window window) {
+        return Natives.SDL_UpdateWindowSurface(window);
+    }
+
+    @Override
+    public int SDL_UpdateWindowSurfaceRects(SDL_Window window, Pointer rects, int numrects) {
+        return Natives.SDL_UpdateWindowSurfaceRects(window, rects, numrects);
+    }
+
+    @Override
+    public int SDL_UpdateTexture(SDL_Texture texture, SDL_Rect rect, Pointer pixels, int pitch) {
+        return Natives.SDL_UpdateTexture(texture, rect, pixels, pitch);
+    }
+
+    @Override
+    public int SDL_UpdateTexture(SDL_Texture texture, Pointer rect, Pointer pixels, int pitch) {
+        return Natives.SDL_UpdateTexture(texture, rect, pixels, pitch);
+    }
+
+    @Override
+    public int SDL_LockTexture(SDL_Texture texture, SDL_Rect rect, PointerByReference pixels, IntByReference pitch) {
+        return Natives.SDL_LockTexture(texture, rect, pixels, pitch);
+    }
+
+    @Override
+    public void SDL_UnlockTexture(SDL_Texture texture) {
+        Natives.SDL_UnlockTexture(texture);
+    }
+
+    @Override
+    public int SDL_RenderCopy(SDL_Renderer renderer, SDL_Texture texture, SDL_Rect srcrect, SDL_Rect dstrect) {
+        return Natives.SDL_RenderCopy(renderer, texture, srcrect, dstrect);
+    }
+
+    @Override
+    public void SDL_RenderPresent(SDL_Renderer renderer) {
+        Natives.SDL_RenderPresent(renderer);
+    }
+
+    @Override
+    public int SDL_UpperBlit(Pointer src, Pointer srcrect, Pointer dst, Pointer dstrect) {
+        return Natives.SDL_UpperBlit(src, srcrect, dst, dstrect);
+    }
+
+    @Override
+    public int SDL_LowerBlit(Pointer src, Pointer srcrect, Pointer dst, Pointer dstrect) {
+        return Natives.SDL_LowerBlit(src, srcrect, dst, dstrect);
+    }
+
+    @Override
+    public int SDL_UpperBlitScaled(Pointer src, Pointer srcrect, Pointer dst, Pointer dstrect) {
+        return Natives.SDL_UpperBlitScaled(src, srcrect, dst, dstrect);
+    }
+
+    @Override
+    public int SDL_LockSurface(Pointer surface) {
+        return Natives.SDL_LockSurface(surface);
+    }
+
+    @Override
+    public void SDL_UnlockSurface(Pointer surface) {
+        Natives.SDL_UnlockSurface(surface);
+    }
+
+    @Override
+    public int SDL_GetTicks() {
+        return Natives.SDL_GetTicks();
+    }
+
+    @Override
+    public long SDL_GetPerformanceCounter() {
+        return Natives.SDL_GetPerformanceCounter();
+    }
+
+    @Override
+    public void SDL_Delay(int ms) {
+        Natives.SDL_Delay(ms);
+    }
+
+    @Override
+    public int SDL_GetMouseState(IntByReference x, IntByReference y) {
+        return Natives.SDL_GetMouseState(x, y);
+    }
+
+    @Override
+    public int SDL_RenderCopyEx(SDL_Renderer renderer, SDL_Texture texture, Pointer srcrect, Pointer dstrect, double angle, Pointer center, int flip) {
+        return Natives.SDL_RenderCopyEx(renderer, texture, srcrect, dstrect, angle, center, flip);
+    }
+}
@@ -7,8 +7,10 @@ import com.sun.jna.Memory;
 import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
 
 import io.github.gaming32.sdl4j.LowLevel.OpenGL.GL_glViewport_Func;
+import io.github.gaming32.sdl4j.LowLevel.SDL2FrameLibrary;
 import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
 import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_DisplayMode;
 import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
@@ -35,6 +37,8 @@ public final class Display {
     private static final Display STATE = new Display();
     private static final Pointer MARKER = new Memory(1);
     private static final int SHORT_SIZE = Native.getNativeSize(short.class);
+    // Screen buffers of earlier SCALED and OpenGL modes, so switching back and forth doesn't reallocate them
+    private static final SurfacePool SCREEN_BUFFERS = new SurfacePool(2);
 
     private String title;
     private Surface icon;
@@ -49,6 +53,20 @@ public final class Display {
     private int fullscreenBackupX;
     private int fullscreenBackupY;
     private boolean autoResize;
+    private double updateThreshold = 0.5;
+    private int[] dirtyRects = new int[64];
+    private Memory dirtyRectBuffer;
+    private SDL_Rect updateRect;
+    private boolean streamingTexture;
+    // What the SCALED texture was created for, and whether it's locked right now
+    private int textureW;
+    private int textureH;
+    private boolean textureStreaming;
+    private boolean textureLocked;
+    private int format = SDL_PixelFormatEnum.UNKNOWN;
+    private int formatGeneration;
+    private PointerByReference lockedPixels;
+    private IntByReference lockedPitch;
 
     static SDL_Renderer renderer = null;
     static SDL_Texture texture = null;
@@ -77,6 +95,17 @@ public final class Display {
         return setMode(size, flags, display, 0);
     }
 
+    /**
+     * <p>Create or reconfigure the display window and return its surface.</p>
+     *
+     * <p>In {@link DisplayFlags#SCALED} mode the screen surface is normally a separate buffer that's copied
+     * into a texture on every flip. With {@link DisplayFlags#STREAMING} as well, the screen surface instead
+     * points straight at the locked memory of the texture, which saves that copy. Like any
+     * {@code SDL_LockTexture} memory, its contents are undefined after each flip, so this is only suitable
+     * for programs that redraw the whole screen every frame. The {@code SDL4J_STREAMING_TEXTURE}
+     * environment variable overrides the flag: {@code 0} turns streaming off, and anything else turns it
+     * on.</p>
+     */
     public static Surface setMode(Vector2 size, int flags, int display, int depth) {
         SDL2Library lib = LowLevel.getInstance();
         final String DEFAULT_TITAL = "SDL4J";
@@ -118,6 +147,12 @@ public final class Display {
 
         STATE.usingGl = (flags & DisplayFlags.OPENGL) != 0;
         STATE.scaledGl = STATE.usingGl && (flags & DisplayFlags.SCALED) != 0;
+        String streamingEnv = lib.SDL_getenv("SDL4J_STREAMING_TEXTURE");
+        if (streamingEnv != null) {
+            flags = streamingEnv.equals("0") ? flags & ~DisplayFlags.STREAMING : flags | DisplayFlags.STREAMING;
+        }
+        STATE.streamingTexture = !STATE.usingGl && (flags & DisplayFlags.SCALED) != 0 &&
+            (flags & DisplayFlags.STREAMING) != 0;
 
         if (STATE.title == null) {
             title = STATE.title = DEFAULT_TITAL;
@@ -126,10 +161,7 @@ public final class Display {
         STATE.toggleWindowedW = 0;
         STATE.toggleWindowedH = 0;
 
-        if (texture != null) {
-            lib.SDL_DestroyTexture(texture);
-            texture = null;
-        }
+        destroyScaledTexture(lib);
 
         if (renderer != null) {
             lib.SDL_DestroyRenderer(renderer);
@@ -332,7 +364,7 @@ public final class Display {
                     if (STATE.glContext == null) {
                         setModeFailure(lib, win);
                     }
-                    surf = lib.SDL_CreateRGBSurface(SDL2Library.SDL_SWSURFACE, w, h, 32, 0xff << 16, 0xff << 8, 0xff, 0);
+                    surf = acquireScreenBuffer(w, h);
                     newOwnedSurf = surf;
                 } else {
                     surf = surface.surf;
@@ -360,10 +392,26 @@ public final class Display {
                         lib.SDL_RenderSetIntegerScale(renderer, !((flags & DisplayFlags.FULLSCREEN) != 0 || lib.SDL_GetHintBoolean("SDL_HINT_RENDER_SCALE_QUALITY", false)));
                         lib.SDL_RenderSetLogicalSize(renderer, w, h);
                         lib.SDL_SetWindowMinimumSize(win, w, h);
-
+                    }
+                    if (texture == null || STATE.textureW != w || STATE.textureH != h || STATE.textureStreaming != STATE.streamingTexture) {
+                        destroyScaledTexture(lib);
                         texture = lib.SDL_CreateTexture(renderer, SDL_PixelFormatEnum.ARGB8888, SDL_TextureAccess.STREAMING, w, h);
+                        if (texture == null) {
+                            SDLException.throwNew();
+                        }
+                        STATE.textureW = w;
+                        STATE.textureH = h;
+                        STATE.textureStreaming = STATE.streamingTexture;
+                    }
+                    if (STATE.streamingTexture) {
+                        lockStreamingTexture(LowLevel.getFrameInstance());
+                        surf = lib.SDL_CreateRGBSurfaceFrom(
+                            STATE.lockedPixels.getValue(), w, h, 32, STATE.lockedPitch.getValue(),
+                            0xff << 16, 0xff << 8, 0xff, 0
+                        );
+                    } else {
+                        surf = acquireScreenBuffer(w, h);
                     }
-                    surf = lib.SDL_CreateRGBSurface(SDL2Library.SDL_SWSURFACE, w, h, 32, 0xff << 16, 0xff << 8, 0xff, 0);
                     newOwnedSurf = surf;
                 } else {
                     surf = lib.SDL_GetWindowSurface(win);
@@ -389,11 +437,19 @@ public final class Display {
             if (surface == null) {
                 surface = new Surface(surf, newOwnedSurf != null);
             } else {
+                if (surface.owner && surface.surf != null && !surface.surf.equals(surf)) {
+                    // Keep the old buffer for when the mode goes back to its size
+                    SCREEN_BUFFERS.release(new Surface(surface.detach()));
+                }
                 surface.setSurface(surf, newOwnedSurf != null);
             }
 
             SDL4J.setDefaultWindow(win);
             SDL4J.setDefaultWindowSurface(surface);
+            if (surface.getFormat() != STATE.format) {
+                STATE.format = surface.getFormat();
+                STATE.formatGeneration++;
+            }
 
             if (initFlip) {
                 flipInternal();
@@ -407,6 +463,17 @@ public final class Display {
         return surface;
     }
 
+    /**
+     * Get a 32-bit XRGB buffer for the screen surface of a {@link DisplayFlags#SCALED} or OpenGL mode, the
+     * same as {@code SDL_CreateRGBSurface} with the masks {@code 0xff0000}, {@code 0xff00} and {@code 0xff}
+     * makes. A recycled buffer is cleared to black, like a new one.
+     */
+    private static SDL_Surface acquireScreenBuffer(int w, int h) {
+        SDL_Surface surf = SCREEN_BUFFERS.acquire(w, h, SDL_PixelFormatEnum.XRGB8888).detach();
+        surf.pixels.setMemory(0, (long)surf.pitch * surf.h, (byte)0);
+        return surf;
+    }
+
     private static final void setModeFailure(SDL2Library lib, SDL_Window win) {
         stateCleanup();
         String error = lib.SDL_GetError();
@@ -470,8 +537,218 @@ public final class Display {
         return display;
     }
 
+    /**
+     * @return the {@link SDL_PixelFormatEnum} format of the display surface, or
+     *         {@link SDL_PixelFormatEnum#UNKNOWN} if no mode has been set
+     */
+    public static int getFormat() {
+        return SDL4J.getDefaultWindowSurface() != null ? STATE.format : SDL_PixelFormatEnum.UNKNOWN;
+    }
+
+    /**
+     * @return whether the screen surface points straight at the locked memory of the {@link DisplayFlags#SCALED}
+     *         texture (see {@link DisplayFlags#STREAMING})
+     */
+    public static boolean isStreaming() {
+        return SDL4J.getDefaultWindowSurface() != null && STATE.streamingTexture;
+    }
+
+    /**
+     * @return the memory the streaming texture is locked to, or {@code null} if it isn't locked
+     */
+    static Pointer getLockedTexturePixels() {
+        return STATE.textureLocked ? STATE.lockedPixels.getValue() : null;
+    }
+
+    /**
+     * Incremented every time {@link #setMode} changes the display format, so format-dependent caches can
+     * tell when they're stale.
+     */
+    static int getFormatGeneration() {
+        return STATE.formatGeneration;
+    }
+
+    /**
+     * Update the whole display.
+     */
+    public static void flip() {
+        flipInternal();
+    }
+
+    /**
+     * Same as {@link #flip()}.
+     */
+    public static void update() {
+        flipInternal();
+    }
+
+    /**
+     * Same as {@link #update(int[], int)}, with every rectangle in {@code rects}.
+     */
+    public static void update(int[] rects) {
+        update(rects, rects.length / 4);
+    }
+
+    /**
+     * <p>Update only parts of the display.</p>
+     *
+     * <p>{@code rects} holds {@code count} rectangles packed as {@code x, y, w, h}. They are clipped to the
+     * screen and overlapping ones are merged before being sent to SDL. If the merged rectangles cover more
+     * than {@link #getUpdateThreshold()} of the screen, this does a full {@link #flip()} instead. In
+     * {@link DisplayFlags#SCALED} mode, only the dirty areas are uploaded to the texture. OpenGL displays
+     * and streaming texture displays (see {@link #setMode(Vector2, int, int, int)}) are always flipped
+     * whole.</p>
+     *
+     * @param rects the rectangles to update
+     * @param count the number of rectangles in {@code rects}
+     */
+    public static void update(int[] rects, int count) {
+        if (count < 0 || count > rects.length / 4) {
+            throw new IllegalArgumentException("Rectangle count out of range: " + count);
+        }
+        SDL2Library lib = LowLevel.getInstance();
+        SDL2FrameLibrary frame = LowLevel.getFrameInstance();
+        SDL_Window win = SDL4J.getDefaultWindow();
+        int status = 0;
+
+        SDL4J.videoInitCheck();
+        if (win == null) {
+            throw new IllegalStateException("Display mode not set");
+        }
+
+        if (STATE.usingGl || STATE.streamingTexture) {
+            flipInternal();
+            return;
+        }
+
+        Surface screen = SDL4J.getDefaultWindowSurface();
+        if (renderer == null) {
+            SDL_Surface newSurface = lib.SDL_GetWindowSurface(win);
+            if (!newSurface.equals(screen.surf)) {
+                screen.surf = newSurface;
+            }
+        }
+        SDL_Surface surf = screen.surf;
+
+        if (STATE.dirtyRects.length < count * 4) {
+            STATE.dirtyRects = new int[count * 4];
+        }
+        int[] dirty = STATE.dirtyRects;
+        int merged = mergeDirtyRects(rects, count, surf.w, surf.h, dirty);
+        if (merged == 0) {
+            return;
+        }
+        long area = 0;
+        for (int i = 0; i < merged * 4; i += 4) {
+            area += (long)dirty[i + 2] * dirty[i + 3];
+        }
+        if (area > STATE.updateThreshold * surf.w * surf.h) {
+            flipInternal();
+            return;
+        }
+
+        if (renderer != null) {
+            if (STATE.updateRect == null) {
+                STATE.updateRect = new SDL_Rect();
+            }
+            SDL_Rect rect = STATE.updateRect;
+            for (int i = 0; i < merged * 4; i += 4) {
+                rect.x = dirty[i];
+                rect.y = dirty[i + 1];
+                rect.w = dirty[i + 2];
+                rect.h = dirty[i + 3];
+                // The SCALED screen surface is always 32 bits per pixel
+                Pointer pixels = surf.pixels.share((long)rect.y * surf.pitch + rect.x * 4);
+                frame.SDL_UpdateTexture(texture, rect, pixels, surf.pitch);
+            }
+            lib.SDL_RenderClear(renderer);
+            frame.SDL_RenderCopy(renderer, texture, null, null);
+            frame.SDL_RenderPresent(renderer);
+        } else {
+            long size = (long)merged * 4 * Integer.BYTES;
+            if (STATE.dirtyRectBuffer == null || STATE.dirtyRectBuffer.size() < size) {
+                STATE.dirtyRectBuffer = new Memory((long)dirty.length * Integer.BYTES);
+            }
+            STATE.dirtyRectBuffer.write(0, dirty, 0, merged * 4);
+            status = frame.SDL_UpdateWindowSurfaceRects(win, STATE.dirtyRectBuffer, merged);
+        }
+
+        if (status < 0) {
+            SDLException.throwNew();
+        }
+    }
+
+    /**
+     * Clips {@code rects} to the screen and merges overlapping ones into {@code merged}, which needs room
+     * for {@code count} rectangles.
+     * @return the number of rectangles written
+     */
+    static int mergeDirtyRects(int[] rects, int count, int width, int height, int[] merged) {
+        int n = 0;
+
+        // Works on corners (x1, y1, x2, y2) and converts to (x, y, w, h) at the end
+        for (int i = 0; i < count * 4; i += 4) {
+            int x1 = Math.max(rects[i], 0);
+            int y1 = Math.max(rects[i + 1], 0);
+            int x2 = (int)Math.min((long)rects[i] + rects[i + 2], width);
+            int y2 = (int)Math.min((long)rects[i + 1] + rects[i + 3], height);
+            if (x2 <= x1 || y2 <= y1) {
+                continue;
+            }
+
+            // Growing this rectangle can make it overlap ones that were already checked, so repeat until stable
+            boolean grown;
+            do {
+                grown = false;
+                for (int j = 0; j < n * 4; j += 4) {
+                    if (x1 < merged[j + 2] && merged[j] < x2 && y1 < merged[j + 3] && merged[j + 1] < y2) {
+                        x1 = Math.min(x1, merged[j]);
+                        y1 = Math.min(y1, merged[j + 1]);
+                        x2 = Math.max(x2, merged[j + 2]);
+                        y2 = Math.max(y2, merged[j + 3]);
+                        n--;
+                        System.arraycopy(merged, n * 4, merged, j, 4);
+                        j -= 4;
+                        grown = true;
+                    }
+                }
+            } while (grown);
+
+            int o = n++ * 4;
+            merged[o] = x1;
+            merged[o + 1] = y1;
+            merged[o + 2] = x2;
+            merged[o + 3] = y2;
+        }
+
+        for (int i = 0; i < n * 4; i += 4) {
+            merged[i + 2] -= merged[i];
+            merged[i + 3] -= merged[i + 1];
+        }
+        return n;
+    }
+
+    /**
+     * @return the fraction of the screen above which {@link #update(int[], int)} does a full flip
+     */
+    public static double getUpdateThreshold() {
+        return STATE.updateThreshold;
+    }
+
+    /**
+     * Set the fraction of the screen above which {@link #update(int[], int)} does a full flip instead of
+     * updating each rectangle. Defaults to {@code 0.5}.
+     */
+    public static void setUpdateThreshold(double threshold) {
+        if (!(threshold >= 0 && threshold <= 1)) {
+            throw new IllegalArgumentException("Update threshold must be between 0 and 1");
+        }
+        STATE.updateThreshold = threshold;
+    }
+
     protected static void flipInternal() {
         SDL2Library lib = LowLevel.getInstance();
+        SDL2FrameLibrary frame = LowLevel.getFrameInstance();
         SDL_Window win = SDL4J.getDefaultWindow();
         int status = 0;
 
@@ -485,17 +762,26 @@ public final class Display {
         } else {
             if (renderer != null) {
                 SDL_Surface screen = SDL4J.getDefaultWindowSurface().surf;
-                lib.SDL_UpdateTexture(texture, null, screen.pixels, screen.pitch);
+                if (STATE.streamingTexture) {
+                    unlockStreamingTexture(frame);
+                } else {
+                    frame.SDL_UpdateTexture(texture, (Pointer)null, screen.pixels, screen.pitch);
+                }
                 lib.SDL_RenderClear(renderer);
-                lib.SDL_RenderCopy(renderer, texture, null, null);
-                lib.SDL_RenderPresent(renderer);
+                frame.SDL_RenderCopy(renderer, texture, null, null);
+                frame.SDL_RenderPresent(renderer);
+                if (STATE.streamingTexture) {
+                    lockStreamingTexture(frame);
+                    // The locked memory can move and change pitch between locks
+                    SDL4J.getDefaultWindowSurface().setPixels(STATE.lockedPixels.getValue(), STATE.lockedPitch.getValue());
+                }
             } else {
                 Surface screen = SDL4J.getDefaultWindowSurface();
                 SDL_Surface newSurface = lib.SDL_GetWindowSurface(win);
                 if (!newSurface.equals(screen.surf)) {
                     screen.surf = newSurface;
                 }
-                status = lib.SDL_UpdateWindowSurface(win);
+                status = frame.SDL_UpdateWindowSurface(win);
             }
         }
 
@@ -504,6 +790,43 @@ public final class Display {
         }
     }
 
+    /**
+     * Lock the streaming texture for the screen surface to draw into. Does nothing if it's already locked.
+     */
+    private static void lockStreamingTexture(SDL2FrameLibrary frame) {
+        if (STATE.textureLocked) {
+            return;
+        }
+        if (STATE.lockedPixels == null) {
+            STATE.lockedPixels = new PointerByReference();
+            STATE.lockedPitch = new IntByReference();
+        }
+        if (frame.SDL_LockTexture(texture, null, STATE.lockedPixels, STATE.lockedPitch) != 0) {
+            SDLException.throwNew();
+        }
+        STATE.textureLocked = true;
+    }
+
+    private static void unlockStreamingTexture(SDL2FrameLibrary frame) {
+        if (STATE.textureLocked) {
+            frame.SDL_UnlockTexture(texture);
+            STATE.textureLocked = false;
+        }
+    }
+
+    /**
+     * Unlock and destroy the SCALED texture, if there is one.
+     */
+    private static void destroyScaledTexture(SDL2Library lib) {
+        if (texture == null) {
+            return;
+        }
+        unlockStreamingTexture(LowLevel.getFrameInstance());
+        lib.SDL_DestroyTexture(texture);
+        texture = null;
+        STATE.textureW = STATE.textureH = 0;
+    }
+
     protected static boolean resizeEventWatch(Pointer userdata, SDL_Event event) {
         SDL2Library lib = LowLevel.getInstance();
         if (event.getType() != SDL_EventType.WINDOWEVENT) {
@@ -1,24 +1,30 @@
 package io.github.gaming32.sdl4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.sun.jna.Memory;
 import com.sun.jna.Pointer;
 
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.AudioDevice;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Button;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Common;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.JoyAxis;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.JoyBall;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.JoyButton;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.JoyHat;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Key;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Motion;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Wheel;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Window;
+import io.github.gaming32.sdl4j.LowLevel.SDL2FrameLibrary;
 import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_AudioDeviceEvent;
 import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_JoyAxisEvent;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_JoyBallEvent;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_JoyButtonEvent;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_JoyHatEvent;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_KeyboardEvent;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Keysym;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_MouseButtonEvent;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_MouseMotionEvent;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_WindowEvent;
 import io.github.gaming32.sdl4j.math.Vector2;
 import io.github.gaming32.sdl4j.modules.EventModule;
 import io.github.gaming32.sdl4j.sdl_enums.SDL4J_AppCode;
@@ -28,21 +34,108 @@ import io.github.gaming32.sdl4j.sdl_enums.SDL_WindowEventID;
 import io.github.gaming32.sdl4j.sdl_enums.SDL_eventaction;
 
 public class Event {
-    private static final int GET_LIST_LEN = 128;
+    static final int GET_LIST_LEN = 128;
+    private static final int MAX_LIST_LEN = 4096;
+
+    private static volatile int bufferCapacity = GET_LIST_LEN;
+    private static final ThreadLocal<EventBuffer> EVENT_BUFFER = new ThreadLocal<>();
+
+    private static final PostedEventQueue POSTED = new PostedEventQueue(MAX_LIST_LEN);
+    // Posted events that were drained from POSTED but not asked for yet, in post order. Guarded by itself.
+    private static final List<Event> POSTED_BACKLOG = new ArrayList<>();
+
+    private static final Comparator<Event> BY_TIMESTAMP = (a, b) -> Integer.compareUnsigned(a.timestamp, b.timestamp);
+
+    private static volatile EventRecorder recorder;
+    private static volatile boolean coalescing;
+
+    /**
+     * A native peep buffer that is reused between polls.
+     */
+    private static final class EventBuffer {
+        final int baseCapacity;
+        int capacity;
+        Memory memory;
+
+        EventBuffer(int capacity) {
+            this.baseCapacity = capacity;
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            this.capacity = capacity;
+            this.memory = new Memory((long)capacity * SDL_Event.SIZE);
+        }
+
+        /**
+         * Called when a poll filled the whole buffer, so that the next burst can be drained in fewer calls.
+         */
+        void grow() {
+            if (capacity < MAX_LIST_LEN) {
+                allocate(Math.min(capacity * 2, MAX_LIST_LEN));
+            }
+        }
+    }
 
     protected final int type;
+    protected final int timestamp;
     protected final Map<String, Object> data;
 
+    /**
+     * Create an event to {@link #post(Event)}. It's timestamped with {@code SDL_GetTicks} now.
+     */
+    public Event(int type) {
+        this(type, Collections.emptyMap());
+    }
+
+    /**
+     * Create an event to {@link #post(Event)}. It's timestamped with {@code SDL_GetTicks} now.
+     * @param data the event's attributes; they're copied
+     */
+    public Event(int type, Map<String, Object> data) {
+        if (type < SDL_EventType.FIRSTEVENT || type > SDL_EventType.LASTEVENT) {
+            throw new IllegalArgumentException("Invalid event type: " + type);
+        }
+        this.type = type;
+        this.timestamp = LowLevel.getFrameInstance().SDL_GetTicks();
+        this.data = new HashMap<>(data);
+    }
+
     protected Event(SDL_Event event) {
+        this(event != null ? event.getPointer() : null, 0);
+    }
+
+    /**
+     * @param event a buffer of native {@code SDL_Event}s
+     * @param offset the offset of the event to read within {@code event}
+     */
+    protected Event(Pointer event, long offset) {
         if (event != null) {
-            this.type = event.type;
-            this.data = dataFromEvent(event);
+            this.type = event.getInt(offset + Common.TYPE);
+            this.timestamp = event.getInt(offset + Common.TIMESTAMP);
+            this.data = dataFromEvent(event, offset, this.type);
         } else {
             this.type = SDL4J_EventCode.NOEVENT;
+            this.timestamp = 0;
             this.data = new HashMap<>();
         }
     }
 
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * @return when the event happened, in {@code SDL_GetTicks} milliseconds
+     */
+    public int getTimestamp() {
+        return timestamp;
+    }
+
+    public Map<String, Object> getData() {
+        return Collections.unmodifiableMap(data);
+    }
+
     @Override
     public String toString() {
         String dataString = data.toString();
@@ -53,15 +146,17 @@ public class Event {
     }
 
     protected static Map<String, Object> dataFromEvent(SDL_Event event) {
+        Pointer p = event.getPointer();
+        return dataFromEvent(p, 0, p.getInt(Common.TYPE));
+    }
+
+    protected static Map<String, Object> dataFromEvent(Pointer p, long offset, int eventType) {
         Map<String, Object> result = new HashMap<>();
-        SDL_WindowEvent windowEvent;
 
-        int eventType = event.getType();
         switch (eventType) {
             case SDL4J_EventCode.VIDEORESIZE:
-                windowEvent = event.getProperValue(SDL_WindowEvent.class);
-                int w = (int)windowEvent.readField("data1");
-                int h = (int)windowEvent.readField("data2");
+                int w = p.getInt(offset + Window.DATA1);
+                int h = p.getInt(offset + Window.DATA2);
                 result.put("size", new Vector2(w, h));
                 result.put("w", w);
                 result.put("h", h);
@@ -69,8 +164,8 @@ public class Event {
             case SDL4J_EventCode.ACTIVEEVENT:
                 boolean gain;
                 int state;
-                windowEvent = event.getProperValue(SDL_WindowEvent.class);
-                switch ((int)windowEvent.readField("event")) {
+                int windowEventId = p.getByte(offset + Window.EVENT) & 0xff;
+                switch (windowEventId) {
                     case SDL_WindowEventID.ENTER:
                         gain = true;
                         state = SDL4J_AppCode.APPFOCUSMOUSE;
@@ -92,7 +187,7 @@ public class Event {
                         state = SDL4J_AppCode.APPACTIVE;
                         break;
                     default:
-                        assert windowEvent.event == SDL_WindowEventID.RESTORED;
+                        assert windowEventId == SDL_WindowEventID.RESTORED;
                         gain = true;
                         state = SDL4J_AppCode.APPACTIVE;
                 }
@@ -101,58 +196,72 @@ public class Event {
                 break;
             case SDL_EventType.KEYDOWN:
             case SDL_EventType.KEYUP:
-                SDL_Keysym keysym = (SDL_Keysym)event.getProperValue(SDL_KeyboardEvent.class).readField("keysym");
-                result.put("unicode", EventModule.getInstance().getEventUnicode(event, eventType, keysym));
-                result.put("key", keysym.sym);
-                result.put("mod", (int)keysym.mod);
-                result.put("scancode", keysym.scancode);
+                int scancode = p.getInt(offset + Key.SCANCODE);
+                int sym = p.getInt(offset + Key.SYM);
+                int mod = p.getShort(offset + Key.MOD) & 0xffff;
+                result.put("unicode", EventModule.getInstance().getEventUnicode(eventType, scancode, sym, mod));
+                result.put("key", sym);
+                result.put("mod", mod);
+                result.put("scancode", scancode);
                 break;
             case SDL_EventType.MOUSEMOTION:
-                SDL_MouseMotionEvent motionEvent = event.getProperValue(SDL_MouseMotionEvent.class);
-                result.put("pos", new Vector2(motionEvent.x, motionEvent.y));
-                result.put("x", motionEvent.x);
-                result.put("y", motionEvent.y);
-                result.put("rel", new Vector2(motionEvent.xrel, motionEvent.yrel));
-                result.put("relX", motionEvent.xrel);
-                result.put("relY", motionEvent.yrel);
-                result.put("buttons", motionEvent.state);
-                result.put("touch", motionEvent.which == SDL2Library.SDL_TOUCH_MOUSEID);
+                int motionX = p.getInt(offset + Motion.X);
+                int motionY = p.getInt(offset + Motion.Y);
+                int xrel = p.getInt(offset + Motion.XREL);
+                int yrel = p.getInt(offset + Motion.YREL);
+                result.put("pos", new Vector2(motionX, motionY));
+                result.put("x", motionX);
+                result.put("y", motionY);
+                result.put("rel", new Vector2(xrel, yrel));
+                result.put("relX", xrel);
+                result.put("relY", yrel);
+                result.put("buttons", p.getInt(offset + Motion.STATE));
+                result.put("touch", p.getInt(offset + Motion.WHICH) == SDL2Library.SDL_TOUCH_MOUSEID);
                 break;
             case SDL_EventType.MOUSEBUTTONDOWN:
             case SDL_EventType.MOUSEBUTTONUP:
-                SDL_MouseButtonEvent buttonEvent = event.getProperValue(SDL_MouseButtonEvent.class);
-                result.put("pos", new Vector2(buttonEvent.x, buttonEvent.y));
-                result.put("x", buttonEvent.x);
-                result.put("y", buttonEvent.y);
-                result.put("touch", buttonEvent.which == SDL2Library.SDL_TOUCH_MOUSEID);
+                int buttonX = p.getInt(offset + Button.X);
+                int buttonY = p.getInt(offset + Button.Y);
+                result.put("pos", new Vector2(buttonX, buttonY));
+                result.put("x", buttonX);
+                result.put("y", buttonY);
+                result.put("touch", p.getInt(offset + Button.WHICH) == SDL2Library.SDL_TOUCH_MOUSEID);
+                break;
+            case SDL_EventType.MOUSEWHEEL:
+                int wheelX = p.getInt(offset + Wheel.X);
+                int wheelY = p.getInt(offset + Wheel.Y);
+                result.put("x", wheelX);
+                result.put("y", wheelY);
+                result.put("flipped", p.getInt(offset + Wheel.DIRECTION) == SDL2Library.SDL_MOUSEWHEEL_FLIPPED);
+                result.put("touch", p.getInt(offset + Wheel.WHICH) == SDL2Library.SDL_TOUCH_MOUSEID);
                 break;
             case SDL_EventType.JOYAXISMOTION:
-                SDL_JoyAxisEvent jaxisEvent = event.getProperValue(SDL_JoyAxisEvent.class);
-                result.put("instanceId", jaxisEvent.which);
-                result.put("axis", (int)jaxisEvent.axis);
-                result.put("valu", jaxisEvent.value / 32767.0);
+                result.put("instanceId", p.getInt(offset + JoyAxis.WHICH));
+                result.put("axis", p.getByte(offset + JoyAxis.AXIS) & 0xff);
+                result.put("valu", p.getShort(offset + JoyAxis.VALUE) / 32767.0);
                 break;
             case SDL_EventType.JOYBALLMOTION:
-                SDL_JoyBallEvent jballEvent = event.getProperValue(SDL_JoyBallEvent.class);
-                result.put("instanceId", jballEvent.which);
-                result.put("ball", (int)jballEvent.ball);
-                result.put("rel", new Vector2(jballEvent.xrel, jballEvent.yrel));
-                result.put("relX", (int)jballEvent.xrel);
-                result.put("relY", (int)jballEvent.yrel);
+                int ballXrel = p.getShort(offset + JoyBall.XREL);
+                int ballYrel = p.getShort(offset + JoyBall.YREL);
+                result.put("instanceId", p.getInt(offset + JoyBall.WHICH));
+                result.put("ball", p.getByte(offset + JoyBall.BALL) & 0xff);
+                result.put("rel", new Vector2(ballXrel, ballYrel));
+                result.put("relX", ballXrel);
+                result.put("relY", ballYrel);
                 break;
             case SDL_EventType.JOYHATMOTION:
-                SDL_JoyHatEvent jhatEvent = event.getProperValue(SDL_JoyHatEvent.class);
-                result.put("instanceId", jhatEvent.which);
-                result.put("hat", (int)jhatEvent.hat);
+                result.put("instanceId", p.getInt(offset + JoyHat.WHICH));
+                result.put("hat", p.getByte(offset + JoyHat.HAT) & 0xff);
+                int hatValue = p.getByte(offset + JoyHat.VALUE);
                 int hx = 0, hy = 0;
-                if ((jhatEvent.value & SDL2Library.SDL_HAT_UP) != 0) {
+                if ((hatValue & SDL2Library.SDL_HAT_UP) != 0) {
                     hy = 1;
-                } else if ((jhatEvent.value & SDL2Library.SDL_HAT_DOWN) != 0) {
+                } else if ((hatValue & SDL2Library.SDL_HAT_DOWN) != 0) {
                     hy = -1;
                 }
-                if ((jhatEvent.value & SDL2Library.SDL_HAT_RIGHT) != 0) {
+                if ((hatValue & SDL2Library.SDL_HAT_RIGHT) != 0) {
                     hx = 1;
-                } else if ((jhatEvent.value & SDL2Library.SDL_HAT_LEFT) != 0) {
+                } else if ((hatValue & SDL2Library.SDL_HAT_LEFT) != 0) {
                     hx = -1;
                 }
                 result.put("value", new Vector2(hx, hy));
@@ -161,23 +270,22 @@ public class Event {
                 break;
             case SDL_EventType.JOYBUTTONUP:
             case SDL_EventType.JOYBUTTONDOWN:
-                SDL_JoyButtonEvent jbuttonEvent = event.getProperValue(SDL_JoyButtonEvent.class);
-                result.put("instanceId", jbuttonEvent.which);
-                result.put("button", (int)jbuttonEvent.button);
+                result.put("instanceId", p.getInt(offset + JoyButton.WHICH));
+                result.put("button", p.getByte(offset + JoyButton.BUTTON) & 0xff);
                 break;
             case SDL4J_EventCode.WINDOWMOVED:
             case SDL4J_EventCode.WINDOWRESIZED:
             case SDL4J_EventCode.WINDOWRESTORED:
-                windowEvent = event.getProperValue(SDL_WindowEvent.class);
-                result.put("pos", new Vector2(windowEvent.data1, windowEvent.data2));
-                result.put("x", windowEvent.data1);
-                result.put("y", windowEvent.data2);
+                int data1 = p.getInt(offset + Window.DATA1);
+                int data2 = p.getInt(offset + Window.DATA2);
+                result.put("pos", new Vector2(data1, data2));
+                result.put("x", data1);
+                result.put("y", data2);
                 break;
             case SDL_EventType.AUDIODEVICEADDED:
             case SDL_EventType.AUDIODEVICEREMOVED:
-                SDL_AudioDeviceEvent adeviceEvent = event.getProperValue(SDL_AudioDeviceEvent.class);
-                result.put("which", adeviceEvent.which);
-                result.put("isCapture", adeviceEvent.iscapture);
+                result.put("which", p.getInt(offset + AudioDevice.WHICH));
+                result.put("isCapture", p.getByte(offset + AudioDevice.ISCAPTURE));
                 break;
             // TODO Finish events
         }
@@ -202,59 +310,335 @@ public class Event {
     }
 
     public static List<Event> get(int include, boolean pump, int exclude) {
+        return get(include == -1 ? null : new int[] { include }, pump, exclude == -1 ? null : new int[] { exclude });
+    }
+
+    public static List<Event> get(int[] include) {
+        return get(include, true, null);
+    }
+
+    public static List<Event> get(int[] include, boolean pump) {
+        return get(include, pump, null);
+    }
+
+    public static List<Event> get(boolean pump, int[] exclude) {
+        return get(null, pump, exclude);
+    }
+
+    /**
+     * <p>Get pending events, optionally filtered by type.</p>
+     *
+     * <p>Filtering happens in SDL itself: the requested types are coalesced into contiguous type ranges,
+     * and each range is pulled with a single {@code SDL_PeepEvents} call (or a few, if there are more
+     * events than fit in the buffer). Events that are not requested stay in the queue.</p>
+     *
+     * <p>Events from {@link #post(Event)} are taken too, with the same filter. The result is sorted by
+     * timestamp; events with the same timestamp keep the order they were taken in, native events first.</p>
+     *
+     * @param include the event types to get, or {@code null} to get every type
+     * @param pump whether to pump the event loop first
+     * @param exclude the event types to leave in the queue, or {@code null} to exclude nothing
+     * @return the fetched events, in timestamp order
+     */
+    public static List<Event> get(int[] include, boolean pump, int[] exclude) {
+        if (include != null && exclude != null) {
+            throw new IllegalArgumentException("Cannot use include and exclude at the same time!");
+        }
         SDL4J.videoInitCheck();
         eventPump(pump);
-        if (include == -1) {
-            if (exclude != -1) {
-                // return getAllEventsExcept(exclude);
+        List<Event> result;
+        if (include == null) {
+            if (exclude != null) {
+                result = getAllEventsExcept(exclude);
+            } else {
+                result = getAllEvents();
             }
-            return getAllEvents();
         } else {
-            if (exclude != -1) {
-                throw new IllegalArgumentException("Cannot use include and exclude at the same time!");
+            result = getSeqEvents(include);
+        }
+        return mergePosted(result, takePosted(include, exclude));
+    }
+
+    /**
+     * Fetch pending events into a reusable {@link EventView}, without allocating an {@link Event} per event.
+     * Events from {@link #post(Event)} aren't native, so they're left for the list-returning {@code get}.
+     * @param view the view to fill; any events it held before are discarded
+     * @return the number of events fetched, at most the capacity of {@code view}
+     */
+    public static int get(EventView view) {
+        return get(view, true);
+    }
+
+    public static int get(EventView view, boolean pump) {
+        SDL2FrameLibrary frame = LowLevel.getFrameInstance();
+        SDL4J.videoInitCheck();
+        eventPump(pump);
+        int len = frame.SDL_PeepEvents(
+            view.getBuffer(), view.getCapacity(), SDL_eventaction.GETEVENT, SDL_EventType.FIRSTEVENT, SDL_EventType.LASTEVENT
+        );
+        if (len < 0) {
+            SDLException.throwNew();
+        }
+        EventRecorder recorder = Event.recorder;
+        if (recorder != null) {
+            recorder.record(view.getBuffer(), len);
+        }
+        if (coalescing) {
+            len = EventCoalescer.coalesce(view.getBuffer(), len);
+        }
+        view.reset(len);
+        return len;
+    }
+
+    /**
+     * <p>Queue an event for the next {@link #get()}. This may be called from any thread: the event goes into
+     * a lock-free ring that the polling thread drains in one go, so posting never waits on SDL's event
+     * mutex and doesn't touch native memory.</p>
+     *
+     * <p>Posted events don't go through SDL, so they're only seen by the {@code get} methods that return a
+     * list, and SDL's event filters and {@code SDL_EventState} don't apply to them.</p>
+     *
+     * @return {@code false} if the event was dropped because too many posted events are waiting
+     */
+    public static boolean post(Event event) {
+        if (event == null) {
+            throw new NullPointerException("event");
+        }
+        return POSTED.offer(event);
+    }
+
+    /**
+     * Drain the posted event ring and take the events that pass the filter. The rest are kept, in order,
+     * for a later call.
+     */
+    private static List<Event> takePosted(int[] include, int[] exclude) {
+        synchronized (POSTED_BACKLOG) {
+            POSTED.drainTo(POSTED_BACKLOG);
+            if (POSTED_BACKLOG.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Event> taken = new ArrayList<>();
+            int kept = 0;
+            for (int i = 0; i < POSTED_BACKLOG.size(); i++) {
+                Event event = POSTED_BACKLOG.get(i);
+                boolean wanted = include != null ? contains(include, event.type) : exclude == null || !contains(exclude, event.type);
+                if (wanted) {
+                    taken.add(event);
+                } else {
+                    POSTED_BACKLOG.set(kept++, event);
+                }
             }
-            // return getSeqEvents(exclude);
+            POSTED_BACKLOG.subList(kept, POSTED_BACKLOG.size()).clear();
+            return taken;
         }
-        return null;
+    }
+
+    private static boolean contains(int[] types, int type) {
+        for (int t : types) {
+            if (t == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Combine native and posted events in timestamp order. Each type range is pulled from SDL separately,
+     * so the native events are only in order within a range; a stable sort puts everything in order while
+     * keeping the order of events with the same timestamp. On an already sorted list it's a single pass.
+     */
+    private static List<Event> mergePosted(List<Event> events, List<Event> posted) {
+        events.addAll(posted);
+        events.sort(BY_TIMESTAMP);
+        return events;
     }
 
     private static List<Event> getAllEvents() {
-        SDL2Library lib = LowLevel.getInstance();
-        SDL_Event bufFirst = new SDL_Event();
-        SDL_Event[] buf = (SDL_Event[])bufFirst.toArray(GET_LIST_LEN);
         List<Event> result = new ArrayList<>();
-        int len = GET_LIST_LEN;
+        getEventsInRange(result, getEventBuffer(), SDL_EventType.FIRSTEVENT, SDL_EventType.LASTEVENT);
+        return result;
+    }
+
+    private static List<Event> getSeqEvents(int[] include) {
+        return getEventsInRanges(typeRanges(include));
+    }
+
+    private static List<Event> getAllEventsExcept(int[] exclude) {
+        return getEventsInRanges(complementRanges(typeRanges(exclude)));
+    }
+
+    /**
+     * @param excluded sorted, non-overlapping ranges from {@link #typeRanges(int[])}
+     * @return the ranges of every event type not in {@code excluded}
+     */
+    static int[] complementRanges(int[] excluded) {
+        int[] ranges = new int[excluded.length + 2];
+        int count = 0;
+        int next = SDL_EventType.FIRSTEVENT;
+        for (int i = 0; i < excluded.length; i += 2) {
+            if (excluded[i] > next) {
+                ranges[count++] = next;
+                ranges[count++] = excluded[i] - 1;
+            }
+            next = excluded[i + 1] + 1;
+        }
+        if (next <= SDL_EventType.LASTEVENT) {
+            ranges[count++] = next;
+            ranges[count++] = SDL_EventType.LASTEVENT;
+        }
+        return Arrays.copyOf(ranges, count);
+    }
+
+    private static List<Event> getEventsInRanges(int[] ranges) {
+        EventBuffer buf = getEventBuffer();
+        List<Event> result = new ArrayList<>();
+        for (int i = 0; i < ranges.length; i += 2) {
+            getEventsInRange(result, buf, ranges[i], ranges[i + 1]);
+        }
+        return result;
+    }
 
-        while (len == GET_LIST_LEN) {
-            len = lib.SDL_PeepEvents(bufFirst, GET_LIST_LEN, SDL_eventaction.GETEVENT);
-            if (len == -1) {
+    private static void getEventsInRange(List<Event> result, EventBuffer buf, int minType, int maxType) {
+        SDL2FrameLibrary frame = LowLevel.getFrameInstance();
+        EventRecorder recorder = Event.recorder;
+        boolean coalescing = Event.coalescing;
+        boolean full;
+
+        do {
+            int len = frame.SDL_PeepEvents(buf.memory, buf.capacity, SDL_eventaction.GETEVENT, minType, maxType);
+            if (len < 0) {
                 SDLException.throwNew();
             }
+            if (recorder != null) {
+                recorder.record(buf.memory, len);
+            }
+            full = len == buf.capacity;
+            if (coalescing) {
+                len = EventCoalescer.coalesce(buf.memory, len);
+            }
             for (int i = 0; i < len; i++) {
-                addEventToList(result, buf[i]);
+                addEventToList(result, buf.memory, (long)i * SDL_Event.SIZE);
+            }
+            if (full) {
+                buf.grow();
+            }
+        } while (full);
+    }
+
+    /**
+     * Sort a set of event types and coalesce runs of consecutive types.
+     * @return the ranges, as pairs of inclusive {@code minType, maxType}
+     */
+    static int[] typeRanges(int[] types) {
+        int[] sorted = types.clone();
+        Arrays.sort(sorted);
+        int[] ranges = new int[sorted.length * 2];
+        int count = 0;
+        for (int type : sorted) {
+            if (type < SDL_EventType.FIRSTEVENT || type > SDL_EventType.LASTEVENT) {
+                throw new IllegalArgumentException("Invalid event type: " + type);
+            }
+            if (count > 0 && type <= ranges[count - 1] + 1) {
+                ranges[count - 1] = Math.max(ranges[count - 1], type);
+            } else {
+                ranges[count++] = type;
+                ranges[count++] = type;
             }
         }
-        return result;
+        return Arrays.copyOf(ranges, count);
+    }
+
+    private static EventBuffer getEventBuffer() {
+        EventBuffer buf = EVENT_BUFFER.get();
+        int capacity = bufferCapacity;
+        if (buf == null || buf.baseCapacity != capacity) {
+            buf = new EventBuffer(capacity);
+            EVENT_BUFFER.set(buf);
+        }
+        return buf;
+    }
+
+    /**
+     * Set how many events are fetched from SDL per native call. Each polling thread keeps its own buffer
+     * of this size, which is doubled (up to a limit) whenever a burst of events fills it.
+     * @param capacity the initial buffer capacity, in events
+     */
+    public static void setBufferCapacity(int capacity) {
+        if (capacity <= 0 || capacity > MAX_LIST_LEN) {
+            throw new IllegalArgumentException("Event buffer capacity must be between 1 and " + MAX_LIST_LEN);
+        }
+        bufferCapacity = capacity;
+    }
+
+    public static int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    /**
+     * <p>Turn on or off coalescing of mouse motion and window geometry events. When it's on, each batch of
+     * events taken from SDL has runs of {@code MOUSEMOTION} events from the same window and mouse merged
+     * into one, with their {@code xrel} and {@code yrel} summed, and back-to-back {@code WINDOWEVENT}
+     * resizes, size changes or moves of the same kind for the same window merged into the last one. Other
+     * events keep their order. It's off by default.</p>
+     *
+     * <p>An {@link EventRecorder} still sees every event as it came from SDL.</p>
+     */
+    public static void setCoalescing(boolean coalescing) {
+        Event.coalescing = coalescing;
+    }
+
+    public static boolean isCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * Turn on or off the emulated wheel button clicks that follow each {@code MOUSEWHEEL} event. See
+     * {@link EventModule#setWheelEmulation(boolean)}.
+     */
+    public static void setWheelEmulation(boolean wheelEmulation) {
+        EventModule.getInstance().setWheelEmulation(wheelEmulation);
+    }
+
+    public static boolean isWheelEmulation() {
+        return EventModule.getInstance().isWheelEmulation();
+    }
+
+    /**
+     * Record every native event that {@code get} takes from now on, or stop recording with {@code null}.
+     * The recorder that was installed before isn't closed.
+     */
+    public static synchronized void setRecorder(EventRecorder recorder) {
+        Event.recorder = recorder;
+    }
+
+    public static EventRecorder getRecorder() {
+        return recorder;
+    }
+
+    static synchronized void clearRecorder(EventRecorder expected) {
+        if (recorder == expected) {
+            recorder = null;
+        }
     }
 
-    private static void addEventToList(List<Event> list, SDL_Event event) {
-        list.add(new Event(event));
+    private static void addEventToList(List<Event> list, Pointer buffer, long offset) {
+        list.add(new Event(buffer, offset));
     }
 
     private static void eventPump(boolean pump) {
         SDL2Library lib = LowLevel.getInstance();
         if (pump) {
-            lib.SDL_PumpEvents();
+            LowLevel.getFrameInstance().SDL_PumpEvents();
         }
         lib.SDL_FilterEvents(Event::translateWindowEvent, null);
     }
 
-    private static boolean translateWindowEvent(Pointer ignored, SDL_Event event) {
+    private static boolean translateWindowEvent(Pointer ignored, Pointer event) {
         SDL2Library lib = LowLevel.getInstance();
-        if (event.getType() == SDL_EventType.WINDOWEVENT) {
-            SDL_WindowEvent windowEvent = event.getProperValue(SDL_WindowEvent.class);
-            event.writeField("type", SDL4J_EventCode.WINDOWSHOWN + (byte)windowEvent.readField("event") - 1);
-            return lib.SDL_EventState(event.type, SDL2Library.SDL_QUERY);
+        if (event.getInt(Common.TYPE) == SDL_EventType.WINDOWEVENT) {
+            int type = SDL4J_EventCode.WINDOWSHOWN + event.getByte(Window.EVENT) - 1;
+            event.setInt(Common.TYPE, type);
+            return lib.SDL_EventState(type, SDL2Library.SDL_QUERY);
         }
         return true;
     }
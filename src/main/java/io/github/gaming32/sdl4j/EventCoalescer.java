@@ -0,0 +1,129 @@
+package io.github.gaming32.sdl4j;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.sun.jna.Pointer;
+
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Common;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Motion;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Window;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+import io.github.gaming32.sdl4j.sdl_enums.SDL4J_EventCode;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_WindowEventID;
+
+/**
+ * <p>Merges bursts of mouse motion and window resize events in a native event buffer, for
+ * {@link Event#setCoalescing(boolean)}. The buffer is compacted in place, so nothing is allocated.</p>
+ *
+ * <p>A motion event is merged into an earlier one from the same window and mouse, as long as only
+ * motion events came between them. The merged event keeps the earlier one's place, takes the later
+ * one's position, button state and timestamp, and sums their {@code xrel} and {@code yrel}. A
+ * {@code WINDOWEVENT} resize, size change or move is merged only into one of the same kind for the same
+ * window right before it. Those arrive from SDL as {@code WINDOWEVENT} with the kind in the event ID byte,
+ * or already renamed to the matching {@code SDL4J_EventCode} if {@link Event}'s pump got to them first, so
+ * both forms are recognized. Nothing else is touched, so everything that isn't merged keeps its order.</p>
+ */
+final class EventCoalescer {
+    private static final int SIZE = SDL_Event.SIZE;
+
+    private EventCoalescer() {
+    }
+
+    /**
+     * @return the number of events left at the start of the buffer
+     */
+    static int coalesce(Pointer events, int count) {
+        if (count < 2) {
+            return count;
+        }
+        ByteBuffer buffer = events.getByteBuffer(0, (long)count * SIZE).order(ByteOrder.nativeOrder());
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int offset = i * SIZE;
+            int type = buffer.getInt(offset + Common.TYPE);
+            if (type == SDL_EventType.MOUSEMOTION) {
+                if (mergeMotion(buffer, kept, offset)) {
+                    continue;
+                }
+            } else if (kept > 0) {
+                int geometry = windowGeometry(buffer, offset, type);
+                int last = (kept - 1) * SIZE;
+                if (geometry >= 0 &&
+                    windowGeometry(buffer, last, buffer.getInt(last + Common.TYPE)) == geometry &&
+                    buffer.getInt(last + Window.WINDOW_ID) == buffer.getInt(offset + Window.WINDOW_ID)
+                ) {
+                    buffer.putInt(last + Common.TIMESTAMP, buffer.getInt(offset + Common.TIMESTAMP));
+                    buffer.putInt(last + Window.DATA1, buffer.getInt(offset + Window.DATA1));
+                    buffer.putInt(last + Window.DATA2, buffer.getInt(offset + Window.DATA2));
+                    continue;
+                }
+            }
+            if (kept != i) {
+                move(buffer, offset, kept * SIZE);
+            }
+            kept++;
+        }
+        return kept;
+    }
+
+    /**
+     * @return the {@code SDL4J_EventCode} for a window resize, size change or move event, whether it's still
+     *         a {@code WINDOWEVENT} or not, or {@code -1} for any other event
+     */
+    private static int windowGeometry(ByteBuffer buffer, int offset, int type) {
+        if (type == SDL_EventType.WINDOWEVENT) {
+            int id = buffer.get(offset + Window.EVENT) & 0xff;
+            switch (id) {
+                case SDL_WindowEventID.MOVED:
+                case SDL_WindowEventID.RESIZED:
+                case SDL_WindowEventID.SIZE_CHANGED:
+                    return SDL4J_EventCode.WINDOWSHOWN + id - 1;
+            }
+            return -1;
+        }
+        switch (type) {
+            case SDL4J_EventCode.WINDOWMOVED:
+            case SDL4J_EventCode.WINDOWRESIZED:
+            case SDL4J_EventCode.WINDOWSIZECHANGED:
+                return type;
+        }
+        return -1;
+    }
+
+    /**
+     * Look back through the motion events at the end of the kept ones for one from the same window and
+     * mouse, and merge into it.
+     */
+    private static boolean mergeMotion(ByteBuffer buffer, int kept, int offset) {
+        int windowId = buffer.getInt(offset + Motion.WINDOW_ID);
+        int which = buffer.getInt(offset + Motion.WHICH);
+        for (int j = kept - 1; j >= 0; j--) {
+            int target = j * SIZE;
+            if (buffer.getInt(target + Common.TYPE) != SDL_EventType.MOUSEMOTION) {
+                return false;
+            }
+            if (buffer.getInt(target + Motion.WINDOW_ID) == windowId && buffer.getInt(target + Motion.WHICH) == which) {
+                buffer.putInt(target + Common.TIMESTAMP, buffer.getInt(offset + Common.TIMESTAMP));
+                buffer.putInt(target + Motion.STATE, buffer.getInt(offset + Motion.STATE));
+                buffer.putInt(target + Motion.X, buffer.getInt(offset + Motion.X));
+                buffer.putInt(target + Motion.Y, buffer.getInt(offset + Motion.Y));
+                buffer.putInt(target + Motion.XREL, buffer.getInt(target + Motion.XREL) + buffer.getInt(offset + Motion.XREL));
+                buffer.putInt(target + Motion.YREL, buffer.getInt(target + Motion.YREL) + buffer.getInt(offset + Motion.YREL));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void move(ByteBuffer buffer, int from, int to) {
+        ByteBuffer source = buffer.duplicate();
+        ((Buffer)source).limit(from + SIZE);
+        ((Buffer)source).position(from);
+        ByteBuffer dest = buffer.duplicate();
+        ((Buffer)dest).position(to);
+        dest.put(source);
+    }
+}
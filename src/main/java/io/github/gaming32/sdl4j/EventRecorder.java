@@ -0,0 +1,132 @@
+package io.github.gaming32.sdl4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.sun.jna.Pointer;
+
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Common;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+
+/**
+ * <p>Records the native events taken by {@link Event#get()} and {@link Event#get(EventView)} to a file, for
+ * {@link EventReplayer} to play back. Install it with {@link Event#setRecorder(EventRecorder)}.</p>
+ *
+ * <p>The file starts with a header of the magic {@code SDL4JEVT}, a format version and the
+ * {@code SDL_Event} size. After that, each event is a record of the nanoseconds since recording started
+ * followed by the raw {@code SDL_Event}. Every event from one {@code SDL_PeepEvents} call has the same
+ * time, so a replay can hand them out in the same batches. Everything is in native byte order. Records
+ * are gathered in a direct buffer and written with a {@link FileChannel} when it fills up, so recording
+ * costs a memory copy per event. Recording into an existing file replaces it, since the times of a new
+ * session start over from zero.</p>
+ *
+ * <p>{@code DROPFILE}, {@code DROPTEXT} and {@code SYSWMEVENT} events point to memory that won't exist
+ * at replay time, so they aren't recorded. Events from {@link Event#post(Event)} aren't native, so they
+ * aren't recorded either.</p>
+ */
+public final class EventRecorder implements AutoCloseable {
+    static final long MAGIC = 0x5344_4c34_4a45_5654L; // SDL4JEVT
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = Long.BYTES + SDL_Event.SIZE;
+    private static final int BUFFER_RECORDS = 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long startNanos = System.nanoTime();
+    private long recorded;
+    private boolean closed;
+
+    /**
+     * Open a file to record into, creating it if needed and replacing what it had otherwise.
+     */
+    public EventRecorder(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE).order(ByteOrder.nativeOrder());
+        buffer.putLong(MAGIC).putInt(VERSION).putInt(SDL_Event.SIZE);
+    }
+
+    /**
+     * Record {@code count} events from a native event buffer. This is called by {@link Event} after each
+     * {@code SDL_PeepEvents}.
+     */
+    synchronized void record(Pointer events, int count) {
+        if (closed || count <= 0) {
+            return;
+        }
+        long time = System.nanoTime() - startNanos;
+        ByteBuffer source = events.getByteBuffer(0, (long)count * SDL_Event.SIZE).order(ByteOrder.nativeOrder());
+        try {
+            for (int i = 0; i < count; i++) {
+                int offset = i * SDL_Event.SIZE;
+                switch (source.getInt(offset + Common.TYPE)) {
+                    case SDL_EventType.DROPFILE:
+                    case SDL_EventType.DROPTEXT:
+                    case SDL_EventType.SYSWMEVENT:
+                        continue;
+                }
+                if (buffer.remaining() < RECORD_SIZE) {
+                    writeBuffer();
+                }
+                ((Buffer)source).limit(offset + SDL_Event.SIZE);
+                ((Buffer)source).position(offset);
+                buffer.putLong(time);
+                buffer.put(source);
+                ((Buffer)source).limit(source.capacity());
+                recorded++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        ((Buffer)buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        ((Buffer)buffer).clear();
+    }
+
+    /**
+     * Write out any buffered records.
+     */
+    public synchronized void flush() throws IOException {
+        if (!closed) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * @return the number of events recorded so far
+     */
+    public synchronized long getRecordedCount() {
+        return recorded;
+    }
+
+    /**
+     * Stop recording and close the file. If this is the current recorder, it's uninstalled first.
+     */
+    @Override
+    public void close() throws IOException {
+        Event.clearRecorder(this);
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            try {
+                writeBuffer();
+            } finally {
+                closed = true;
+                channel.close();
+            }
+        }
+    }
+}
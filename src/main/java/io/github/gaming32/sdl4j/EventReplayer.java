@@ -0,0 +1,181 @@
+package io.github.gaming32.sdl4j;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.sun.jna.Memory;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2FrameLibrary;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+import io.github.gaming32.sdl4j.modules.EventModule;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_eventaction;
+
+/**
+ * <p>Plays back a file written by {@link EventRecorder}, adding the events to SDL's queue. Call
+ * {@link #replay()} once per frame, before {@link Event#get()}.</p>
+ *
+ * <p>The recorder sees events after SDL4J's event filter has already translated them (window events into
+ * {@code VIDEORESIZE} and friends, wheel motion into button clicks, and so on). So the events are added with
+ * {@code SDL_PeepEvents(SDL_ADDEVENT)}, which skips the filter, rather than {@code SDL_PushEvent}, which
+ * would run them through it a second time. They also keep their recorded timestamps. The filter also notes
+ * which key typed each {@code TEXTINPUT}, for the {@code unicode} of key events, so that's handed the
+ * added events with {@link EventModule#trackAddedEvents}.</p>
+ *
+ * <p>When paced, each call adds every event whose recorded time has come, measured from the first call.
+ * Otherwise each call adds the next batch of events that came from one {@code SDL_PeepEvents} when they
+ * were recorded, no matter how much time has passed. Under the {@code dummy} video driver, that replays a
+ * session the same way on every run, as fast as the program can handle it.</p>
+ */
+public final class EventReplayer implements AutoCloseable {
+    private static final int BUFFER_RECORDS = 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    // A batch of events to add with one SDL_PeepEvents
+    private final Memory events = new Memory((long)BUFFER_RECORDS * SDL_Event.SIZE);
+    private final ByteBuffer eventBuffer = events.getByteBuffer(0, events.size());
+    private boolean paced;
+    private long startNanos = -1;
+    private long replayed;
+    private boolean finished;
+
+    /**
+     * @param paced whether to add events at the pace they were recorded, or a batch per
+     *              {@link #replay()}
+     */
+    public EventReplayer(Path file, boolean paced) throws IOException {
+        this.paced = paced;
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * EventRecorder.RECORD_SIZE).order(ByteOrder.nativeOrder());
+        ((Buffer)buffer).limit(0);
+        try {
+            if (!fill(EventRecorder.HEADER_SIZE)) {
+                throw new IOException("Not an event recording: too short");
+            }
+            if (buffer.getLong() != EventRecorder.MAGIC) {
+                throw new IOException("Not an event recording, or recorded with a different byte order");
+            }
+            int version = buffer.getInt();
+            if (version != EventRecorder.VERSION) {
+                throw new IOException("Unsupported event recording version: " + version);
+            }
+            int eventSize = buffer.getInt();
+            if (eventSize != SDL_Event.SIZE) {
+                throw new IOException("Event recording has " + eventSize + " byte events, expected " + SDL_Event.SIZE);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Make sure at least {@code bytes} bytes are buffered.
+     *
+     * @return {@code false} if the file ends first
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        ((Buffer)buffer).flip();
+        return buffer.remaining() >= bytes;
+    }
+
+    /**
+     * Add the events that are due to SDL's queue. See the class description for what that means in each
+     * mode.
+     *
+     * @return the number of events added
+     */
+    public int replay() throws IOException {
+        if (finished) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        if (startNanos < 0) {
+            startNanos = now;
+        }
+        int count = 0;
+        long batchTime = -1;
+        ((Buffer)eventBuffer).clear();
+        while (true) {
+            // A partial record at the end means the recording was cut off while writing
+            if (!fill(EventRecorder.RECORD_SIZE)) {
+                finished = true;
+                break;
+            }
+            long time = buffer.getLong(buffer.position());
+            if (paced ? time > now - startNanos : batchTime >= 0 && time != batchTime) {
+                break;
+            }
+            batchTime = time;
+            ((Buffer)buffer).position(buffer.position() + Long.BYTES);
+            int limit = buffer.limit();
+            ((Buffer)buffer).limit(buffer.position() + SDL_Event.SIZE);
+            if (!eventBuffer.hasRemaining()) {
+                addEvents();
+            }
+            eventBuffer.put(buffer);
+            ((Buffer)buffer).limit(limit);
+            count++;
+        }
+        addEvents();
+        replayed += count;
+        return count;
+    }
+
+    /**
+     * Add the events gathered in {@link #eventBuffer} to the queue.
+     */
+    private void addEvents() {
+        int n = eventBuffer.position() / SDL_Event.SIZE;
+        if (n > 0) {
+            SDL2FrameLibrary frame = LowLevel.getFrameInstance();
+            if (frame.SDL_PeepEvents(events, n, SDL_eventaction.ADDEVENT, SDL_EventType.FIRSTEVENT, SDL_EventType.LASTEVENT) < 0) {
+                SDLException.throwNew();
+            }
+            EventModule.getInstance().trackAddedEvents(events, n);
+        }
+        ((Buffer)eventBuffer).clear();
+    }
+
+    public boolean isPaced() {
+        return paced;
+    }
+
+    public void setPaced(boolean paced) {
+        this.paced = paced;
+    }
+
+    /**
+     * @return whether every event in the file has been added
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return the number of events added so far
+     */
+    public long getReplayedCount() {
+        return replayed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,432 @@
+package io.github.gaming32.sdl4j;
+
+import com.sun.jna.Memory;
+
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.AudioDevice;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Button;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Common;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.JoyAxis;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.JoyBall;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.JoyHat;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Key;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Motion;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Wheel;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Window;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+import io.github.gaming32.sdl4j.modules.EventModule;
+import io.github.gaming32.sdl4j.sdl_enums.SDL4J_AppCode;
+import io.github.gaming32.sdl4j.sdl_enums.SDL4J_EventCode;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_WindowEventID;
+
+/**
+ * <p>A reusable cursor over a native buffer of {@code SDL_Event}s.</p>
+ *
+ * <p>Unlike {@link Event}, a view does not copy anything out of native memory. Every getter
+ * reads straight from the current event in the buffer, so a poll loop that keeps reusing the
+ * same view does not allocate:</p>
+ *
+ * <pre>
+ * EventView view = new EventView();
+ * while (running) {
+ *     Event.get(view);
+ *     while (view.next()) {
+ *         switch (view.type()) {
+ *             case SDL_EventType.MOUSEMOTION:
+ *                 handleMouse(view.x(), view.y());
+ *                 break;
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>Getters that don't apply to the current event type return 0 (or {@code false}).</p>
+ */
+public final class EventView {
+    //#region Native offsets
+    private static final int TYPE = Common.TYPE;
+    private static final int TIMESTAMP = Common.TIMESTAMP;
+    private static final int WINDOW_ID = Window.WINDOW_ID;
+    private static final int WINDOW_EVENT = Window.EVENT;
+    private static final int WINDOW_DATA1 = Window.DATA1;
+    private static final int WINDOW_DATA2 = Window.DATA2;
+    private static final int KEY_REPEAT = Key.REPEAT;
+    private static final int KEY_SCANCODE = Key.SCANCODE;
+    private static final int KEY_SYM = Key.SYM;
+    private static final int KEY_MOD = Key.MOD;
+    private static final int MOUSE_WHICH = Motion.WHICH;
+    private static final int MOTION_STATE = Motion.STATE;
+    private static final int MOTION_X = Motion.X;
+    private static final int MOTION_Y = Motion.Y;
+    private static final int MOTION_XREL = Motion.XREL;
+    private static final int MOTION_YREL = Motion.YREL;
+    private static final int BUTTON_BUTTON = Button.BUTTON;
+    private static final int BUTTON_X = Button.X;
+    private static final int BUTTON_Y = Button.Y;
+    private static final int WHEEL_X = Wheel.X;
+    private static final int WHEEL_Y = Wheel.Y;
+    private static final int JOY_WHICH = JoyAxis.WHICH;
+    private static final int JOY_INDEX = JoyAxis.AXIS;
+    private static final int JOY_HAT_VALUE = JoyHat.VALUE;
+    private static final int JOY_AXIS_VALUE = JoyAxis.VALUE;
+    private static final int JOY_BALL_XREL = JoyBall.XREL;
+    private static final int JOY_BALL_YREL = JoyBall.YREL;
+    private static final int ADEVICE_ISCAPTURE = AudioDevice.ISCAPTURE;
+    //#endregion
+
+    private final Memory buffer;
+    private final int capacity;
+    private int count;
+    private int index = -1;
+    private long offset;
+
+    public EventView() {
+        this(Event.GET_LIST_LEN);
+    }
+
+    public EventView(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("EventView capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.buffer = new Memory((long)capacity * SDL_Event.SIZE);
+    }
+
+    Memory getBuffer() {
+        return buffer;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    void reset(int count) {
+        this.count = count;
+        this.index = -1;
+        this.offset = 0;
+    }
+
+    /**
+     * @return the number of events fetched into this view by the last {@link Event#get(EventView)}
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Move to the next event in the view.
+     * @return {@code true} if there was another event, {@code false} if the view is exhausted
+     */
+    public boolean next() {
+        if (index + 1 >= count) {
+            return false;
+        }
+        index++;
+        offset = (long)index * SDL_Event.SIZE;
+        return true;
+    }
+
+    /**
+     * Move back to before the first event, so that the view can be iterated again.
+     */
+    public void rewind() {
+        index = -1;
+        offset = 0;
+    }
+
+    private void checkPosition() {
+        if (index < 0) {
+            throw new IllegalStateException("EventView is not positioned on an event. Did you forget to call next()?");
+        }
+    }
+
+    private int getInt(int field) {
+        return buffer.getInt(offset + field);
+    }
+
+    private int getUByte(int field) {
+        return buffer.getByte(offset + field) & 0xff;
+    }
+
+    private int getShort(int field) {
+        return buffer.getShort(offset + field);
+    }
+
+    public int type() {
+        checkPosition();
+        return getInt(TYPE);
+    }
+
+    public int timestamp() {
+        checkPosition();
+        return getInt(TIMESTAMP);
+    }
+
+    public int windowID() {
+        switch (type()) {
+            case SDL_EventType.KEYDOWN:
+            case SDL_EventType.KEYUP:
+            case SDL_EventType.TEXTEDITING:
+            case SDL_EventType.TEXTINPUT:
+            case SDL_EventType.MOUSEMOTION:
+            case SDL_EventType.MOUSEBUTTONDOWN:
+            case SDL_EventType.MOUSEBUTTONUP:
+            case SDL_EventType.MOUSEWHEEL:
+                return getInt(WINDOW_ID);
+        }
+        if (isWindowEvent()) {
+            return getInt(WINDOW_ID);
+        }
+        return 0;
+    }
+
+    public int x() {
+        switch (type()) {
+            case SDL_EventType.MOUSEMOTION:
+                return getInt(MOTION_X);
+            case SDL_EventType.MOUSEBUTTONDOWN:
+            case SDL_EventType.MOUSEBUTTONUP:
+                return getInt(BUTTON_X);
+            case SDL_EventType.MOUSEWHEEL:
+                return getInt(WHEEL_X);
+            case SDL_EventType.JOYHATMOTION:
+                int hat = getUByte(JOY_HAT_VALUE);
+                if ((hat & SDL2Library.SDL_HAT_RIGHT) != 0) {
+                    return 1;
+                } else if ((hat & SDL2Library.SDL_HAT_LEFT) != 0) {
+                    return -1;
+                }
+                return 0;
+            case SDL4J_EventCode.WINDOWMOVED:
+            case SDL4J_EventCode.WINDOWRESIZED:
+            case SDL4J_EventCode.WINDOWRESTORED:
+                return getInt(WINDOW_DATA1);
+        }
+        return 0;
+    }
+
+    public int y() {
+        switch (type()) {
+            case SDL_EventType.MOUSEMOTION:
+                return getInt(MOTION_Y);
+            case SDL_EventType.MOUSEBUTTONDOWN:
+            case SDL_EventType.MOUSEBUTTONUP:
+                return getInt(BUTTON_Y);
+            case SDL_EventType.MOUSEWHEEL:
+                return getInt(WHEEL_Y);
+            case SDL_EventType.JOYHATMOTION:
+                int hat = getUByte(JOY_HAT_VALUE);
+                if ((hat & SDL2Library.SDL_HAT_UP) != 0) {
+                    return 1;
+                } else if ((hat & SDL2Library.SDL_HAT_DOWN) != 0) {
+                    return -1;
+                }
+                return 0;
+            case SDL4J_EventCode.WINDOWMOVED:
+            case SDL4J_EventCode.WINDOWRESIZED:
+            case SDL4J_EventCode.WINDOWRESTORED:
+                return getInt(WINDOW_DATA2);
+        }
+        return 0;
+    }
+
+    public int relX() {
+        switch (type()) {
+            case SDL_EventType.MOUSEMOTION:
+                return getInt(MOTION_XREL);
+            case SDL_EventType.JOYBALLMOTION:
+                return getShort(JOY_BALL_XREL);
+        }
+        return 0;
+    }
+
+    public int relY() {
+        switch (type()) {
+            case SDL_EventType.MOUSEMOTION:
+                return getInt(MOTION_YREL);
+            case SDL_EventType.JOYBALLMOTION:
+                return getShort(JOY_BALL_YREL);
+        }
+        return 0;
+    }
+
+    /**
+     * @return the button state mask of a {@code MOUSEMOTION} event
+     */
+    public int buttons() {
+        if (type() == SDL_EventType.MOUSEMOTION) {
+            return getInt(MOTION_STATE);
+        }
+        return 0;
+    }
+
+    public int button() {
+        switch (type()) {
+            case SDL_EventType.MOUSEBUTTONDOWN:
+            case SDL_EventType.MOUSEBUTTONUP:
+                return getUByte(BUTTON_BUTTON);
+            case SDL_EventType.JOYBUTTONDOWN:
+            case SDL_EventType.JOYBUTTONUP:
+                return getUByte(JOY_INDEX);
+        }
+        return 0;
+    }
+
+    public boolean touch() {
+        switch (type()) {
+            case SDL_EventType.MOUSEMOTION:
+            case SDL_EventType.MOUSEBUTTONDOWN:
+            case SDL_EventType.MOUSEBUTTONUP:
+            case SDL_EventType.MOUSEWHEEL:
+                return getInt(MOUSE_WHICH) == SDL2Library.SDL_TOUCH_MOUSEID;
+        }
+        return false;
+    }
+
+    private boolean isKeyEvent() {
+        int type = type();
+        return type == SDL_EventType.KEYDOWN || type == SDL_EventType.KEYUP;
+    }
+
+    public int key() {
+        return isKeyEvent() ? getInt(KEY_SYM) : 0;
+    }
+
+    public int scancode() {
+        return isKeyEvent() ? getInt(KEY_SCANCODE) : 0;
+    }
+
+    public int mod() {
+        return isKeyEvent() ? getShort(KEY_MOD) & 0xffff : 0;
+    }
+
+    public boolean repeat() {
+        return isKeyEvent() && getUByte(KEY_REPEAT) != 0;
+    }
+
+    /**
+     * @return the unicode text of a {@code KEYDOWN} or {@code KEYUP} event
+     * @see EventModule#getEventUnicode(int, int, int, int)
+     */
+    public String unicode() {
+        if (!isKeyEvent()) {
+            return null;
+        }
+        return EventModule.getInstance().getEventUnicode(type(), getInt(KEY_SCANCODE), getInt(KEY_SYM), getShort(KEY_MOD) & 0xffff);
+    }
+
+    /**
+     * @return the mouse, joystick, or audio device instance id of this event
+     */
+    public int which() {
+        switch (type()) {
+            case SDL_EventType.MOUSEMOTION:
+            case SDL_EventType.MOUSEBUTTONDOWN:
+            case SDL_EventType.MOUSEBUTTONUP:
+            case SDL_EventType.MOUSEWHEEL:
+                return getInt(MOUSE_WHICH);
+            case SDL_EventType.JOYAXISMOTION:
+            case SDL_EventType.JOYBALLMOTION:
+            case SDL_EventType.JOYHATMOTION:
+            case SDL_EventType.JOYBUTTONDOWN:
+            case SDL_EventType.JOYBUTTONUP:
+            case SDL_EventType.AUDIODEVICEADDED:
+            case SDL_EventType.AUDIODEVICEREMOVED:
+                return getInt(JOY_WHICH);
+        }
+        return 0;
+    }
+
+    public int axis() {
+        return type() == SDL_EventType.JOYAXISMOTION ? getUByte(JOY_INDEX) : 0;
+    }
+
+    /**
+     * @return the axis value of a {@code JOYAXISMOTION} event, in the range -1 to 1
+     */
+    public double value() {
+        return type() == SDL_EventType.JOYAXISMOTION ? getShort(JOY_AXIS_VALUE) / 32767.0 : 0;
+    }
+
+    public int ball() {
+        return type() == SDL_EventType.JOYBALLMOTION ? getUByte(JOY_INDEX) : 0;
+    }
+
+    public int hat() {
+        return type() == SDL_EventType.JOYHATMOTION ? getUByte(JOY_INDEX) : 0;
+    }
+
+    public boolean isCapture() {
+        switch (type()) {
+            case SDL_EventType.AUDIODEVICEADDED:
+            case SDL_EventType.AUDIODEVICEREMOVED:
+                return getUByte(ADEVICE_ISCAPTURE) != 0;
+        }
+        return false;
+    }
+
+    /**
+     * @return the new width of a {@code VIDEORESIZE} event
+     */
+    public int w() {
+        return type() == SDL4J_EventCode.VIDEORESIZE ? getInt(WINDOW_DATA1) : 0;
+    }
+
+    /**
+     * @return the new height of a {@code VIDEORESIZE} event
+     */
+    public int h() {
+        return type() == SDL4J_EventCode.VIDEORESIZE ? getInt(WINDOW_DATA2) : 0;
+    }
+
+    /**
+     * @return whether an {@code ACTIVEEVENT} represents a gain of focus or visibility
+     */
+    public boolean gain() {
+        if (type() != SDL4J_EventCode.ACTIVEEVENT) {
+            return false;
+        }
+        switch (getUByte(WINDOW_EVENT)) {
+            case SDL_WindowEventID.ENTER:
+            case SDL_WindowEventID.FOCUS_GAINED:
+            case SDL_WindowEventID.RESTORED:
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the {@link SDL4J_AppCode} state of an {@code ACTIVEEVENT}
+     */
+    public int state() {
+        if (type() != SDL4J_EventCode.ACTIVEEVENT) {
+            return 0;
+        }
+        switch (getUByte(WINDOW_EVENT)) {
+            case SDL_WindowEventID.ENTER:
+            case SDL_WindowEventID.LEAVE:
+                return SDL4J_AppCode.APPFOCUSMOUSE;
+            case SDL_WindowEventID.FOCUS_GAINED:
+            case SDL_WindowEventID.FOCUS_LOST:
+                return SDL4J_AppCode.APPINPUTFOCUS;
+        }
+        return SDL4J_AppCode.APPACTIVE;
+    }
+
+    private boolean isWindowEvent() {
+        int type = getInt(TYPE);
+        return (type >= SDL4J_EventCode.WINDOWSHOWN && type <= SDL4J_EventCode.WINDOWHITTEST) ||
+            type == SDL4J_EventCode.ACTIVEEVENT ||
+            type == SDL4J_EventCode.VIDEORESIZE ||
+            type == SDL4J_EventCode.VIDEOEXPOSE;
+    }
+
+    @Override
+    public String toString() {
+        if (index < 0) {
+            return "EventView{size=" + count + "}";
+        }
+        return "EventView{index=" + index + ", type=" + type() + "}";
+    }
+}
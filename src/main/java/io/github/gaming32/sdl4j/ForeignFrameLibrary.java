@@ -0,0 +1,21 @@
+package io.github.gaming32.sdl4j;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2FrameLibrary;
+
+/**
+ * <p>{@link SDL2FrameLibrary} backed by the Foreign Function &amp; Memory API.</p>
+ *
+ * <p>This is the Java 8 version, which is always unavailable. The real implementation lives in
+ * {@code src/main/java22} and is picked up from {@code META-INF/versions/22} of the multi-release jar.</p>
+ */
+final class ForeignFrameLibrary {
+    private ForeignFrameLibrary() {
+    }
+
+    /**
+     * @return the FFM backend, or {@code null} if it isn't available on this JVM
+     */
+    static SDL2FrameLibrary load() {
+        return null;
+    }
+}
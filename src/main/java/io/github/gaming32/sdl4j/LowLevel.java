@@ -19,11 +19,61 @@ import com.sun.jna.Structure.FieldOrder;
 import com.sun.jna.TypeMapper;
 import com.sun.jna.Union;
 import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
 
 import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
 
 public final class LowLevel {
-    public static interface SDL2Library extends Library {
+    /**
+     * <p>The SDL functions called every frame by {@link Display} and {@link Event}.</p>
+     *
+     * <p>These are split out of {@link SDL2Library} so that they can be served by a faster backend than
+     * JNA's interface mapping (see {@link LowLevel#getFrameInstance()}). The documentation for each
+     * function is on {@link SDL2Library}.</p>
+     */
+    public static interface SDL2FrameLibrary {
+        public void SDL_PumpEvents();
+
+        public int SDL_PeepEvents(Pointer events, int numevents, int action, int minType, int maxType);
+
+        public int SDL_UpdateWindowSurface(SDL2Library.SDL_Window window);
+
+        public int SDL_UpdateWindowSurfaceRects(SDL2Library.SDL_Window window, final Pointer rects, int numrects);
+
+        public int SDL_UpdateTexture(SDL2Library.SDL_Texture texture, final SDL2Library.SDL_Rect rect, final Pointer pixels, int pitch);
+
+        public int SDL_UpdateTexture(SDL2Library.SDL_Texture texture, final Pointer rect, final Pointer pixels, int pitch);
+
+        public int SDL_LockTexture(SDL2Library.SDL_Texture texture, final SDL2Library.SDL_Rect rect, PointerByReference pixels, IntByReference pitch);
+
+        public void SDL_UnlockTexture(SDL2Library.SDL_Texture texture);
+
+        public int SDL_RenderCopy(SDL2Library.SDL_Renderer renderer, SDL2Library.SDL_Texture texture, final SDL2Library.SDL_Rect srcrect, final SDL2Library.SDL_Rect dstrect);
+
+        public void SDL_RenderPresent(SDL2Library.SDL_Renderer renderer);
+
+        public int SDL_UpperBlit(Pointer src, final Pointer srcrect, Pointer dst, Pointer dstrect);
+
+        public int SDL_LowerBlit(Pointer src, Pointer srcrect, Pointer dst, Pointer dstrect);
+
+        public int SDL_UpperBlitScaled(Pointer src, final Pointer srcrect, Pointer dst, Pointer dstrect);
+
+        public int SDL_LockSurface(Pointer surface);
+
+        public void SDL_UnlockSurface(Pointer surface);
+
+        public int SDL_GetTicks();
+
+        public long SDL_GetPerformanceCounter();
+
+        public void SDL_Delay(int ms);
+
+        public int SDL_GetMouseState(IntByReference x, IntByReference y);
+
+        public int SDL_RenderCopyEx(SDL2Library.SDL_Renderer renderer, SDL2Library.SDL_Texture texture, final Pointer srcrect, final Pointer dstrect, double angle, final Pointer center, int flip);
+    }
+
+    public static interface SDL2Library extends Library, SDL2FrameLibrary {
         //#region SDL.h
         public static final int SDL_INIT_TIMER          = 0x00000001;
         public static final int SDL_INIT_AUDIO          = 0x00000010;
@@ -213,6 +263,14 @@ public final class LowLevel {
             public int type;
             /** In milliseconds, populated using SDL_GetTicks() */
             public int timestamp;
+
+            /**
+             * @return the native offset of {@code field} within this event structure
+             * @see EventLayout
+             */
+            public int offsetOf(String field) {
+                return fieldOffset(field);
+            }
         }
 
         /**
@@ -230,7 +288,7 @@ public final class LowLevel {
             /** The associated display index */
             public int display;
             public byte event;
-            public int padding1, padding2, padding3;
+            public byte padding1, padding2, padding3;
             /** event dependent data */
             public int data1;
         }
@@ -251,7 +309,7 @@ public final class LowLevel {
             /** The associated window */
             public int windowID;
             public byte event;
-            public int padding1, padding2, padding3;
+            public byte padding1, padding2, padding3;
             /** event dependent data */
             public int data1, data2;
         }
@@ -756,6 +814,9 @@ public final class LowLevel {
          * General event structure
          */
         public static class SDL_Event extends Union {
+            /** The native size of an SDL_Event, in bytes */
+            public static final int SIZE = 56;
+
             public SDL_Event() { }
 
             public SDL_Event(Pointer p) {
@@ -832,7 +893,7 @@ public final class LowLevel {
             /** Drag and drop event data */
             public SDL_DropEvent drop;
 
-            public byte[] padding = new byte[56];
+            public byte[] padding = new byte[SIZE];
 
             public int getType() {
                 return getProperValue(int.class);
@@ -977,6 +1038,21 @@ public final class LowLevel {
             return SDL_PeepEvents(events, numevents, action, SDL_EventType.FIRSTEVENT, SDL_EventType.LASTEVENT);
         }
 
+        /**
+         * Same as {@link #SDL_PeepEvents(SDL_Event, int, int, int, int)}, but reads and writes a raw native
+         * event buffer directly, skipping the {@link Structure} marshalling of {@link SDL_Event}
+         * @see #SDL_PeepEvents(SDL_Event, int, int, int, int)
+         */
+        public int SDL_PeepEvents(Pointer events, int numevents, int action, int minType, int maxType);
+
+        /**
+         * Same as {@link #SDL_PeepEvents(Pointer, int, int, int, int)}, but gets all events, regardless of type
+         * @see #SDL_PeepEvents(Pointer, int, int, int, int)
+         */
+        default public int SDL_PeepEvents(Pointer events, int numevents, int action) {
+            return SDL_PeepEvents(events, numevents, action, SDL_EventType.FIRSTEVENT, SDL_EventType.LASTEVENT);
+        }
+
         /**
          * A function pointer used for callbacks that watch the event queue.
          *
@@ -994,6 +1070,17 @@ public final class LowLevel {
             public boolean filter(Pointer userdata, SDL_Event event);
         }
 
+        /**
+         * Same as {@link SDL_EventFilter}, but receives the event as a raw pointer, so that no
+         * {@link SDL_Event} has to be built and read for every filtered event.
+         *
+         * @see EventLayout
+         */
+        @FunctionalInterface
+        public static interface SDL_RawEventFilter extends Callback {
+            public boolean filter(Pointer userdata, Pointer event);
+        }
+
         /**
          * <p>Set up a filter to process all events before they change internal state and
          * are posted to the internal event queue.</p>
@@ -1036,6 +1123,12 @@ public final class LowLevel {
          */
         public void SDL_SetEventFilter(SDL_EventFilter filter, Pointer userdata);
 
+        /**
+         * Same as {@link #SDL_SetEventFilter(SDL_EventFilter, Pointer)}, but with a raw pointer filter
+         * @see #SDL_SetEventFilter(SDL_EventFilter, Pointer)
+         */
+        public void SDL_SetEventFilter(SDL_RawEventFilter filter, Pointer userdata);
+
         /**
          * <p>Run a specific filter function on the current event queue, removing any
          * events for which the filter returns 0.</p>
@@ -1052,6 +1145,12 @@ public final class LowLevel {
          */
         public void SDL_FilterEvents(SDL_EventFilter filter, Pointer userdata);
 
+        /**
+         * Same as {@link #SDL_FilterEvents(SDL_EventFilter, Pointer)}, but with a raw pointer filter
+         * @see #SDL_FilterEvents(SDL_EventFilter, Pointer)
+         */
+        public void SDL_FilterEvents(SDL_RawEventFilter filter, Pointer userdata);
+
         /**
          * <p>Add an event to the event queue.</p>
          *
@@ -1084,6 +1183,14 @@ public final class LowLevel {
          */
         public boolean SDL_PushEvent(SDL_Event event);
 
+        /**
+         * Same as {@link #SDL_PushEvent(SDL_Event)}, but pushes a raw native event without any
+         * {@link Structure} marshalling
+         * @return 1 on success, 0 if the event was filtered, or a negative error code on failure
+         * @see #SDL_PushEvent(SDL_Event)
+         */
+        public int SDL_PushEvent(Pointer event);
+
         public static final int SDL_QUERY = -1;
         public static final int SDL_IGNORE = 0;
         public static final int SDL_DISABLE = 0;
@@ -1248,6 +1355,14 @@ public final class LowLevel {
             public int sym;
             public short mod;
             public int unused;
+
+            /**
+             * @return the native offset of {@code field} within this structure
+             * @see EventLayout
+             */
+            public int offsetOf(String field) {
+                return fieldOffset(field);
+            }
         }
         //#endregion
 
@@ -1409,6 +1524,10 @@ public final class LowLevel {
             return ((1 << 28) | ((type) << 24) | ((order) << 20) | ((layout) << 16) | ((bits) << 8) | ((bytes) << 0));
         }
 
+        public static int SDL_BITSPERPIXEL(int format) {
+            return (format >> 8) & 0xFF;
+        }
+
         @FieldOrder({
             "r",
             "g",
@@ -1628,6 +1747,53 @@ public final class LowLevel {
          */
         public int SDL_UpdateTexture(SDL_Texture texture, final SDL_Rect rect, final Pointer pixels, int pitch);
 
+        /**
+         * Same as {@link #SDL_UpdateTexture(SDL_Texture, SDL_Rect, Pointer, int)}, but with a raw
+         * {@code SDL_Rect} pointer, so nothing is marshalled.
+         */
+        public int SDL_UpdateTexture(SDL_Texture texture, final Pointer rect, final Pointer pixels, int pitch);
+
+        /**
+         * <p>Lock a portion of the texture for <b>write-only</b> pixel access.</p>
+         *
+         * <p>As an optimization, the pixels made available for editing don't
+         * necessarily contain the old texture data. This is a write-only operation,
+         * and if you need to keep a copy of the texture data you should do that at
+         * the application level.</p>
+         *
+         * <p>You must use SDL_UnlockTexture() to unlock the pixels and apply any
+         * changes.</p>
+         *
+         * @param texture the texture to lock for access, which was created with
+         *                {@code SDL_TEXTUREACCESS_STREAMING}
+         * @param rect an SDL_Rect structure representing the area to lock for access;
+         *             NULL to lock the entire texture
+         * @param pixels this is filled in with a pointer to the locked pixels,
+         *               appropriately offset by the locked area
+         * @param pitch this is filled in with the pitch of the locked pixels; the
+         *              pitch is the length of one row in bytes
+         * @return 0 on success or a negative error code if the texture is not valid or
+         *         was not created with {@code SDL_TEXTUREACCESS_STREAMING}; call
+         *         SDL_GetError() for more information.
+         *
+         * @see #SDL_UnlockTexture
+         */
+        public int SDL_LockTexture(SDL_Texture texture, final SDL_Rect rect, PointerByReference pixels, IntByReference pitch);
+
+        /**
+         * <p>Unlock a texture, uploading the changes to video memory, if needed.</p>
+         *
+         * <p><b>Warning</b>: Please note that SDL_LockTexture() is intended to be
+         * write-only; it will not guarantee the previous contents of the texture will
+         * be provided. You must fully initialize any area of a texture that you lock
+         * before unlocking it, as the pixels might otherwise be uninitialized memory.</p>
+         *
+         * @param texture a texture locked by SDL_LockTexture()
+         *
+         * @see #SDL_LockTexture
+         */
+        public void SDL_UnlockTexture(SDL_Texture texture);
+
         /**
          * <p>Clear the current rendering target with the drawing color.</p>
          *
@@ -1672,6 +1838,58 @@ public final class LowLevel {
          */
         public int SDL_RenderCopy(SDL_Renderer renderer, SDL_Texture texture, final SDL_Rect srcrect, final SDL_Rect dstrect);
 
+        /**
+         * <p>Copy a portion of the texture to the current rendering target, with
+         * optional rotation and flipping.</p>
+         *
+         * <p>The rectangles and the center point are passed as raw pointers to
+         * SDL_Rect and SDL_Point structures, so that callers can keep them in
+         * preallocated native memory.</p>
+         *
+         * @param renderer the rendering context
+         * @param texture the source texture
+         * @param srcrect the source SDL_Rect structure or NULL for the entire texture
+         * @param dstrect the destination SDL_Rect structure or NULL for the entire
+         *                rendering target
+         * @param angle an angle in degrees that indicates the rotation that will be
+         *              applied to dstrect, rotating it in a clockwise direction
+         * @param center a pointer to a point indicating the point around which
+         *               dstrect will be rotated (if NULL, rotation will be done
+         *               around {@code dstrect.w / 2}, {@code dstrect.h / 2})
+         * @param flip a SDL_RendererFlip value stating which flipping actions should
+         *             be performed on the texture
+         * @return 0 on success or a negative error code on failure; call
+         *         SDL_GetError() for more information.
+         *
+         * @see #SDL_RenderCopy
+         */
+        public int SDL_RenderCopyEx(SDL_Renderer renderer, SDL_Texture texture, final Pointer srcrect, final Pointer dstrect, double angle, final Pointer center, int flip);
+
+        /**
+         * <p>Render a list of triangles, optionally using a texture and indices into the
+         * vertex array. Color and alpha modulation is done per vertex
+         * (SDL_SetTextureColorMod and SDL_SetTextureAlphaMod are ignored).</p>
+         *
+         * <p>Each vertex is an SDL_Vertex: an SDL_FPoint position, an SDL_Color and an
+         * SDL_FPoint texture coordinate, {@link #SDL_VERTEX_SIZE} bytes in all.</p>
+         *
+         * @param renderer the rendering context
+         * @param texture (optional) the SDL texture to use
+         * @param vertices vertices
+         * @param num_vertices number of vertices
+         * @param indices (optional) an array of integer indices into the 'vertices'
+         *                array, if NULL all vertices will be rendered in sequential
+         *                order
+         * @param num_indices number of indices
+         * @return 0 on success, or -1 if the operation is not supported
+         *
+         * @since This function is available since SDL 2.0.18.
+         */
+        public int SDL_RenderGeometry(SDL_Renderer renderer, SDL_Texture texture, final Pointer vertices, int num_vertices, final Pointer indices, int num_indices);
+
+        /** The size of an SDL_Vertex in bytes */
+        public static final int SDL_VERTEX_SIZE = 20;
+
         /**
          * <p>Update the screen with any rendering performed since the previous call.</p>
          *
@@ -1775,11 +1993,157 @@ public final class LowLevel {
          * @see #SDL_RenderSetLogicalSize
          */
         public int SDL_RenderSetIntegerScale(SDL_Renderer renderer, boolean enable);
+
+        /**
+         * Create a 2D software rendering context for a surface.
+         *
+         * @param surface the SDL_Surface structure representing the surface where
+         *                rendering is done
+         * @return a valid rendering context or NULL if there was an error; call
+         *         SDL_GetError() for more information.
+         *
+         * @see #SDL_CreateRenderer
+         * @see #SDL_DestroyRenderer
+         */
+        public SDL_Renderer SDL_CreateSoftwareRenderer(SDL_Surface surface);
+
+        /**
+         * Get the output size in pixels of a rendering context.
+         *
+         * @param renderer the rendering context
+         * @param w an int filled in with the width
+         * @param h an int filled in with the height
+         * @return 0 on success or a negative error code on failure; call
+         *         SDL_GetError() for more information.
+         */
+        public int SDL_GetRendererOutputSize(SDL_Renderer renderer, IntByReference w, IntByReference h);
+
+        /**
+         * <p>Create a texture from an existing surface.</p>
+         *
+         * <p>The surface is not modified or freed by this function.</p>
+         *
+         * @param renderer the rendering context
+         * @param surface the SDL_Surface structure containing pixel data used to fill
+         *                the texture
+         * @return the created texture or NULL on failure; call SDL_GetError() for
+         *         more information.
+         *
+         * @see #SDL_CreateTexture
+         * @see #SDL_DestroyTexture
+         * @see #SDL_QueryTexture
+         */
+        public SDL_Texture SDL_CreateTextureFromSurface(SDL_Renderer renderer, SDL_Surface surface);
+
+        /**
+         * Query the attributes of a texture.
+         *
+         * @param texture the texture to query
+         * @param format a pointer filled in with the raw format of the texture, may be
+         *               NULL
+         * @param access a pointer filled in with the actual access to the texture, may
+         *               be NULL
+         * @param w a pointer filled in with the width of the texture in pixels, may be
+         *          NULL
+         * @param h a pointer filled in with the height of the texture in pixels, may
+         *          be NULL
+         * @return 0 on success or a negative error code on failure; call
+         *         SDL_GetError() for more information.
+         *
+         * @see #SDL_CreateTexture
+         */
+        public int SDL_QueryTexture(SDL_Texture texture, IntByReference format, IntByReference access, IntByReference w, IntByReference h);
+
+        /**
+         * <p>Set an additional color value multiplied into render copy operations.</p>
+         *
+         * <p>When this texture is rendered, during the copy operation each source color
+         * channel is modulated by the appropriate color value according to the
+         * following formula: {@code srcC = srcC * (color / 255)}</p>
+         *
+         * @param texture the texture to update
+         * @param r the red color value multiplied into copy operations
+         * @param g the green color value multiplied into copy operations
+         * @param b the blue color value multiplied into copy operations
+         * @return 0 on success or a negative error code on failure; call
+         *         SDL_GetError() for more information.
+         *
+         * @see #SDL_SetTextureAlphaMod
+         */
+        public int SDL_SetTextureColorMod(SDL_Texture texture, byte r, byte g, byte b);
+
+        /**
+         * <p>Set an additional alpha value multiplied into render copy operations.</p>
+         *
+         * <p>When this texture is rendered, during the copy operation the source alpha
+         * value is modulated by this alpha value according to the following formula:
+         * {@code srcA = srcA * (alpha / 255)}</p>
+         *
+         * @param texture the texture to update
+         * @param alpha the source alpha value multiplied into copy operations
+         * @return 0 on success or a negative error code on failure; call
+         *         SDL_GetError() for more information.
+         *
+         * @see #SDL_SetTextureColorMod
+         */
+        public int SDL_SetTextureAlphaMod(SDL_Texture texture, byte alpha);
+
+        /**
+         * Set the blend mode for a texture, used by SDL_RenderCopy().
+         *
+         * @param texture the texture to update
+         * @param blendMode the SDL_BlendMode to use for texture blending
+         * @return 0 on success or a negative error code on failure; call
+         *         SDL_GetError() for more information.
+         *
+         * @see #SDL_RenderCopy
+         */
+        public int SDL_SetTextureBlendMode(SDL_Texture texture, int blendMode);
+
+        /**
+         * <p>Set the color used for drawing operations (Rect, Line and Clear).</p>
+         *
+         * @param renderer the rendering context
+         * @param r the red value used to draw on the rendering target
+         * @param g the green value used to draw on the rendering target
+         * @param b the blue value used to draw on the rendering target
+         * @param a the alpha value used to draw on the rendering target; usually
+         *          {@code SDL_ALPHA_OPAQUE} (255)
+         * @return 0 on success or a negative error code on failure; call
+         *         SDL_GetError() for more information.
+         *
+         * @see #SDL_RenderClear
+         */
+        public int SDL_SetRenderDrawColor(SDL_Renderer renderer, byte r, byte g, byte b, byte a);
+
+        /**
+         * <p>Read pixels from the current rendering target to an array of pixels.</p>
+         *
+         * <p><b>WARNING</b>: This is a very slow operation, and should not be used
+         * frequently.</p>
+         *
+         * @param renderer the rendering context
+         * @param rect an SDL_Rect structure representing the area to read, or NULL
+         *             for the entire render target
+         * @param format an SDL_PixelFormatEnum value of the desired format of the
+         *               pixel data, or 0 to use the format of the rendering target
+         * @param pixels a pointer to the pixel data to copy into
+         * @param pitch the pitch of the {@code pixels} parameter
+         * @return 0 on success or a negative error code on failure; call
+         *         SDL_GetError() for more information.
+         */
+        public int SDL_RenderReadPixels(SDL_Renderer renderer, final SDL_Rect rect, int format, Pointer pixels, int pitch);
         //#endregion
 
         //#region SDL_surface.h
         /** Just here for compatibility */
         public static final int SDL_SWSURFACE = 0;
+        /** Surface uses preallocated memory */
+        public static final int SDL_PREALLOC = 0x00000001;
+        /** Surface is RLE encoded */
+        public static final int SDL_RLEACCEL = 0x00000002;
+        /** Surface is referenced internally */
+        public static final int SDL_DONTFREE = 0x00000004;
 
         /**
          * A collection of pixels used in software blitting.
@@ -1853,6 +2217,14 @@ public final class LowLevel {
              * <p>Read-mostly</p>
              */
             public int refcount;
+
+            /**
+             * @return the native offset of {@code field} within this structure
+             * @see SurfaceLayout
+             */
+            public int offsetOf(String field) {
+                return fieldOffset(field);
+            }
         }
 
         /**
@@ -1899,6 +2271,80 @@ public final class LowLevel {
          */
         public SDL_Surface SDL_CreateRGBSurface(int flags, int width, int height, int depth, int Rmask, int Gmask, int Bmask, int Amask);
 
+        /**
+         * <p>Allocate a new RGB surface with existing pixel data.</p>
+         *
+         * <p>This function operates mostly like SDL_CreateRGBSurface(), except it does
+         * not allocate memory for the pixel data, instead the caller provides an
+         * existing buffer of data for the surface to use.</p>
+         *
+         * <p>No copy is made of the pixel data. Pixel data is not managed automatically;
+         * you must free the surface before you free the pixel data.</p>
+         *
+         * @param pixels a pointer to existing pixel data
+         * @param width the width of the surface
+         * @param height the height of the surface
+         * @param depth the depth of the surface in bits
+         * @param pitch the pitch of the surface in bytes
+         * @param Rmask the red mask for the pixels
+         * @param Gmask the green mask for the pixels
+         * @param Bmask the blue mask for the pixels
+         * @param Amask the alpha mask for the pixels
+         * @return the new SDL_Surface structure that is created or NULL if it fails;
+         *         call SDL_GetError() for more information.
+         *
+         * @see #SDL_CreateRGBSurface
+         * @see #SDL_FreeSurface
+         */
+        public SDL_Surface SDL_CreateRGBSurfaceFrom(Pointer pixels, int width, int height, int depth, int pitch, int Rmask, int Gmask, int Bmask, int Amask);
+
+        /**
+         * <p>Allocate a new RGB surface with a specific pixel format.</p>
+         *
+         * <p>This function operates mostly like SDL_CreateRGBSurface(), except instead of
+         * providing pixel color masks, you provide it with a predefined format from
+         * SDL_PixelFormatEnum.</p>
+         *
+         * @param flags the flags are unused and should be set to 0
+         * @param width the width of the surface
+         * @param height the height of the surface
+         * @param depth the depth of the surface in bits
+         * @param format the SDL_PixelFormatEnum for the new surface's pixel format.
+         * @return the new SDL_Surface structure that is created or NULL if it fails;
+         *         call SDL_GetError() for more information.
+         *
+         * @see #SDL_CreateRGBSurface
+         * @see #SDL_CreateRGBSurfaceFrom
+         * @see #SDL_FreeSurface
+         */
+        public SDL_Surface SDL_CreateRGBSurfaceWithFormat(int flags, int width, int height, int depth, int format);
+
+        /**
+         * <p>Copy an existing surface to a new surface of the specified format enum.</p>
+         *
+         * <p>This function operates just like SDL_ConvertSurface(), but accepts an
+         * SDL_PixelFormatEnum value instead of an SDL_PixelFormat structure. As such,
+         * it might be easier to call but it doesn't have access to palette
+         * information for the destination surface, in case that would be important.</p>
+         *
+         * @param src the existing SDL_Surface structure to convert
+         * @param pixel_format the SDL_PixelFormatEnum that the new surface is
+         *                     optimized for
+         * @param flags the flags are unused and should be set to 0; this is a
+         *              leftover from SDL 1.2's API
+         * @return the new SDL_Surface structure that is created or NULL if it fails;
+         *         call SDL_GetError() for more information.
+         *
+         * @see #SDL_CreateRGBSurfaceWithFormat
+         */
+        public SDL_Surface SDL_ConvertSurfaceFormat(SDL_Surface src, int pixel_format, int flags);
+
+        /**
+         * Same as {@link #SDL_ConvertSurfaceFormat(SDL_Surface, int, int)}, but takes the source surface as a
+         * raw pointer, so it isn't marshalled.
+         */
+        public SDL_Surface SDL_ConvertSurfaceFormat(Pointer src, int pixel_format, int flags);
+
         /**
          * <p>Free an RGB surface.</p>
          *
@@ -1912,9 +2358,207 @@ public final class LowLevel {
          * @see #SDL_LoadBMP_RW
          */
         public void SDL_FreeSurface(SDL_Surface surface);
+
+        /**
+         * Same as {@link #SDL_FreeSurface(SDL_Surface)}, but takes the raw pointer, so nothing is marshalled.
+         * @see #SDL_FreeSurface(SDL_Surface)
+         */
+        public void SDL_FreeSurface(Pointer surface);
+
+        /**
+         * Evaluates to true if the surface needs to be locked before access.
+         */
+        default public boolean SDL_MUSTLOCK(SDL_Surface surface) {
+            return (surface.flags & SDL_RLEACCEL) != 0;
+        }
+
+        /**
+         * <p>Set up a surface for directly accessing the pixels.</p>
+         *
+         * <p>Between calls to SDL_LockSurface() / SDL_UnlockSurface(), you can write to
+         * and read from {@code surface->pixels}, using the pixel format stored in
+         * {@code surface->format}. Once you are done accessing the surface, you should use
+         * SDL_UnlockSurface() to release it.</p>
+         *
+         * <p>Not all surfaces require locking. If {@code SDL_MUSTLOCK(surface)} evaluates to
+         * 0, then you can read and write to the surface at any time, and the pixel
+         * format of the surface will not change.</p>
+         *
+         * @param surface the SDL_Surface structure to be locked
+         * @return 0 on success or a negative error code on failure; call
+         *         SDL_GetError() for more information.
+         *
+         * @see #SDL_MUSTLOCK
+         * @see #SDL_UnlockSurface
+         */
+        public int SDL_LockSurface(SDL_Surface surface);
+
+        /**
+         * Release a surface after directly accessing the pixels.
+         *
+         * @param surface the SDL_Surface structure to be unlocked
+         *
+         * @see #SDL_LockSurface
+         */
+        public void SDL_UnlockSurface(SDL_Surface surface);
+
+        /**
+         * Same as {@link #SDL_LockSurface(SDL_Surface)}, but with a raw {@code SDL_Surface} pointer, so the
+         * structure isn't written before the call and read back after it.
+         */
+        public int SDL_LockSurface(Pointer surface);
+
+        /**
+         * Same as {@link #SDL_UnlockSurface(SDL_Surface)}, but with a raw {@code SDL_Surface} pointer.
+         */
+        public void SDL_UnlockSurface(Pointer surface);
+
+        /**
+         * <p>Perform a fast blit from the source surface to the destination surface.</p>
+         *
+         * <p>SDL_UpperBlit() has been replaced by SDL_BlitSurface(), which is merely a
+         * macro for this function with a less confusing name.</p>
+         *
+         * <p>This assumes that the source and destination rectangles are the same size.
+         * If either {@code srcrect} or {@code dstrect} are NULL, the entire surface
+         * ({@code src} or {@code dst}) is copied. The final blit rectangles are saved in
+         * {@code srcrect} and {@code dstrect} after all clipping is performed.</p>
+         *
+         * @param src the SDL_Surface structure to be copied from
+         * @param srcrect the SDL_Rect structure representing the rectangle to be
+         *                copied, or NULL to copy the entire surface
+         * @param dst the SDL_Surface structure that is the blit target
+         * @param dstrect the SDL_Rect structure representing the rectangle that is
+         *                copied into
+         * @return 0 if the blit is successful or a negative error code on failure;
+         *         call SDL_GetError() for more information.
+         *
+         * @see #SDL_BlitSurface
+         */
+        public int SDL_UpperBlit(SDL_Surface src, final SDL_Rect srcrect, SDL_Surface dst, SDL_Rect dstrect);
+
+        /**
+         * Same as {@link #SDL_UpperBlit(SDL_Surface, SDL_Rect, SDL_Surface, SDL_Rect)}, but with raw pointers,
+         * so nothing is marshalled.
+         */
+        public int SDL_UpperBlit(Pointer src, final Pointer srcrect, Pointer dst, Pointer dstrect);
+
+        /**
+         * Performs a fast blit from the source surface to the destination surface.
+         * @see #SDL_UpperBlit(SDL_Surface, SDL_Rect, SDL_Surface, SDL_Rect)
+         */
+        default public int SDL_BlitSurface(SDL_Surface src, final SDL_Rect srcrect, SDL_Surface dst, SDL_Rect dstrect) {
+            return SDL_UpperBlit(src, srcrect, dst, dstrect);
+        }
+
+        /**
+         * <p>Perform low-level surface blitting only.</p>
+         *
+         * <p>This is a semi-private blit function and it performs low-level surface
+         * blitting, assuming the input rectangles have already been clipped.</p>
+         *
+         * <p>Unless you know what you're doing, you should be using SDL_BlitSurface()
+         * instead.</p>
+         *
+         * @param src the SDL_Surface structure to be copied from
+         * @param srcrect the SDL_Rect structure representing the rectangle to be
+         *                copied, or NULL to copy the entire surface
+         * @param dst the SDL_Surface structure that is the blit target
+         * @param dstrect the SDL_Rect structure representing the rectangle that is
+         *                copied into
+         * @return 0 if the blit is successful or a negative error code on failure;
+         *         call SDL_GetError() for more information.
+         *
+         * @see #SDL_BlitSurface
+         */
+        public int SDL_LowerBlit(SDL_Surface src, SDL_Rect srcrect, SDL_Surface dst, SDL_Rect dstrect);
+
+        /**
+         * Same as {@link #SDL_LowerBlit(SDL_Surface, SDL_Rect, SDL_Surface, SDL_Rect)}, but with raw pointers,
+         * so nothing is marshalled.
+         */
+        public int SDL_LowerBlit(Pointer src, Pointer srcrect, Pointer dst, Pointer dstrect);
+
+        /**
+         * <p>Perform a scaled surface copy to a destination surface.</p>
+         *
+         * <p>SDL_UpperBlitScaled() has been replaced by SDL_BlitScaled(), which is merely
+         * a macro for this function with a less confusing name.</p>
+         *
+         * @param src the SDL_Surface structure to be copied from
+         * @param srcrect the SDL_Rect structure representing the rectangle to be
+         *                copied
+         * @param dst the SDL_Surface structure that is the blit target
+         * @param dstrect the SDL_Rect structure representing the rectangle that is
+         *                copied into
+         * @return 0 on success or a negative error code on failure; call
+         *         SDL_GetError() for more information.
+         *
+         * @see #SDL_BlitScaled
+         */
+        public int SDL_UpperBlitScaled(SDL_Surface src, final SDL_Rect srcrect, SDL_Surface dst, SDL_Rect dstrect);
+
+        /**
+         * Same as {@link #SDL_UpperBlitScaled(SDL_Surface, SDL_Rect, SDL_Surface, SDL_Rect)}, but with raw
+         * pointers, so nothing is marshalled.
+         */
+        public int SDL_UpperBlitScaled(Pointer src, final Pointer srcrect, Pointer dst, Pointer dstrect);
+
+        /**
+         * Perform a scaled surface copy to a destination surface.
+         * @see #SDL_UpperBlitScaled(SDL_Surface, SDL_Rect, SDL_Surface, SDL_Rect)
+         */
+        default public int SDL_BlitScaled(SDL_Surface src, final SDL_Rect srcrect, SDL_Surface dst, SDL_Rect dstrect) {
+            return SDL_UpperBlitScaled(src, srcrect, dst, dstrect);
+        }
         //#endregion
 
         //#region SDL_timer.h
+        /**
+         * <p>Get the number of milliseconds since SDL library initialization.</p>
+         *
+         * <p>This value wraps if the program runs for more than ~49 days.</p>
+         *
+         * @return an unsigned 32-bit value representing the number of milliseconds
+         *         since the SDL library initialized.
+         */
+        public int SDL_GetTicks();
+
+        /**
+         * <p>Get the current value of the high resolution counter.</p>
+         *
+         * <p>This function is typically used for profiling.</p>
+         *
+         * <p>The counter values are only meaningful relative to each other. Differences
+         * between values can be converted to times by using
+         * SDL_GetPerformanceFrequency().</p>
+         *
+         * @return the current counter value.
+         *
+         * @see #SDL_GetPerformanceFrequency
+         */
+        public long SDL_GetPerformanceCounter();
+
+        /**
+         * Get the count per second of the high resolution counter.
+         *
+         * @return a platform-specific count per second.
+         *
+         * @see #SDL_GetPerformanceCounter
+         */
+        public long SDL_GetPerformanceFrequency();
+
+        /**
+         * <p>Wait a specified number of milliseconds before returning.</p>
+         *
+         * <p>This function waits a specified number of milliseconds before returning. It
+         * waits at least the specified time, but possibly longer due to OS
+         * scheduling.</p>
+         *
+         * @param ms the number of milliseconds to delay
+         */
+        public void SDL_Delay(int ms);
+
         /**
          * <p>Function prototype for the timer callback function.</p>
          *
@@ -1977,6 +2621,55 @@ public final class LowLevel {
         public static final int SDL_MOUSE_TOUCHID = -1;
         //#endregion
 
+        //#region SDL_version.h
+        /**
+         * <p>Information about the version of SDL in use.</p>
+         *
+         * <p>Represents the library's version as three levels: major revision
+         * (increments with massive changes, additions, and enhancements),
+         * minor revision (increments with backwards-compatible changes to the
+         * major revision), and patchlevel (increments with fixes to the minor
+         * revision).</p>
+         *
+         * @see #SDL_GetVersion
+         */
+        @FieldOrder({
+            "major",
+            "minor",
+            "patch"
+        })
+        public static class SDL_version extends Structure {
+            /** major version */
+            public byte major;
+            /** minor version */
+            public byte minor;
+            /** update version */
+            public byte patch;
+        }
+
+        /**
+         * <p>This macro turns the version numbers into a numeric value:</p>
+         *
+         * <pre>(1,2,3) -&gt; (1203)</pre>
+         *
+         * <p>This assumes that there will never be more than 100 patchlevels.</p>
+         */
+        default public int SDL_VERSIONNUM(int x, int y, int z) {
+            return x * 1000 + y * 100 + z;
+        }
+
+        /**
+         * <p>Get the version of SDL that is linked against your program.</p>
+         *
+         * <p>This function may be called safely at any time, even before SDL_Init().</p>
+         *
+         * @param ver the SDL_version structure that contains the version information
+         *
+         * @since This function is available since SDL 2.0.0.
+         */
+        public void SDL_GetVersion(SDL_version ver);
+        //#endregion
+
         //#region SDL_video.h
         /**
          * The type used to identify a window
@@ -2333,6 +3026,26 @@ public final class LowLevel {
          */
         public int SDL_UpdateWindowSurface(SDL_Window window);
 
+        /**
+         * <p>Copy areas of the window surface to the screen.</p>
+         *
+         * <p>This is the function you use to reflect changes to portions of the surface
+         * on the screen.</p>
+         *
+         * <p>This function is equivalent to the SDL 1.2 API SDL_UpdateRects().</p>
+         *
+         * @param window the window to update
+         * @param rects an array of SDL_Rect structures representing areas of the
+         *              surface to copy
+         * @param numrects the number of rectangles
+         * @return 0 on success or a negative error code on failure; call
+         *         SDL_GetError() for more information.
+         *
+         * @see #SDL_GetWindowSurface
+         * @see #SDL_UpdateWindowSurface
+         */
+        public int SDL_UpdateWindowSurfaceRects(SDL_Window window, final Pointer rects, int numrects);
+
         /**
          * <p>Get the position of a window.</p>
          *
@@ -2671,21 +3384,155 @@ public final class LowLevel {
         }
     }
 
+    /**
+     * <p>Native field offsets of the SDL event structures.</p>
+     *
+     * <p>Each group is computed once, from the JNA layout of its structure, the first time it is used.
+     * Hot paths can then read and write events with {@link Pointer#getInt(long)},
+     * {@link Pointer#getByte(long)}, etc. instead of going through {@link Structure#readField(String)}
+     * and {@link Union#getTypedValue(Class)}, which are reflective.</p>
+     */
+    public static final class EventLayout {
+        private EventLayout() {}
+
+        public static final class Common {
+            public static final int TYPE = offset(SDL2Library.SDL_CommonEvent.class, "type");
+            public static final int TIMESTAMP = offset(SDL2Library.SDL_CommonEvent.class, "timestamp");
+        }
+
+        public static final class Window {
+            public static final int WINDOW_ID = offset(SDL2Library.SDL_WindowEvent.class, "windowID");
+            public static final int EVENT = offset(SDL2Library.SDL_WindowEvent.class, "event");
+            public static final int DATA1 = offset(SDL2Library.SDL_WindowEvent.class, "data1");
+            public static final int DATA2 = offset(SDL2Library.SDL_WindowEvent.class, "data2");
+        }
+
+        public static final class Key {
+            private static final int KEYSYM = offset(SDL2Library.SDL_KeyboardEvent.class, "keysym");
+            public static final int WINDOW_ID = offset(SDL2Library.SDL_KeyboardEvent.class, "windowID");
+            public static final int STATE = offset(SDL2Library.SDL_KeyboardEvent.class, "state");
+            public static final int REPEAT = offset(SDL2Library.SDL_KeyboardEvent.class, "repeat");
+            public static final int SCANCODE = KEYSYM + keysymOffset("scancode");
+            public static final int SYM = KEYSYM + keysymOffset("sym");
+            public static final int MOD = KEYSYM + keysymOffset("mod");
+        }
+
+        public static final class Text {
+            public static final int WINDOW_ID = offset(SDL2Library.SDL_TextInputEvent.class, "windowID");
+            public static final int TEXT = offset(SDL2Library.SDL_TextInputEvent.class, "text");
+        }
+
+        public static final class Motion {
+            public static final int WINDOW_ID = offset(SDL2Library.SDL_MouseMotionEvent.class, "windowID");
+            public static final int WHICH = offset(SDL2Library.SDL_MouseMotionEvent.class, "which");
+            public static final int STATE = offset(SDL2Library.SDL_MouseMotionEvent.class, "state");
+            public static final int X = offset(SDL2Library.SDL_MouseMotionEvent.class, "x");
+            public static final int Y = offset(SDL2Library.SDL_MouseMotionEvent.class, "y");
+            public static final int XREL = offset(SDL2Library.SDL_MouseMotionEvent.class, "xrel");
+            public static final int YREL = offset(SDL2Library.SDL_MouseMotionEvent.class, "yrel");
+        }
+
+        public static final class Button {
+            public static final int WINDOW_ID = offset(SDL2Library.SDL_MouseButtonEvent.class, "windowID");
+            public static final int WHICH = offset(SDL2Library.SDL_MouseButtonEvent.class, "which");
+            public static final int BUTTON = offset(SDL2Library.SDL_MouseButtonEvent.class, "button");
+            public static final int STATE = offset(SDL2Library.SDL_MouseButtonEvent.class, "state");
+            public static final int CLICKS = offset(SDL2Library.SDL_MouseButtonEvent.class, "clicks");
+            public static final int X = offset(SDL2Library.SDL_MouseButtonEvent.class, "x");
+            public static final int Y = offset(SDL2Library.SDL_MouseButtonEvent.class, "y");
+        }
+
+        public static final class Wheel {
+            public static final int WINDOW_ID = offset(SDL2Library.SDL_MouseWheelEvent.class, "windowID");
+            public static final int WHICH = offset(SDL2Library.SDL_MouseWheelEvent.class, "which");
+            public static final int X = offset(SDL2Library.SDL_MouseWheelEvent.class, "x");
+            public static final int Y = offset(SDL2Library.SDL_MouseWheelEvent.class, "y");
+            public static final int DIRECTION = offset(SDL2Library.SDL_MouseWheelEvent.class, "direction");
+        }
+
+        public static final class JoyAxis {
+            public static final int WHICH = offset(SDL2Library.SDL_JoyAxisEvent.class, "which");
+            public static final int AXIS = offset(SDL2Library.SDL_JoyAxisEvent.class, "axis");
+            public static final int VALUE = offset(SDL2Library.SDL_JoyAxisEvent.class, "value");
+        }
+
+        public static final class JoyBall {
+            public static final int WHICH = offset(SDL2Library.SDL_JoyBallEvent.class, "which");
+            public static final int BALL = offset(SDL2Library.SDL_JoyBallEvent.class, "ball");
+            public static final int XREL = offset(SDL2Library.SDL_JoyBallEvent.class, "xrel");
+            public static final int YREL = offset(SDL2Library.SDL_JoyBallEvent.class, "yrel");
+        }
+
+        public static final class JoyHat {
+            public static final int WHICH = offset(SDL2Library.SDL_JoyHatEvent.class, "which");
+            public static final int HAT = offset(SDL2Library.SDL_JoyHatEvent.class, "hat");
+            public static final int VALUE = offset(SDL2Library.SDL_JoyHatEvent.class, "value");
+        }
+
+        public static final class JoyButton {
+            public static final int WHICH = offset(SDL2Library.SDL_JoyButtonEvent.class, "which");
+            public static final int BUTTON = offset(SDL2Library.SDL_JoyButtonEvent.class, "button");
+            public static final int STATE = offset(SDL2Library.SDL_JoyButtonEvent.class, "state");
+        }
+
+        public static final class AudioDevice {
+            public static final int WHICH = offset(SDL2Library.SDL_AudioDeviceEvent.class, "which");
+            public static final int ISCAPTURE = offset(SDL2Library.SDL_AudioDeviceEvent.class, "iscapture");
+        }
+
+        public static final class User {
+            public static final int WINDOW_ID = offset(SDL2Library.SDL_UserEvent.class, "windowID");
+            public static final int CODE = offset(SDL2Library.SDL_UserEvent.class, "code");
+            public static final int DATA1 = offset(SDL2Library.SDL_UserEvent.class, "data1");
+            public static final int DATA2 = offset(SDL2Library.SDL_UserEvent.class, "data2");
+        }
+
+        private static int offset(Class<? extends SDL2Library.SDL_CommonEvent> type, String field) {
+            return Structure.newInstance(type).offsetOf(field);
+        }
+
+        private static int keysymOffset(String field) {
+            return Structure.newInstance(SDL2Library.SDL_Keysym.class).offsetOf(field);
+        }
+    }
+
+    /**
+     * Native field offsets of {@code SDL_Surface} and its {@code SDL_PixelFormat}, for reading and writing
+     * the fields that change without going through {@link Structure#read()} and {@link Structure#write()},
+     * which copy the whole structure reflectively. See {@link EventLayout}.
+     */
+    public static final class SurfaceLayout {
+        private SurfaceLayout() {}
+
+        public static final int FLAGS = offset("flags");
+        public static final int FORMAT = offset("format");
+        public static final int W = offset("w");
+        public static final int H = offset("h");
+        public static final int PITCH = offset("pitch");
+        public static final int PIXELS = offset("pixels");
+
+        private static int offset(String field) {
+            return Structure.newInstance(SDL2Library.SDL_Surface.class).offsetOf(field);
+        }
+    }
+
     public static final class Util {
         public static <T extends Structure> T copyStructure(Class<T> type, T struct) {
             int size = struct.size();
             Memory mem = new Memory(size);
-            byte[] data = new byte[size];
-            struct.getPointer().read(0, data, 0, size);
-            mem.write(0, data, 0, size);
+            copyMemory(struct.getPointer(), mem, size);
             return Structure.newInstance(type, mem);
         }
 
         public static <T extends Structure> void copyStructureInPlace(T from, T to) {
-            int size = from.size();
-            byte[] data = new byte[size];
-            from.getPointer().read(0, data, 0, size);
-            to.getPointer().write(0, data, 0, size);
+            copyMemory(from.getPointer(), to.getPointer(), from.size());
+        }
+
+        /**
+         * Copy native memory to native memory through direct buffer views, without a Java array in between.
+         */
+        public static void copyMemory(Pointer from, Pointer to, int size) {
+            to.getByteBuffer(0, size).put(from.getByteBuffer(0, size));
         }
 
         public static final byte[] toByteArray(String s, Charset charset) {
@@ -2700,6 +3547,16 @@ public final class LowLevel {
         }
     }
 
+    /**
+     * The system property (or, failing that, environment variable) used to pick the backend for
+     * {@link #getFrameInstance()}. One of {@code "jna"}, {@code "direct"} or {@code "ffm"}. If neither
+     * is set, the Foreign Function &amp; Memory backend is used when running on Java 22 or later and it can
+     * bind every function, and {@code "jna"} otherwise. Unless native access is enabled for SDL4J (see
+     * {@code --enable-native-access}), the JVM warns once when the FFM backend is bound.
+     */
+    public static final String BACKEND_PROPERTY = "sdl4j.backend";
+    public static final String BACKEND_ENV = "SDL4J_BACKEND";
+
     private static final Throwable FAIL_CAUSE;
     private static final SDL2Library SDL2;
 
@@ -2710,6 +3567,7 @@ public final class LowLevel {
             sdl2 = Native.load("SDL2", SDL2Library.class);
         } catch (UnsatisfiedLinkError e) {
             if (Platform.isWindows()) {
+                // The bundled DLLs are SDL 2.0.16, which is older than Renderer.geometry and SpriteBatch need
                 String resource = Platform.is64Bit() ? "SDL2-x64.dll" : "SDL2-x86.dll";
                 File destFile = new File("SDL2.dll").getAbsoluteFile();
                 try {
@@ -2733,10 +3591,86 @@ public final class LowLevel {
         SDL2 = sdl2;
     }
 
+    /**
+     * Picks the backend the first time {@link #getFrameInstance()} is called, rather than while
+     * {@link LowLevel} is initialized, so a bad {@value #BACKEND_PROPERTY} or a backend that can't be linked
+     * is reported there instead of as an {@link ExceptionInInitializerError}.
+     */
+    private static final class Frame {
+        private static final Throwable FAIL_CAUSE;
+        private static final SDL2FrameLibrary INSTANCE;
+
+        static {
+            Throwable failCause = null;
+            SDL2FrameLibrary instance = null;
+            if (SDL2 == null) {
+                failCause = LowLevel.FAIL_CAUSE;
+            } else {
+                try {
+                    instance = loadFrameLibrary(SDL2);
+                } catch (RuntimeException | LinkageError e) {
+                    failCause = e;
+                }
+            }
+            FAIL_CAUSE = failCause;
+            INSTANCE = instance;
+        }
+    }
+
+    private static SDL2FrameLibrary loadFrameLibrary(SDL2Library sdl2) {
+        String backend = System.getProperty(BACKEND_PROPERTY);
+        if (backend == null) {
+            backend = System.getenv(BACKEND_ENV);
+        }
+        if (backend == null) {
+            try {
+                SDL2FrameLibrary foreign = ForeignFrameLibrary.load();
+                if (foreign != null) {
+                    return foreign;
+                }
+            } catch (RuntimeException | LinkageError e) {
+                // Fall back to JNA, which only binds each function when it's first called
+            }
+            return sdl2;
+        }
+        if (backend.equalsIgnoreCase("jna")) {
+            return sdl2;
+        }
+        if (backend.equalsIgnoreCase("direct")) {
+            return DirectFrameLibrary.load();
+        }
+        if (backend.equalsIgnoreCase("ffm")) {
+            SDL2FrameLibrary foreign = ForeignFrameLibrary.load();
+            if (foreign == null) {
+                throw new IllegalStateException("The ffm backend requires Java 22 or later");
+            }
+            return foreign;
+        }
+        throw new IllegalArgumentException("Unknown SDL4J backend: " + backend);
+    }
+
     public static SDL2Library getInstance() {
         if (SDL2 == null) {
             throw new RuntimeException("Couldn't find SDL2 library", FAIL_CAUSE);
         }
         return SDL2;
     }
+
+    /**
+     * <p>Get the library used for the functions called every frame.</p>
+     *
+     * <p>Which backend this is depends on the {@value #BACKEND_PROPERTY} system property or the
+     * {@value #BACKEND_ENV} environment variable. Without either, it's the Foreign Function &amp; Memory
+     * backend on Java 22 or later, and otherwise the same object as {@link #getInstance()}.</p>
+     */
+    public static SDL2FrameLibrary getFrameInstance() {
+        SDL2FrameLibrary frame = Frame.INSTANCE;
+        if (frame == null) {
+            if (SDL2 == null) {
+                throw new RuntimeException("Couldn't find SDL2 library", Frame.FAIL_CAUSE);
+            }
+            throw new RuntimeException("Couldn't load the SDL4J backend", Frame.FAIL_CAUSE);
+        }
+        return frame;
+    }
 }
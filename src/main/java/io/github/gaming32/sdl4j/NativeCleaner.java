@@ -0,0 +1,74 @@
+package io.github.gaming32.sdl4j;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Runs a cleanup action once an object becomes phantom reachable, or earlier if asked to.</p>
+ *
+ * <p>This is the Java 8 version, built on a {@link PhantomReference} queue drained by a daemon thread.
+ * On Java 9 and later, the multi-release jar replaces it with one backed by {@code java.lang.ref.Cleaner}.
+ * As with {@code Cleaner}, the action must not refer to the object it cleans up after, or the object
+ * will never become phantom reachable.</p>
+ */
+final class NativeCleaner {
+    interface Cleanable {
+        /**
+         * Unregister and run the action, if it hasn't run already.
+         */
+        void clean();
+    }
+
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+    // Keeps the references themselves reachable until they're enqueued or cleaned
+    private static final Set<Ref> REFS = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    static {
+        Thread thread = new Thread(NativeCleaner::drain, "SDL4J Cleaner");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private NativeCleaner() {
+    }
+
+    static Cleanable register(Object obj, Runnable action) {
+        Ref ref = new Ref(obj, action);
+        REFS.add(ref);
+        return ref;
+    }
+
+    private static void drain() {
+        while (true) {
+            try {
+                ((Ref)QUEUE.remove()).clean();
+            } catch (InterruptedException e) {
+                // Daemon thread, just keep going
+            } catch (Throwable t) {
+                // Report it without letting it kill the thread
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+            }
+        }
+    }
+
+    private static final class Ref extends PhantomReference<Object> implements Cleanable {
+        private final Runnable action;
+
+        Ref(Object referent, Runnable action) {
+            super(referent, QUEUE);
+            this.action = action;
+        }
+
+        @Override
+        public void clean() {
+            if (REFS.remove(this)) {
+                clear();
+                action.run();
+            }
+        }
+    }
+}
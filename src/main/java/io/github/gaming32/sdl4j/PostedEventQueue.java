@@ -0,0 +1,91 @@
+package io.github.gaming32.sdl4j;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>The bounded ring behind {@link Event#post(Event)}. Any number of threads may {@link #offer(Event)}
+ * without locking; only one thread at a time may {@link #drainTo(List)}.</p>
+ *
+ * <p>Every slot has a sequence number that says whose turn it is. A producer claims a position by moving
+ * {@code tail} forward with a CAS, stores its event, then sets the slot's sequence to {@code position + 1}
+ * to publish it. The consumer takes the event once it sees that sequence, and hands the slot back to the
+ * producers by setting it to {@code position + capacity}.</p>
+ */
+final class PostedEventQueue {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Event> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Only touched by the consumer
+    private long head;
+
+    /**
+     * @param capacity a power of two
+     */
+    PostedEventQueue(int capacity) {
+        if (capacity <= 0 || (capacity & capacity - 1) != 0) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        slots = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return {@code false} if the queue is full
+     */
+    boolean offer(Event event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int)(position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                // The consumer hasn't taken the event from a lap ago yet
+                return false;
+            } else {
+                // Another producer claimed this position first
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Move every published event to {@code out}, in the order they were claimed.
+     *
+     * @return the number of events moved
+     */
+    int drainTo(List<Event> out) {
+        int count = 0;
+        while (true) {
+            int index = (int)(head & mask);
+            if (sequences.get(index) != head + 1) {
+                // Empty, or the next producer hasn't finished publishing
+                return count;
+            }
+            out.add(slots.get(index));
+            slots.lazySet(index, null);
+            sequences.set(index, head + capacity);
+            head++;
+            count++;
+        }
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,419 @@
+package io.github.gaming32.sdl4j;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2FrameLibrary;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Rect;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Renderer;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Texture;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Window;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_version;
+import io.github.gaming32.sdl4j.enums.DisplayFlags;
+import io.github.gaming32.sdl4j.modules.DisplayModule;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_PixelFormatEnum;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_RendererFlip;
+
+/**
+ * <p>A 2D rendering context, backed by an {@code SDL_Renderer}. It draws {@link Texture}s either to the
+ * display window or, with the software renderer, to a {@link Surface}.</p>
+ *
+ * <p>Rectangles are given as {@code int[]} arrays of {@code x, y, w, h}, or {@code null} for the whole
+ * texture or target. For many sprites per frame, draw through a {@link SpriteBatch}.</p>
+ *
+ * <p>Renderers, and the textures created from them, must be {@link #close() closed} on the thread that
+ * uses them. There's no cleaner safety net like {@link Surface} has, since SDL's rendering functions
+ * can't be called from a background thread.</p>
+ */
+public final class Renderer implements AutoCloseable {
+    private static final int RECT_SIZE = Surface.RECT_SIZE;
+
+    /**
+     * Checks once whether the loaded SDL has {@code SDL_RenderGeometry}, which was added in SDL 2.0.18.
+     * That's newer than the SDL bundled for Windows, so it's looked up through {@link SDL2Library} when
+     * it's called, rather than bound up front with the per-frame functions.
+     */
+    private static final class Geometry {
+        private static final int MIN_MAJOR = 2, MIN_MINOR = 0, MIN_PATCH = 18;
+        // null if SDL_RenderGeometry is available
+        static final String MISSING;
+
+        static {
+            SDL2Library lib = LowLevel.getInstance();
+            SDL_version version = new SDL_version();
+            lib.SDL_GetVersion(version);
+            int major = version.major & 0xff, minor = version.minor & 0xff, patch = version.patch & 0xff;
+            if (lib.SDL_VERSIONNUM(major, minor, patch) < lib.SDL_VERSIONNUM(MIN_MAJOR, MIN_MINOR, MIN_PATCH)) {
+                MISSING = "SDL_RenderGeometry needs SDL " + MIN_MAJOR + '.' + MIN_MINOR + '.' + MIN_PATCH +
+                    " or later, but SDL " + major + '.' + minor + '.' + patch + " is loaded";
+            } else {
+                MISSING = null;
+            }
+        }
+    }
+
+    SDL_Renderer renderer;
+    // Keeps the target of a software renderer alive
+    private final Surface target;
+    private final Set<Texture> textures = Collections.newSetFromMap(new WeakHashMap<>());
+    private final SDL_Rect srcRect = new SDL_Rect();
+    private final SDL_Rect dstRect = new SDL_Rect();
+    // Source rect, destination rect and center point, for SDL_RenderCopyEx
+    private final Memory scratch = new Memory(2 * RECT_SIZE + 2 * Integer.BYTES);
+    private final ByteBuffer scratchBuffer = scratch.getByteBuffer(0, scratch.size()).order(ByteOrder.nativeOrder());
+    private final Pointer srcPointer = scratch.share(0, RECT_SIZE);
+    private final Pointer dstPointer = scratch.share(RECT_SIZE, RECT_SIZE);
+    private final Pointer centerPointer = scratch.share(2 * RECT_SIZE, 2 * Integer.BYTES);
+
+    /**
+     * Create a renderer for the display window. This can't be used in {@link DisplayFlags#SCALED} mode,
+     * which draws the display through a renderer of its own.
+     *
+     * @param flags 0, or one or more {@link io.github.gaming32.sdl4j.sdl_enums.SDL_RendererFlags} OR'd
+     *              together
+     * @throws IllegalStateException if there's no display window, or it already has a renderer
+     */
+    public Renderer(int flags) {
+        SDL_Window win = SDL4J.getDefaultWindow();
+        if (win == null) {
+            throw new IllegalStateException("No display mode is set");
+        }
+        if (Display.renderer != null) {
+            throw new IllegalStateException("The display already has a renderer in SCALED mode");
+        }
+        SDL2Library lib = LowLevel.getInstance();
+        renderer = lib.SDL_CreateRenderer(win, -1, flags);
+        if (renderer == null) {
+            SDLException.throwNew();
+        }
+        target = null;
+    }
+
+    /**
+     * Create a software renderer that draws to a surface. This needs neither a window nor a video driver
+     * beyond what {@link DisplayModule} sets up, so it also works with the {@code dummy} driver.
+     */
+    public Renderer(Surface target) {
+        if (target.surf == null) {
+            throw new IllegalArgumentException("Surface is closed");
+        }
+        SDL2Library lib = LowLevel.getInstance();
+        renderer = lib.SDL_CreateSoftwareRenderer(target.surf);
+        if (renderer == null) {
+            SDLException.throwNew();
+        }
+        this.target = target;
+    }
+
+    void checkOpen() {
+        if (renderer == null) {
+            throw new IllegalStateException("Renderer is closed");
+        }
+    }
+
+    /**
+     * Invalidate the conversion caches of a software renderer's target, since it's about to be drawn to.
+     */
+    private void drawing() {
+        if (target != null) {
+            target.markModified();
+        }
+    }
+
+    private void checkTexture(Texture texture) {
+        if (texture.getRenderer() != this) {
+            throw new IllegalArgumentException("Texture belongs to a different renderer");
+        }
+        texture.checkOpen();
+    }
+
+    /**
+     * @return the surface a software renderer draws to, or {@code null} if this renders to the display
+     */
+    public Surface getTarget() {
+        return target;
+    }
+
+    /**
+     * Create a texture with undefined contents.
+     *
+     * @param format an {@link SDL_PixelFormatEnum} value
+     * @param access an {@link io.github.gaming32.sdl4j.sdl_enums.SDL_TextureAccess} value
+     */
+    public Texture createTexture(int format, int access, int width, int height) {
+        checkOpen();
+        SDL2Library lib = LowLevel.getInstance();
+        SDL_Texture texture = lib.SDL_CreateTexture(renderer, format, access, width, height);
+        if (texture == null) {
+            SDLException.throwNew();
+        }
+        return register(new Texture(this, texture));
+    }
+
+    /**
+     * Create a static texture with a copy of a surface's pixels. If the surface has an alpha channel,
+     * the texture is set up for alpha blending.
+     */
+    public Texture createTexture(Surface surface) {
+        checkOpen();
+        SDL2Library lib = LowLevel.getInstance();
+        SDL_Texture texture = lib.SDL_CreateTextureFromSurface(renderer, surface.surf);
+        if (texture == null) {
+            SDLException.throwNew();
+        }
+        return register(new Texture(this, texture));
+    }
+
+    private Texture register(Texture texture) {
+        textures.add(texture);
+        return texture;
+    }
+
+    void unregister(Texture texture) {
+        textures.remove(texture);
+    }
+
+    /**
+     * Set the color used by {@link #clear()}.
+     */
+    public void setDrawColor(int r, int g, int b, int a) {
+        checkOpen();
+        SDL2Library lib = LowLevel.getInstance();
+        if (lib.SDL_SetRenderDrawColor(renderer, (byte)r, (byte)g, (byte)b, (byte)a) < 0) {
+            SDLException.throwNew();
+        }
+    }
+
+    /**
+     * Fill the whole target with the draw color.
+     */
+    public void clear() {
+        checkOpen();
+        drawing();
+        SDL2Library lib = LowLevel.getInstance();
+        if (lib.SDL_RenderClear(renderer) < 0) {
+            SDLException.throwNew();
+        }
+    }
+
+    /**
+     * Draw part of a texture, stretched to fill a rectangle of the target.
+     *
+     * @param area the part of the texture to draw, or {@code null} for all of it
+     * @param dest where to draw it, or {@code null} for the whole target
+     */
+    public void copy(Texture texture, int[] area, int[] dest) {
+        checkOpen();
+        checkTexture(texture);
+        drawing();
+        SDL2FrameLibrary frame = LowLevel.getFrameInstance();
+        if (frame.SDL_RenderCopy(renderer, texture.texture, toRect(area, srcRect), toRect(dest, dstRect)) < 0) {
+            SDLException.throwNew();
+        }
+    }
+
+    /**
+     * Same as {@link #copyEx(Texture, int[], int[], double, int, int, int)}, rotating around the center
+     * of {@code dest}.
+     */
+    public void copyEx(Texture texture, int[] area, int[] dest, double angle, int flip) {
+        copyEx(texture, area, dest, angle, false, 0, 0, flip);
+    }
+
+    /**
+     * Draw part of a texture, rotated and flipped.
+     *
+     * @param area the part of the texture to draw, or {@code null} for all of it
+     * @param dest where to draw it before rotating, or {@code null} for the whole target
+     * @param angle the rotation in degrees, clockwise
+     * @param centerX the x coordinate to rotate around, relative to {@code dest}
+     * @param centerY the y coordinate to rotate around, relative to {@code dest}
+     * @param flip one or more {@link SDL_RendererFlip} values OR'd together
+     */
+    public void copyEx(Texture texture, int[] area, int[] dest, double angle, int centerX, int centerY, int flip) {
+        copyEx(texture, area, dest, angle, true, centerX, centerY, flip);
+    }
+
+    private void copyEx(Texture texture, int[] area, int[] dest, double angle, boolean hasCenter, int centerX, int centerY, int flip) {
+        checkOpen();
+        checkTexture(texture);
+        Pointer src = null, dst = null, center = null;
+        if (area != null) {
+            putRect(0, area);
+            src = srcPointer;
+        }
+        if (dest != null) {
+            putRect(RECT_SIZE, dest);
+            dst = dstPointer;
+        }
+        if (hasCenter) {
+            scratchBuffer.putInt(2 * RECT_SIZE, centerX);
+            scratchBuffer.putInt(2 * RECT_SIZE + Integer.BYTES, centerY);
+            center = centerPointer;
+        }
+        drawing();
+        SDL2FrameLibrary frame = LowLevel.getFrameInstance();
+        if (frame.SDL_RenderCopyEx(renderer, texture.texture, src, dst, angle, center, flip) < 0) {
+            SDLException.throwNew();
+        }
+    }
+
+    /**
+     * @return whether the loaded SDL is new enough (2.0.18 or later) for {@link #geometry} and
+     *         {@link SpriteBatch}
+     */
+    public static boolean isGeometrySupported() {
+        return Geometry.MISSING == null;
+    }
+
+    /**
+     * @throws SDLException if the loaded SDL doesn't have {@code SDL_RenderGeometry}
+     */
+    static void checkGeometrySupported() {
+        if (Geometry.MISSING != null) {
+            throw new SDLException(Geometry.MISSING);
+        }
+    }
+
+    /**
+     * <p>Draw triangles, optionally textured.</p>
+     *
+     * <p>{@code vertices} holds {@code SDL_Vertex} structures in native byte order: the x and y position as
+     * floats, the color as four bytes r, g, b and a, then the texture coordinates u and v as floats, from 0
+     * to 1. The texture's color and alpha mod don't apply; use the vertex colors instead.</p>
+     *
+     * @param texture the texture, or {@code null} for flat colored triangles
+     * @param vertices a direct buffer of {@code numVertices} vertices, starting at its position
+     * @param indices a direct buffer of {@code numIndices} indices into {@code vertices}, starting at its
+     *                position, or {@code null} to draw the vertices in order
+     * @throws SDLException if the loaded SDL is older than 2.0.18 (see {@link #isGeometrySupported()})
+     */
+    public void geometry(Texture texture, ByteBuffer vertices, int numVertices, IntBuffer indices, int numIndices) {
+        if (vertices.remaining() < numVertices * SDL2Library.SDL_VERTEX_SIZE) {
+            throw new IllegalArgumentException("Not enough vertices in the buffer");
+        }
+        if (indices != null && indices.remaining() < numIndices) {
+            throw new IllegalArgumentException("Not enough indices in the buffer");
+        }
+        geometry(
+            texture,
+            directPointer(vertices, vertices.position()), numVertices,
+            indices != null ? directPointer(indices, indices.position() * Integer.BYTES) : null, numIndices
+        );
+    }
+
+    void geometry(Texture texture, Pointer vertices, int numVertices, Pointer indices, int numIndices) {
+        checkOpen();
+        SDL_Texture tex = null;
+        if (texture != null) {
+            checkTexture(texture);
+            tex = texture.texture;
+        }
+        checkGeometrySupported();
+        drawing();
+        SDL2Library lib = LowLevel.getInstance();
+        if (lib.SDL_RenderGeometry(renderer, tex, vertices, numVertices, indices, numIndices) < 0) {
+            SDLException.throwNew();
+        }
+    }
+
+    /**
+     * Show everything drawn since the last call. Software renderers draw straight to their target surface,
+     * so this does nothing visible for them.
+     */
+    public void present() {
+        checkOpen();
+        LowLevel.getFrameInstance().SDL_RenderPresent(renderer);
+    }
+
+    /**
+     * Read back pixels from the target, as {@code 0xAARRGGBB} ints. This is slow; it's meant for tests
+     * and screenshots.
+     *
+     * @param rect the area to read, or {@code null} for the whole target
+     * @param out receives the pixels row by row; it must hold at least {@code w * h} ints
+     */
+    public void readPixels(int[] rect, int[] out) {
+        checkOpen();
+        SDL2Library lib = LowLevel.getInstance();
+        int w, h;
+        if (rect != null) {
+            w = rect[2];
+            h = rect[3];
+        } else {
+            IntByReference wRef = new IntByReference(), hRef = new IntByReference();
+            if (lib.SDL_GetRendererOutputSize(renderer, wRef, hRef) < 0) {
+                SDLException.throwNew();
+            }
+            w = wRef.getValue();
+            h = hRef.getValue();
+        }
+        if (out.length < w * h) {
+            throw new IllegalArgumentException("Output array is too small");
+        }
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        Memory pixels = new Memory((long)w * h * Integer.BYTES);
+        if (lib.SDL_RenderReadPixels(renderer, toRect(rect, srcRect), SDL_PixelFormatEnum.ARGB8888, pixels, w * Integer.BYTES) < 0) {
+            SDLException.throwNew();
+        }
+        pixels.read(0, out, 0, w * h);
+    }
+
+    /**
+     * Destroy this renderer and every texture created from it. Does nothing if already closed.
+     */
+    @Override
+    public void close() {
+        if (renderer == null) {
+            return;
+        }
+        for (Texture texture : textures.toArray(new Texture[0])) {
+            texture.close();
+        }
+        SDL2Library lib = LowLevel.getInstance();
+        lib.SDL_DestroyRenderer(renderer);
+        renderer = null;
+    }
+
+    public boolean isClosed() {
+        return renderer == null;
+    }
+
+    private static SDL_Rect toRect(int[] rect, SDL_Rect out) {
+        if (rect == null) {
+            return null;
+        }
+        out.x = rect[0];
+        out.y = rect[1];
+        out.w = rect[2];
+        out.h = rect[3];
+        return out;
+    }
+
+    private void putRect(int offset, int[] rect) {
+        scratchBuffer.putInt(offset, rect[0]);
+        scratchBuffer.putInt(offset + 4, rect[1]);
+        scratchBuffer.putInt(offset + 8, rect[2]);
+        scratchBuffer.putInt(offset + 12, rect[3]);
+    }
+
+    private static Pointer directPointer(Buffer buffer, long offset) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("Buffer must be direct");
+        }
+        return Native.getDirectBufferPointer(buffer).share(offset);
+    }
+}
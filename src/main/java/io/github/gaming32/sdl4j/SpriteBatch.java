@@ -0,0 +1,319 @@
+package io.github.gaming32.sdl4j;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.sun.jna.Memory;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_RendererFlip;
+
+/**
+ * <p>Collects sprite draws and sends them to a {@link Renderer} with one {@code SDL_RenderGeometry} call per
+ * texture, instead of one {@code SDL_RenderCopy} per sprite.</p>
+ *
+ * <p>Sprites are queued by the {@code draw} methods and drawn by {@link #flush()}. Textures are drawn in the
+ * order they were first used since the last flush, and each texture's sprites in the order they were
+ * queued; so sprites of different textures only keep their relative order across flushes. The texture's
+ * color and alpha mod are folded into the vertex colors, since {@code SDL_RenderGeometry} ignores them.</p>
+ *
+ * <p>The vertex buffers are native memory that's kept and reused between flushes. Drawing many small
+ * images from one {@link TextureAtlas} keeps a whole scene in a single call.</p>
+ *
+ * <p>{@code SDL_RenderGeometry} needs SDL 2.0.18 or later, which is newer than the SDL 2.0.16 DLLs bundled
+ * for Windows. Check {@link Renderer#isGeometrySupported()} to fall back to {@link Renderer#copy} where
+ * it's missing.</p>
+ */
+public final class SpriteBatch {
+    private static final int VERTEX_SIZE = SDL2Library.SDL_VERTEX_SIZE;
+    private static final int QUAD_SIZE = 4 * VERTEX_SIZE;
+    private static final int INDICES_PER_QUAD = 6;
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * The queued quads for one texture.
+     */
+    private static final class Batch {
+        Memory memory;
+        ByteBuffer vertices;
+        int quads;
+        int capacity;
+
+        void ensureCapacity(int quads) {
+            if (quads <= capacity) {
+                return;
+            }
+            int newCapacity = Math.max(quads, Math.max(capacity * 2, 64));
+            Memory newMemory = new Memory((long)newCapacity * QUAD_SIZE);
+            ByteBuffer newVertices = newMemory.getByteBuffer(0, newMemory.size()).order(ByteOrder.nativeOrder());
+            if (vertices != null) {
+                ByteBuffer queued = vertices.duplicate();
+                ((Buffer)queued).limit(this.quads * QUAD_SIZE);
+                newVertices.put(queued);
+            }
+            memory = newMemory;
+            vertices = newVertices;
+            capacity = newCapacity;
+        }
+    }
+
+    private final Renderer renderer;
+    private final Map<Texture, Batch> batches = new LinkedHashMap<>();
+    private Memory indices;
+    private int indexCapacity;
+    private int queued;
+    private int lastDrawCalls;
+
+    /**
+     * @throws SDLException if the loaded SDL is older than 2.0.18
+     */
+    public SpriteBatch(Renderer renderer) {
+        Renderer.checkGeometrySupported();
+        this.renderer = renderer;
+    }
+
+    public Renderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Queue a whole texture at its own size.
+     */
+    public void draw(Texture texture, float x, float y) {
+        draw(texture, null, x, y, texture.getWidth(), texture.getHeight(), 0xffffffff);
+    }
+
+    /**
+     * Queue a whole texture, stretched to {@code w} by {@code h}.
+     */
+    public void draw(Texture texture, float x, float y, float w, float h) {
+        draw(texture, null, x, y, w, h, 0xffffffff);
+    }
+
+    /**
+     * Queue part of a texture, stretched to {@code w} by {@code h} and tinted.
+     *
+     * @param area the part of the texture to draw as {@code x, y, w, h}, or {@code null} for all of it
+     * @param color an {@code 0xAARRGGBB} color the sprite is multiplied by
+     */
+    public void draw(Texture texture, int[] area, float x, float y, float w, float h, int color) {
+        float x1 = x + w, y1 = y + h;
+        queue(texture, area, x, y, x1, y, x1, y1, x, y1, SDL_RendererFlip.NONE, color);
+    }
+
+    /**
+     * Queue part of a texture, stretched, rotated, flipped and tinted.
+     *
+     * @param area the part of the texture to draw as {@code x, y, w, h}, or {@code null} for all of it
+     * @param angle the rotation in degrees, clockwise like {@link Renderer#copyEx}
+     * @param originX the x coordinate to rotate around, relative to {@code x}
+     * @param originY the y coordinate to rotate around, relative to {@code y}
+     * @param flip one or more {@link SDL_RendererFlip} values OR'd together
+     * @param color an {@code 0xAARRGGBB} color the sprite is multiplied by
+     */
+    public void draw(
+        Texture texture, int[] area,
+        float x, float y, float w, float h,
+        double angle, float originX, float originY,
+        int flip, int color
+    ) {
+        if (angle == 0) {
+            float x1 = x + w, y1 = y + h;
+            queue(texture, area, x, y, x1, y, x1, y1, x, y1, flip, color);
+            return;
+        }
+        double radians = Math.toRadians(angle);
+        float cos = (float)Math.cos(radians), sin = (float)Math.sin(radians);
+        float cx = x + originX, cy = y + originY;
+        // Corners relative to the origin
+        float left = -originX, top = -originY, right = w - originX, bottom = h - originY;
+        queue(
+            texture, area,
+            cx + left * cos - top * sin, cy + left * sin + top * cos,
+            cx + right * cos - top * sin, cy + right * sin + top * cos,
+            cx + right * cos - bottom * sin, cy + right * sin + bottom * cos,
+            cx + left * cos - bottom * sin, cy + left * sin + bottom * cos,
+            flip, color
+        );
+    }
+
+    /**
+     * Queue an image from a {@link TextureAtlas} at its own size.
+     */
+    public void draw(TextureAtlas.Region region, float x, float y) {
+        draw(region, x, y, region.area[2], region.area[3], 0xffffffff);
+    }
+
+    /**
+     * Queue an image from a {@link TextureAtlas}, stretched to {@code w} by {@code h} and tinted.
+     *
+     * @param color an {@code 0xAARRGGBB} color the sprite is multiplied by
+     */
+    public void draw(TextureAtlas.Region region, float x, float y, float w, float h, int color) {
+        region.checkUsable();
+        draw(region.atlas.getTexture(), region.area, x, y, w, h, color);
+    }
+
+    /**
+     * Queue an image from a {@link TextureAtlas}, stretched, rotated, flipped and tinted. See
+     * {@link #draw(Texture, int[], float, float, float, float, double, float, float, int, int)}.
+     */
+    public void draw(
+        TextureAtlas.Region region,
+        float x, float y, float w, float h,
+        double angle, float originX, float originY,
+        int flip, int color
+    ) {
+        region.checkUsable();
+        draw(region.atlas.getTexture(), region.area, x, y, w, h, angle, originX, originY, flip, color);
+    }
+
+    /**
+     * Queue a quad with corners in the order top left, top right, bottom right, bottom left.
+     */
+    private void queue(
+        Texture texture, int[] area,
+        float x0, float y0, float x1, float y1, float x2, float y2, float x3, float y3,
+        int flip, int color
+    ) {
+        if (texture.getRenderer() != renderer) {
+            throw new IllegalArgumentException("Texture belongs to a different renderer");
+        }
+        texture.checkOpen();
+
+        float tw = texture.getWidth(), th = texture.getHeight();
+        float u0, v0, u1, v1;
+        if (area != null) {
+            u0 = area[0] / tw;
+            v0 = area[1] / th;
+            u1 = (area[0] + area[2]) / tw;
+            v1 = (area[1] + area[3]) / th;
+        } else {
+            u0 = v0 = 0;
+            u1 = v1 = 1;
+        }
+        if ((flip & SDL_RendererFlip.HORIZONTAL) != 0) {
+            float t = u0;
+            u0 = u1;
+            u1 = t;
+        }
+        if ((flip & SDL_RendererFlip.VERTICAL) != 0) {
+            float t = v0;
+            v0 = v1;
+            v1 = t;
+        }
+
+        int mod = texture.getColorMod();
+        int r = mul(color >>> 16 & 0xff, mod >>> 16 & 0xff);
+        int g = mul(color >>> 8 & 0xff, mod >>> 8 & 0xff);
+        int b = mul(color & 0xff, mod & 0xff);
+        int a = mul(color >>> 24, texture.getAlphaMod());
+        // SDL_Color is the bytes r, g, b, a in memory order
+        int rgba = LITTLE_ENDIAN ? a << 24 | b << 16 | g << 8 | r : r << 24 | g << 16 | b << 8 | a;
+
+        Batch batch = batches.get(texture);
+        if (batch == null) {
+            batch = new Batch();
+            batches.put(texture, batch);
+        }
+        batch.ensureCapacity(batch.quads + 1);
+        ByteBuffer vertices = batch.vertices;
+        int offset = batch.quads * QUAD_SIZE;
+        putVertex(vertices, offset, x0, y0, rgba, u0, v0);
+        putVertex(vertices, offset + VERTEX_SIZE, x1, y1, rgba, u1, v0);
+        putVertex(vertices, offset + 2 * VERTEX_SIZE, x2, y2, rgba, u1, v1);
+        putVertex(vertices, offset + 3 * VERTEX_SIZE, x3, y3, rgba, u0, v1);
+        batch.quads++;
+        queued++;
+    }
+
+    private static void putVertex(ByteBuffer vertices, int offset, float x, float y, int rgba, float u, float v) {
+        vertices.putFloat(offset, x);
+        vertices.putFloat(offset + 4, y);
+        vertices.putInt(offset + 8, rgba);
+        vertices.putFloat(offset + 12, u);
+        vertices.putFloat(offset + 16, v);
+    }
+
+    private static int mul(int a, int b) {
+        return (a * b + 127) / 255;
+    }
+
+    private void ensureIndices(int quads) {
+        if (quads <= indexCapacity) {
+            return;
+        }
+        int newCapacity = Math.max(quads, Math.max(indexCapacity * 2, 64));
+        Memory newIndices = new Memory((long)newCapacity * INDICES_PER_QUAD * Integer.BYTES);
+        ByteBuffer buffer = newIndices.getByteBuffer(0, newIndices.size()).order(ByteOrder.nativeOrder());
+        for (int quad = 0, offset = 0; quad < newCapacity; quad++) {
+            int base = quad * 4;
+            buffer.putInt(offset, base).putInt(offset + 4, base + 1).putInt(offset + 8, base + 2)
+                .putInt(offset + 12, base + 2).putInt(offset + 16, base + 3).putInt(offset + 20, base);
+            offset += INDICES_PER_QUAD * Integer.BYTES;
+        }
+        indices = newIndices;
+        indexCapacity = newCapacity;
+    }
+
+    /**
+     * Draw every queued sprite, with one {@code SDL_RenderGeometry} call per texture. Sprites of textures
+     * that were closed since they were queued are dropped.
+     *
+     * @return the number of {@code SDL_RenderGeometry} calls made
+     */
+    public int flush() {
+        int calls = 0;
+        Iterator<Map.Entry<Texture, Batch>> it = batches.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Texture, Batch> entry = it.next();
+            Texture texture = entry.getKey();
+            Batch batch = entry.getValue();
+            if (texture.isClosed()) {
+                it.remove();
+                continue;
+            }
+            if (batch.quads == 0) {
+                continue;
+            }
+            ensureIndices(batch.quads);
+            try {
+                renderer.geometry(texture, batch.memory, batch.quads * 4, indices, batch.quads * INDICES_PER_QUAD);
+            } finally {
+                batch.quads = 0;
+            }
+            calls++;
+        }
+        queued = 0;
+        lastDrawCalls = calls;
+        return calls;
+    }
+
+    /**
+     * Drop every queued sprite and free the vertex buffers.
+     */
+    public void clear() {
+        batches.clear();
+        indices = null;
+        indexCapacity = 0;
+        queued = 0;
+    }
+
+    /**
+     * @return the number of sprites queued since the last flush
+     */
+    public int getQueuedCount() {
+        return queued;
+    }
+
+    /**
+     * @return the number of {@code SDL_RenderGeometry} calls made by the last flush
+     */
+    public int getLastDrawCalls() {
+        return lastDrawCalls;
+    }
+}
@@ -1,14 +1,133 @@
 package io.github.gaming32.sdl4j;
 
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2FrameLibrary;
 import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Rect;
 import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Surface;
+import io.github.gaming32.sdl4j.LowLevel.SurfaceLayout;
+import io.github.gaming32.sdl4j.math.Vector2;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_PixelFormatEnum;
+
+/**
+ * <p>An image, backed by an {@code SDL_Surface}.</p>
+ *
+ * <p>Surfaces that own their {@code SDL_Surface} should be {@link #close() closed} when they're no longer
+ * needed. If one is garbage collected without being closed, the native surface is still freed, but
+ * later and from a background thread; {@link #getLeakedCount()} counts how often that happened.</p>
+ */
+public final class Surface implements AutoCloseable {
+    private static final AtomicLong LEAKED = new AtomicLong();
 
-public final class Surface {
     protected SDL_Surface surf;
     protected boolean owner;
-    protected List<Object> locks;
+    private int lockCount;
+    private ByteBuffer pixelBuffer;
+    private FreeSurface freeAction;
+    private NativeCleaner.Cleanable cleanable;
+    // Bumped whenever the pixels may have changed through this class, to invalidate the conversion caches
+    private int modCount;
+    private ConvertCache convertCache;
+    private ConvertCache convertAlphaCache;
+
+    /**
+     * A converted copy of a surface, and what it was converted from.
+     */
+    private static final class ConvertCache {
+        final Surface surface;
+        final int formatGeneration;
+        final int modCount;
+
+        ConvertCache(Surface surface, int formatGeneration, int modCount) {
+            this.surface = surface;
+            this.formatGeneration = formatGeneration;
+            this.modCount = modCount;
+        }
+    }
+
+    /**
+     * Frees a native surface. Holds only the pointer, so that it doesn't keep the {@link Surface} reachable.
+     */
+    private static final class FreeSurface implements Runnable {
+        private final Pointer surface;
+        private volatile boolean closed;
+        private volatile boolean disowned;
+
+        FreeSurface(Pointer surface) {
+            this.surface = surface;
+        }
+
+        @Override
+        public void run() {
+            if (disowned) {
+                return;
+            }
+            if (!closed) {
+                LEAKED.incrementAndGet();
+            }
+            LowLevel.getInstance().SDL_FreeSurface(surface);
+        }
+    }
+
+    /**
+     * Scratch space for the source and destination {@code SDL_Rect}s of a blit, reused for every blit on a thread.
+     */
+    private static final class BlitScratch {
+        final int[] rects = new int[8];
+        final Memory memory = new Memory(2 * RECT_SIZE);
+        final Pointer srcRect = memory;
+        final Pointer dstRect = memory.share(RECT_SIZE);
+
+        // For blits(Surface, ...), grown as needed
+        int[] batchRects = new int[0];
+        Memory batchMemory;
+        Pointer[] batchPointers = new Pointer[0];
+
+        void ensureBatchCapacity(int count) {
+            if (batchPointers.length >= count * 2) {
+                return;
+            }
+            int capacity = Math.max(Integer.highestOneBit(count - 1) << 1, 16);
+            batchRects = new int[capacity * 8];
+            batchMemory = new Memory((long)capacity * 2 * RECT_SIZE);
+            batchPointers = new Pointer[capacity * 2];
+            for (int i = 0; i < batchPointers.length; i++) {
+                batchPointers[i] = batchMemory.share((long)i * RECT_SIZE, RECT_SIZE);
+            }
+        }
+    }
+
+    static final int RECT_SIZE = 4 * Integer.BYTES;
+    private static final ThreadLocal<BlitScratch> BLIT_SCRATCH = ThreadLocal.withInitial(BlitScratch::new);
+
+    /**
+     * Create a 32-bit ARGB surface.
+     */
+    public Surface(int width, int height) {
+        this(width, height, SDL_PixelFormatEnum.ARGB8888);
+    }
+
+    /**
+     * Create a surface in any {@link SDL_PixelFormatEnum} format.
+     */
+    public Surface(int width, int height, int format) {
+        this(createSurface(width, height, format), true);
+    }
+
+    private static SDL_Surface createSurface(int width, int height, int format) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Invalid resolution for Surface");
+        }
+        SDL2Library lib = LowLevel.getInstance();
+        return lib.SDL_CreateRGBSurfaceWithFormat(0, width, height, SDL2Library.SDL_BITSPERPIXEL(format), format);
+    }
 
     protected Surface(SDL_Surface surface) {
         this(surface, true);
@@ -23,6 +142,14 @@ public final class Surface {
             SDLException.throwNew();
         }
         if (s.equals(this.surf)) {
+            if (!owner && this.cleanable != null) {
+                this.freeAction.disowned = true;
+                this.cleanable.clean();
+                this.cleanable = null;
+                this.freeAction = null;
+            } else if (owner && this.cleanable == null) {
+                registerFree();
+            }
             this.owner = owner;
             return;
         }
@@ -30,22 +157,561 @@ public final class Surface {
         cleanup();
         this.surf = s;
         this.owner = owner;
+        if (owner) {
+            registerFree();
+        }
     }
 
-    protected void cleanup() {
+    /**
+     * Hand the native surface over to the caller without freeing it, leaving this {@code Surface} closed.
+     *
+     * @return the native surface, which the caller is now responsible for freeing
+     */
+    SDL_Surface detach() {
+        if (lockCount > 0) {
+            throw new IllegalStateException("Surface is locked");
+        }
+        SDL_Surface s = surf;
+        if (cleanable != null) {
+            freeAction.disowned = true;
+            cleanable.clean();
+            cleanable = null;
+            freeAction = null;
+        }
+        clearConvertCaches();
+        pixelBuffer = null;
+        surf = null;
+        owner = false;
+        return s;
+    }
+
+    private void registerFree() {
+        freeAction = new FreeSurface(surf.getPointer());
+        cleanable = NativeCleaner.register(this, freeAction);
+    }
+
+    /**
+     * Point the surface at different pixel memory, for surfaces that wrap memory SDL4J doesn't own.
+     */
+    void setPixels(Pointer pixels, int pitch) {
+        // Written field by field, since this runs on every flip and writeField is reflective
+        if (!pixels.equals(surf.pixels)) {
+            surf.getPointer().setPointer(SurfaceLayout.PIXELS, pixels);
+            surf.pixels = pixels;
+            pixelBuffer = null;
+            modCount++;
+        }
+        if (pitch != surf.pitch) {
+            surf.getPointer().setInt(SurfaceLayout.PITCH, pitch);
+            surf.pitch = pitch;
+            pixelBuffer = null;
+        }
+    }
+
+    public int getWidth() {
+        return surf.w;
+    }
+
+    public int getHeight() {
+        return surf.h;
+    }
+
+    /**
+     * @return the length of a row of pixels in bytes, including any padding at the end
+     */
+    public int getPitch() {
+        return surf.pitch;
+    }
+
+    public int getBytesPerPixel() {
+        return surf.format.BytesPerPixel;
+    }
+
+    /**
+     * @return the {@link SDL_PixelFormatEnum} value of this surface's pixel format
+     */
+    public int getFormat() {
+        return surf.format.format;
+    }
+
+    /**
+     * <p>Get a copy of this surface in the display's pixel format, so that blitting it to the display
+     * doesn't need a conversion every time.</p>
+     *
+     * <p>The result is cached: calling this again returns the same surface until the display format changes
+     * in {@link Display#setMode}, this surface is drawn to (through {@link #blit}, {@link #lock()} or a
+     * software {@link Renderer}), or the copy is closed. The copy belongs to the caller: it stays valid after
+     * the cache moves on to a newer one, and should be closed once it's no longer needed. If this surface
+     * already has the display format, it's returned as is.</p>
+     *
+     * @throws IllegalStateException if no display mode has been set
+     */
+    public Surface convert() {
+        int format = Display.getFormat();
+        if (format == SDL_PixelFormatEnum.UNKNOWN) {
+            throw new IllegalStateException("No video mode has been set");
+        }
+        if (getFormat() == format) {
+            return this;
+        }
+        convertCache = convertCached(convertCache, format);
+        return convertCache.surface;
+    }
+
+    /**
+     * <p>Same as {@link #convert()}, but the copy has a per-pixel alpha channel. The format is the display
+     * format with alpha if it has an obvious counterpart (such as {@link SDL_PixelFormatEnum#ARGB8888} for
+     * {@link SDL_PixelFormatEnum#XRGB8888}), and {@link SDL_PixelFormatEnum#ARGB8888} otherwise.</p>
+     *
+     * @throws IllegalStateException if no display mode has been set
+     */
+    public Surface convertAlpha() {
+        int format = Display.getFormat();
+        if (format == SDL_PixelFormatEnum.UNKNOWN) {
+            throw new IllegalStateException("No video mode has been set");
+        }
+        format = alphaFormat(format);
+        if (getFormat() == format) {
+            return this;
+        }
+        convertAlphaCache = convertCached(convertAlphaCache, format);
+        return convertAlphaCache.surface;
+    }
+
+    private ConvertCache convertCached(ConvertCache cache, int format) {
+        int generation = Display.getFormatGeneration();
+        if (
+            cache != null && cache.surface.surf != null && cache.formatGeneration == generation &&
+            cache.modCount == modCount && cache.surface.getFormat() == format
+        ) {
+            return cache;
+        }
+        // A stale copy may still be in use by whoever it was returned to, so it's dropped, not closed
         SDL2Library lib = LowLevel.getInstance();
-        if (this.surf != null && this.owner) {
-            lib.SDL_FreeSurface(this.surf);
-            this.surf = null;
+        SDL_Surface converted = lib.SDL_ConvertSurfaceFormat(surf.getPointer(), format, 0);
+        if (converted == null) {
+            SDLException.throwNew();
         }
-        if (this.locks != null) {
-            this.locks = null;
+        return new ConvertCache(new Surface(converted), generation, modCount);
+    }
+
+    private static int alphaFormat(int format) {
+        if (format == SDL_PixelFormatEnum.XRGB8888) {
+            return SDL_PixelFormatEnum.ARGB8888;
         }
-        this.owner = false;
+        if (format == SDL_PixelFormatEnum.XBGR8888) {
+            return SDL_PixelFormatEnum.ABGR8888;
+        }
+        if (format == SDL_PixelFormatEnum.RGBX8888) {
+            return SDL_PixelFormatEnum.RGBA8888;
+        }
+        if (format == SDL_PixelFormatEnum.BGRX8888) {
+            return SDL_PixelFormatEnum.BGRA8888;
+        }
+        if (
+            format == SDL_PixelFormatEnum.ARGB8888 || format == SDL_PixelFormatEnum.ABGR8888 ||
+            format == SDL_PixelFormatEnum.RGBA8888 || format == SDL_PixelFormatEnum.BGRA8888
+        ) {
+            return format;
+        }
+        return SDL_PixelFormatEnum.ARGB8888;
     }
 
+    public boolean blit(Surface source, Vector2 dest) {
+        return blit(source, (int)dest.x, (int)dest.y, null, null);
+    }
+
+    public boolean blit(Surface source, int x, int y) {
+        return blit(source, x, y, null, null);
+    }
+
+    public boolean blit(Surface source, int x, int y, int[] area) {
+        return blit(source, x, y, area, null);
+    }
+
+    /**
+     * <p>Draw {@code source} onto this surface with its top left corner at ({@code x}, {@code y}).</p>
+     *
+     * <p>The rectangles are clipped in Java, so the blit goes straight to {@code SDL_LowerBlit}, which
+     * converts between pixel formats itself when they differ. Neither surface may be locked.</p>
+     *
+     * @param source the surface to draw
+     * @param x the x position on this surface
+     * @param y the y position on this surface
+     * @param area the part of {@code source} to draw, as {@code x, y, w, h}, or {@code null} to draw all of it
+     * @param dirtyOut if not {@code null}, receives the area of this surface that was drawn to, as
+     *                 {@code x, y, w, h}
+     * @return whether anything was drawn
+     */
+    public boolean blit(Surface source, int x, int y, int[] area, int[] dirtyOut) {
+        checkBlit(source);
+        SDL_Surface src = source.surf;
+        if (area != null) {
+            return blitClipped(LowLevel.getFrameInstance(), BLIT_SCRATCH.get(), source, x, y, area[0], area[1], area[2], area[3], dirtyOut, 0);
+        }
+        return blitClipped(LowLevel.getFrameInstance(), BLIT_SCRATCH.get(), source, x, y, 0, 0, src.w, src.h, dirtyOut, 0);
+    }
+
+    /**
+     * <p>Draw many surfaces onto this one.</p>
+     *
+     * <p>This is the same as calling {@link #blit(Surface, int, int, int[], int[])} for each of them, but the
+     * backend, the scratch rectangles and this surface's state are only looked up once.</p>
+     *
+     * @param sources the surfaces to draw
+     * @param positions the position of each surface on this one, as {@code x, y} pairs
+     * @param areas the part of each surface to draw, as {@code x, y, w, h}, or {@code null} to draw all of
+     *              each of them
+     * @param count the number of surfaces to draw
+     * @param dirtyOut if not {@code null}, receives the area drawn by each blit that drew anything, packed
+     *                 as {@code x, y, w, h}; it needs room for {@code count} rectangles
+     * @return the number of blits that drew anything
+     */
+    public int blits(Surface[] sources, int[] positions, int[] areas, int count, int[] dirtyOut) {
+        if (count < 0 || count > sources.length || count * 2 > positions.length ||
+            (areas != null && count * 4 > areas.length) || (dirtyOut != null && count * 4 > dirtyOut.length)) {
+            throw new IllegalArgumentException("Blit count out of range: " + count);
+        }
+        SDL2FrameLibrary frame = LowLevel.getFrameInstance();
+        BlitScratch scratch = BLIT_SCRATCH.get();
+        int drawn = 0;
+        for (int i = 0; i < count; i++) {
+            Surface source = sources[i];
+            checkBlit(source);
+            int x = positions[i * 2], y = positions[i * 2 + 1];
+            boolean result;
+            if (areas != null) {
+                int a = i * 4;
+                result = blitClipped(frame, scratch, source, x, y, areas[a], areas[a + 1], areas[a + 2], areas[a + 3], dirtyOut, drawn * 4);
+            } else {
+                result = blitClipped(frame, scratch, source, x, y, 0, 0, source.surf.w, source.surf.h, dirtyOut, drawn * 4);
+            }
+            if (result) {
+                drawn++;
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * <p>Draw many parts of one surface onto this one, such as the tiles of a tile sheet.</p>
+     *
+     * <p>All the rectangles are clipped in Java first and packed into a single native {@code SDL_Rect}
+     * array with one write, so each blit after that is a single native call with no marshalling. The
+     * dirty rectangles can go straight to {@link Display#update(int[], int)}.</p>
+     *
+     * @param source the surface to draw from
+     * @param srcRects the part of {@code source} for each blit, as {@code x, y, w, h}
+     * @param dstPoints the position on this surface for each blit, as {@code x, y} pairs
+     * @param count the number of blits
+     * @param dirtyOut if not {@code null}, receives the area drawn by each blit that drew anything, packed
+     *                 as {@code x, y, w, h}; it needs room for {@code count} rectangles
+     * @return the number of blits that drew anything
+     */
+    public int blits(Surface source, int[] srcRects, int[] dstPoints, int count, int[] dirtyOut) {
+        if (count < 0 || count * 4 > srcRects.length || count * 2 > dstPoints.length ||
+            (dirtyOut != null && count * 4 > dirtyOut.length)) {
+            throw new IllegalArgumentException("Blit count out of range: " + count);
+        }
+        checkBlit(source);
+        BlitScratch scratch = BLIT_SCRATCH.get();
+        scratch.ensureBatchCapacity(count);
+        int[] rects = scratch.batchRects;
+        int clipped = 0;
+        for (int i = 0; i < count; i++) {
+            int r = i * 4, p = i * 2;
+            if (clipBlit(source, dstPoints[p], dstPoints[p + 1], srcRects[r], srcRects[r + 1], srcRects[r + 2], srcRects[r + 3], rects, clipped * 8)) {
+                clipped++;
+            }
+        }
+        return blitBatch(source, scratch, clipped, dirtyOut);
+    }
+
+    /**
+     * Same as {@link #blits(Surface, int[], int[], int, int[])}, but reads the rectangles and points from
+     * buffers, starting at index 0.
+     */
+    public int blits(Surface source, IntBuffer srcRects, IntBuffer dstPoints, int count, int[] dirtyOut) {
+        if (count < 0 || count * 4 > srcRects.limit() || count * 2 > dstPoints.limit() ||
+            (dirtyOut != null && count * 4 > dirtyOut.length)) {
+            throw new IllegalArgumentException("Blit count out of range: " + count);
+        }
+        checkBlit(source);
+        BlitScratch scratch = BLIT_SCRATCH.get();
+        scratch.ensureBatchCapacity(count);
+        int[] rects = scratch.batchRects;
+        int clipped = 0;
+        for (int i = 0; i < count; i++) {
+            int r = i * 4, p = i * 2;
+            if (clipBlit(
+                source, dstPoints.get(p), dstPoints.get(p + 1),
+                srcRects.get(r), srcRects.get(r + 1), srcRects.get(r + 2), srcRects.get(r + 3),
+                rects, clipped * 8
+            )) {
+                clipped++;
+            }
+        }
+        return blitBatch(source, scratch, clipped, dirtyOut);
+    }
+
+    private int blitBatch(Surface source, BlitScratch scratch, int count, int[] dirtyOut) {
+        if (count == 0) {
+            return 0;
+        }
+        int[] rects = scratch.batchRects;
+        Pointer[] pointers = scratch.batchPointers;
+        scratch.batchMemory.write(0, rects, 0, count * 8);
+        modCount++;
+
+        SDL2FrameLibrary frame = LowLevel.getFrameInstance();
+        Pointer src = source.surf.getPointer(), dst = surf.getPointer();
+        for (int i = 0; i < count; i++) {
+            if (frame.SDL_LowerBlit(src, pointers[i * 2], dst, pointers[i * 2 + 1]) < 0) {
+                SDLException.throwNew();
+            }
+            if (dirtyOut != null) {
+                System.arraycopy(rects, i * 8 + 4, dirtyOut, i * 4, 4);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * <p>Draw {@code source} (or the {@code area} of it) stretched to fill the given rectangle of this
+     * surface, with {@code SDL_BlitScaled}.</p>
+     *
+     * @param dirtyOut if not {@code null}, receives the area of this surface that was drawn to, as
+     *                 {@code x, y, w, h}
+     * @return whether anything was drawn
+     */
+    public boolean blitScaled(Surface source, int[] area, int x, int y, int w, int h, int[] dirtyOut) {
+        checkBlit(source);
+        BlitScratch scratch = BLIT_SCRATCH.get();
+        int[] rects = scratch.rects;
+        if (area != null) {
+            System.arraycopy(area, 0, rects, 0, 4);
+        } else {
+            rects[0] = rects[1] = 0;
+            rects[2] = source.surf.w;
+            rects[3] = source.surf.h;
+        }
+        rects[4] = x;
+        rects[5] = y;
+        rects[6] = w;
+        rects[7] = h;
+        scratch.memory.write(0, rects, 0, 8);
+
+        modCount++;
+        SDL2FrameLibrary frame = LowLevel.getFrameInstance();
+        if (frame.SDL_UpperBlitScaled(source.surf.getPointer(), scratch.srcRect, surf.getPointer(), scratch.dstRect) < 0) {
+            SDLException.throwNew();
+        }
+        // SDL_BlitScaled writes the clipped destination back
+        scratch.dstRect.read(0, rects, 4, 4);
+        if (dirtyOut != null) {
+            System.arraycopy(rects, 4, dirtyOut, 0, 4);
+        }
+        return rects[6] > 0 && rects[7] > 0;
+    }
+
+    private void checkBlit(Surface source) {
+        if (source.surf == null || surf == null) {
+            throw new IllegalStateException("Surface is closed");
+        }
+        if (source.lockCount > 0 || lockCount > 0) {
+            throw new IllegalStateException("Surfaces must not be locked during blit");
+        }
+    }
+
+    /**
+     * Clips a blit of {@code source} to both surfaces and stores the source and destination rectangles
+     * in {@code out} at {@code offset}, as two {@code x, y, w, h} groups.
+     * @return whether anything is left to draw
+     */
+    private boolean clipBlit(Surface source, int dx, int dy, int sx, int sy, int w, int h, int[] out, int offset) {
+        SDL_Surface src = source.surf;
+        SDL_Rect clip = surf.clip_rect;
+
+        // Clip to the source surface
+        if (sx < 0) {
+            w += sx;
+            dx -= sx;
+            sx = 0;
+        }
+        if (sy < 0) {
+            h += sy;
+            dy -= sy;
+            sy = 0;
+        }
+        w = Math.min(w, src.w - sx);
+        h = Math.min(h, src.h - sy);
+
+        // Clip to this surface's clip rectangle
+        if (dx < clip.x) {
+            int d = clip.x - dx;
+            w -= d;
+            sx += d;
+            dx = clip.x;
+        }
+        if (dy < clip.y) {
+            int d = clip.y - dy;
+            h -= d;
+            sy += d;
+            dy = clip.y;
+        }
+        w = Math.min(w, clip.x + clip.w - dx);
+        h = Math.min(h, clip.y + clip.h - dy);
+        if (w <= 0 || h <= 0) {
+            return false;
+        }
+
+        out[offset] = sx;
+        out[offset + 1] = sy;
+        out[offset + 2] = out[offset + 6] = w;
+        out[offset + 3] = out[offset + 7] = h;
+        out[offset + 4] = dx;
+        out[offset + 5] = dy;
+        return true;
+    }
+
+    private boolean blitClipped(
+        SDL2FrameLibrary frame, BlitScratch scratch, Surface source,
+        int dx, int dy, int sx, int sy, int w, int h,
+        int[] dirtyOut, int dirtyOffset
+    ) {
+        SDL_Surface src = source.surf;
+        int[] rects = scratch.rects;
+        if (!clipBlit(source, dx, dy, sx, sy, w, h, rects, 0)) {
+            return false;
+        }
+        scratch.memory.write(0, rects, 0, 8);
+        modCount++;
+
+        if (frame.SDL_LowerBlit(src.getPointer(), scratch.srcRect, surf.getPointer(), scratch.dstRect) < 0) {
+            SDLException.throwNew();
+        }
+
+        if (dirtyOut != null) {
+            System.arraycopy(rects, 4, dirtyOut, dirtyOffset, 4);
+        }
+        return true;
+    }
+
+    /**
+     * <p>Lock the surface and return a view of its pixels.</p>
+     *
+     * <p>The buffer is direct, in native byte order, and covers {@link #getPitch()} bytes for each of the
+     * {@link #getHeight()} rows, so the pixel at ({@code x}, {@code y}) starts at
+     * {@code y * getPitch() + x * getBytesPerPixel()}. Writes go straight to the surface.</p>
+     *
+     * <p>Locks nest: {@code SDL_LockSurface} is only called by the outermost {@code lock()} and
+     * {@code SDL_UnlockSurface} by the matching {@link #unlock()}. The buffer must not be used after the
+     * surface has been fully unlocked.</p>
+     *
+     * @return a new view of the pixels, with its own position and limit
+     */
+    public ByteBuffer lock() {
+        modCount++;
+        if (lockCount == 0) {
+            if (LowLevel.getFrameInstance().SDL_LockSurface(surf.getPointer()) < 0) {
+                SDLException.throwNew();
+            }
+            // Locking an RLE surface decodes it into new pixel memory
+            surf.pixels = surf.getPointer().getPointer(SurfaceLayout.PIXELS);
+            pixelBuffer = null;
+        }
+        lockCount++;
+        if (pixelBuffer == null) {
+            Pointer pixels = surf.pixels;
+            if (pixels == null) {
+                unlock();
+                throw new IllegalStateException("Surface has no pixels");
+            }
+            pixelBuffer = pixels.getByteBuffer(0, (long)surf.pitch * surf.h).order(ByteOrder.nativeOrder());
+        }
+        return pixelBuffer.duplicate().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Same as {@link #lock()}, but viewed as 32-bit pixels. Each row is {@code getPitch() / 4} ints long.
+     */
+    public IntBuffer lockInts() {
+        return lock().asIntBuffer();
+    }
+
+    /**
+     * Release one level of locking. The surface is unlocked once every {@link #lock()} has been matched.
+     */
+    public void unlock() {
+        if (lockCount == 0) {
+            throw new IllegalStateException("Surface is not locked");
+        }
+        if (--lockCount == 0) {
+            LowLevel.getFrameInstance().SDL_UnlockSurface(surf.getPointer());
+            surf.pixels = surf.getPointer().getPointer(SurfaceLayout.PIXELS);
+            pixelBuffer = null;
+        }
+    }
+
+    public boolean isLocked() {
+        return lockCount > 0;
+    }
+
+    public int getLockCount() {
+        return lockCount;
+    }
+
+    /**
+     * Free the native surface now, if this {@code Surface} owns it. Does nothing if already closed.
+     */
     @Override
-    protected void finalize() throws Throwable {
+    public void close() {
         cleanup();
     }
+
+    /**
+     * @return the number of surfaces that were garbage collected without being {@link #close() closed}
+     */
+    public static long getLeakedCount() {
+        return LEAKED.get();
+    }
+
+    /**
+     * Forget the cached conversions. The copies themselves belong to whoever {@link #convert()} returned
+     * them to, so they aren't closed.
+     */
+    void clearConvertCaches() {
+        this.convertCache = null;
+        this.convertAlphaCache = null;
+    }
+
+    /**
+     * Note that the pixels were changed by something other than this class, such as a software
+     * {@link Renderer} drawing to this surface.
+     */
+    void markModified() {
+        modCount++;
+    }
+
+    int getModCount() {
+        return modCount;
+    }
+
+    protected void cleanup() {
+        SDL2Library lib = LowLevel.getInstance();
+        clearConvertCaches();
+        if (this.surf != null && this.lockCount > 0) {
+            lib.SDL_UnlockSurface(this.surf.getPointer());
+        }
+        this.lockCount = 0;
+        this.pixelBuffer = null;
+        if (this.cleanable != null) {
+            this.freeAction.closed = true;
+            this.cleanable.clean();
+            this.cleanable = null;
+            this.freeAction = null;
+            this.surf = null;
+        }
+        this.owner = false;
+    }
 }
@@ -0,0 +1,314 @@
+package io.github.gaming32.sdl4j;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntUnaryOperator;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_PixelFormat;
+
+/**
+ * <p>Pixel operations on {@link Surface}s, done in Java on the locked pixel buffer.</p>
+ *
+ * <p>Surfaces with at least {@link #PARALLEL_CUTOFF} pixels are split into bands of rows that run on the
+ * common {@link ForkJoinPool}; smaller ones are processed on the calling thread. Every operation works on
+ * 16 and 32-bit packed pixel formats, going through the masks and shifts of the surface's
+ * {@code SDL_PixelFormat}. Colors are given as {@code 0xAARRGGBB} ints unless stated otherwise.</p>
+ */
+public final class SurfaceOps {
+    /**
+     * Surfaces with fewer pixels than this are processed on a single thread.
+     */
+    public static final int PARALLEL_CUTOFF = 1 << 16;
+    /**
+     * Roughly how many pixels each fork-join task gets.
+     */
+    private static final int PIXELS_PER_TASK = 1 << 14;
+
+    private SurfaceOps() {
+    }
+
+    @FunctionalInterface
+    private interface RowProcessor {
+        void process(int y0, int y1);
+    }
+
+    private static final class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RowProcessor processor;
+        private final int y0, y1, rowsPerTask;
+
+        RowTask(RowProcessor processor, int y0, int y1, int rowsPerTask) {
+            this.processor = processor;
+            this.y0 = y0;
+            this.y1 = y1;
+            this.rowsPerTask = rowsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (y1 - y0 <= rowsPerTask) {
+                processor.process(y0, y1);
+                return;
+            }
+            int mid = (y0 + y1) >>> 1;
+            invokeAll(new RowTask(processor, y0, mid, rowsPerTask), new RowTask(processor, mid, y1, rowsPerTask));
+        }
+    }
+
+    /**
+     * A snapshot of an {@code SDL_PixelFormat}, for packing and unpacking pixels.
+     */
+    private static final class Format {
+        final int bytesPerPixel;
+        final int rmask, gmask, bmask, amask;
+        final int rshift, gshift, bshift, ashift;
+        final int rloss, gloss, bloss, aloss;
+
+        Format(Surface surface) {
+            SDL_PixelFormat format = surface.surf.format;
+            bytesPerPixel = format.BytesPerPixel;
+            if (bytesPerPixel != 2 && bytesPerPixel != 4) {
+                throw new IllegalArgumentException("Unsupported pixel format: " + bytesPerPixel + " bytes per pixel");
+            }
+            rmask = format.Rmask;
+            gmask = format.Gmask;
+            bmask = format.Bmask;
+            amask = format.Amask;
+            rshift = format.Rshift & 0xff;
+            gshift = format.Gshift & 0xff;
+            bshift = format.Bshift & 0xff;
+            ashift = format.Ashift & 0xff;
+            rloss = loss(format.Rloss);
+            gloss = loss(format.Gloss);
+            bloss = loss(format.Bloss);
+            aloss = loss(format.Aloss);
+        }
+
+        /**
+         * A channel wider than 8 bits, like in {@code ARGB2101010}, has a "negative" loss that wraps around
+         * in SDL's unsigned byte. Those can't be unpacked to {@code 0xAARRGGBB} without losing bits.
+         */
+        private static int loss(byte loss) {
+            if (loss < 0) {
+                throw new IllegalArgumentException("Unsupported pixel format: channel wider than 8 bits");
+            }
+            return loss;
+        }
+
+        int get(ByteBuffer pixels, int offset) {
+            return bytesPerPixel == 4 ? pixels.getInt(offset) : pixels.getShort(offset) & 0xffff;
+        }
+
+        void put(ByteBuffer pixels, int offset, int pixel) {
+            if (bytesPerPixel == 4) {
+                pixels.putInt(offset, pixel);
+            } else {
+                pixels.putShort(offset, (short)pixel);
+            }
+        }
+
+        int toARGB(int pixel) {
+            int a = amask == 0 ? 0xff : expand((pixel & amask) >>> ashift, aloss);
+            return a << 24 |
+                expand((pixel & rmask) >>> rshift, rloss) << 16 |
+                expand((pixel & gmask) >>> gshift, gloss) << 8 |
+                expand((pixel & bmask) >>> bshift, bloss);
+        }
+
+        int fromARGB(int argb) {
+            return ((argb >>> 16 & 0xff) >>> rloss << rshift & rmask) |
+                ((argb >>> 8 & 0xff) >>> gloss << gshift & gmask) |
+                ((argb & 0xff) >>> bloss << bshift & bmask) |
+                ((argb >>> 24) >>> aloss << ashift & amask);
+        }
+
+        /**
+         * Scales a channel with {@code 8 - loss} bits up to 8 bits, so that its maximum maps to 255.
+         */
+        private static int expand(int value, int loss) {
+            if (loss == 0) {
+                return value;
+            }
+            int max = (1 << 8 - loss) - 1;
+            return max == 0 ? 0 : value * 255 / max;
+        }
+    }
+
+    /**
+     * Map a color to a pixel value in the surface's format, without alpha.
+     */
+    public static int mapRGB(Surface surface, int r, int g, int b) {
+        return mapRGBA(surface, r, g, b, 0xff);
+    }
+
+    /**
+     * Map a color to a pixel value in the surface's format. The alpha is dropped if the format has none.
+     */
+    public static int mapRGBA(Surface surface, int r, int g, int b, int a) {
+        return new Format(surface).fromARGB((a & 0xff) << 24 | (r & 0xff) << 16 | (g & 0xff) << 8 | (b & 0xff));
+    }
+
+    /**
+     * Convert a whole image of {@code 0xAARRGGBB} pixels, stored row by row with no padding, into the
+     * surface's format and store it as the surface's pixels.
+     */
+    public static void mapRGBA(Surface surface, int[] argb) {
+        int width = surface.getWidth();
+        if (argb.length < width * surface.getHeight()) {
+            throw new IllegalArgumentException("Not enough pixels for the surface");
+        }
+        Format format = new Format(surface);
+        ByteBuffer pixels = surface.lock();
+        try {
+            int pitch = surface.getPitch();
+            run(surface, (y0, y1) -> {
+                for (int y = y0; y < y1; y++) {
+                    int offset = y * pitch;
+                    int src = y * width;
+                    for (int x = 0; x < width; x++, offset += format.bytesPerPixel) {
+                        format.put(pixels, offset, format.fromARGB(argb[src + x]));
+                    }
+                }
+            });
+        } finally {
+            surface.unlock();
+        }
+    }
+
+    /**
+     * Fill the whole surface with a pixel value, such as one from {@link #mapRGB(Surface, int, int, int)}.
+     */
+    public static void fill(Surface surface, int pixel) {
+        fill(surface, null, pixel);
+    }
+
+    /**
+     * Fill part of the surface with a pixel value, such as one from {@link #mapRGB(Surface, int, int, int)}.
+     *
+     * @param rect the area to fill, as {@code x, y, w, h}, or {@code null} for the whole surface; it's
+     *             clipped to the surface
+     */
+    public static void fill(Surface surface, int[] rect, int pixel) {
+        int x0 = 0, y0 = 0, x1 = surface.getWidth(), y1 = surface.getHeight();
+        if (rect != null) {
+            x0 = Math.max(rect[0], 0);
+            y0 = Math.max(rect[1], 0);
+            x1 = (int)Math.min((long)rect[0] + rect[2], x1);
+            y1 = (int)Math.min((long)rect[1] + rect[3], y1);
+            if (x1 <= x0 || y1 <= y0) {
+                return;
+            }
+        }
+        Format format = new Format(surface);
+        ByteBuffer pixels = surface.lock();
+        try {
+            int pitch = surface.getPitch();
+            int left = x0, right = x1, top = y0;
+            run(y1 - y0, x1 - x0, (r0, r1) -> {
+                for (int y = top + r0; y < top + r1; y++) {
+                    int offset = y * pitch + left * format.bytesPerPixel;
+                    for (int x = left; x < right; x++, offset += format.bytesPerPixel) {
+                        format.put(pixels, offset, pixel);
+                    }
+                }
+            });
+        } finally {
+            surface.unlock();
+        }
+    }
+
+    /**
+     * Multiply every pixel by a color, channel by channel. Alpha is left alone.
+     */
+    public static void tint(Surface surface, int r, int g, int b) {
+        int rm = r & 0xff, gm = g & 0xff, bm = b & 0xff;
+        transform(surface, argb ->
+            argb & 0xff000000 |
+            ((argb >>> 16 & 0xff) * rm + 127) / 255 << 16 |
+            ((argb >>> 8 & 0xff) * gm + 127) / 255 << 8 |
+            ((argb & 0xff) * bm + 127) / 255
+        );
+    }
+
+    /**
+     * Replace every pixel with {@code above} if its luminance is at least {@code level}, and with
+     * {@code below} otherwise.
+     *
+     * @param level the luminance cutoff, from 0 to 255
+     * @param above the color for pixels at or above the cutoff
+     * @param below the color for pixels below the cutoff
+     */
+    public static void threshold(Surface surface, int level, int above, int below) {
+        transform(surface, argb -> luminance(argb) >= level ? above : below);
+    }
+
+    /**
+     * Convert every pixel to its luminance. Alpha is left alone.
+     */
+    public static void grayscale(Surface surface) {
+        transform(surface, argb -> {
+            int l = luminance(argb);
+            return argb & 0xff000000 | l << 16 | l << 8 | l;
+        });
+    }
+
+    /**
+     * Multiply the color channels of every pixel by its alpha.
+     *
+     * @throws IllegalArgumentException if the surface has no alpha channel
+     */
+    public static void premultiplyAlpha(Surface surface) {
+        if (surface.surf.format.Amask == 0) {
+            throw new IllegalArgumentException("Surface has no alpha channel");
+        }
+        transform(surface, argb -> {
+            int a = argb >>> 24;
+            return argb & 0xff000000 |
+                ((argb >>> 16 & 0xff) * a + 127) / 255 << 16 |
+                ((argb >>> 8 & 0xff) * a + 127) / 255 << 8 |
+                ((argb & 0xff) * a + 127) / 255;
+        });
+    }
+
+    /**
+     * Apply an operation on {@code 0xAARRGGBB} colors to every pixel of the surface.
+     */
+    public static void transform(Surface surface, IntUnaryOperator op) {
+        Format format = new Format(surface);
+        ByteBuffer pixels = surface.lock();
+        try {
+            int pitch = surface.getPitch();
+            int width = surface.getWidth();
+            run(surface, (y0, y1) -> {
+                for (int y = y0; y < y1; y++) {
+                    int offset = y * pitch;
+                    for (int x = 0; x < width; x++, offset += format.bytesPerPixel) {
+                        format.put(pixels, offset, format.fromARGB(op.applyAsInt(format.toARGB(format.get(pixels, offset)))));
+                    }
+                }
+            });
+        } finally {
+            surface.unlock();
+        }
+    }
+
+    private static int luminance(int argb) {
+        // ITU-R BT.601 weights, in 1/256ths
+        return ((argb >>> 16 & 0xff) * 77 + (argb >>> 8 & 0xff) * 150 + (argb & 0xff) * 29) >>> 8;
+    }
+
+    private static void run(Surface surface, RowProcessor processor) {
+        run(surface.getHeight(), surface.getWidth(), processor);
+    }
+
+    private static void run(int rows, int width, RowProcessor processor) {
+        if ((long)rows * width < PARALLEL_CUTOFF) {
+            processor.process(0, rows);
+            return;
+        }
+        int rowsPerTask = Math.max(1, PIXELS_PER_TASK / width);
+        ForkJoinPool.commonPool().invoke(new RowTask(processor, 0, rows, rowsPerTask));
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.gaming32.sdl4j;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.github.gaming32.sdl4j.sdl_enums.SDL_PixelFormatEnum;
+
+/**
+ * <p>Recycles surfaces of the same size and format, for programs that create and drop temporary surfaces
+ * every frame.</p>
+ *
+ * <p>{@link #acquire(int, int, int)} hands out a pooled surface if there's one with the right size and
+ * format, and creates a new one otherwise. {@link #release(Surface)} puts a surface back for reuse. At most
+ * {@link #getMaxRetained()} surfaces are kept; past that, the one released longest ago is closed.</p>
+ *
+ * <p>The contents of a reused surface are whatever was last drawn on it. This class is thread safe.</p>
+ */
+public final class SurfacePool {
+    private static final class Key {
+        int width, height, format;
+
+        Key(int width, int height, int format) {
+            set(width, height, format);
+        }
+
+        Key set(int width, int height, int format) {
+            this.width = width;
+            this.height = height;
+            this.format = format;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)obj;
+            return width == other.width && height == other.height && format == other.format;
+        }
+
+        @Override
+        public int hashCode() {
+            return (width * 31 + height) * 31 + format;
+        }
+    }
+
+    /**
+     * The pooled surfaces of one size and format, oldest release first.
+     */
+    private static final class Bucket {
+        final Key key;
+        final ArrayDeque<Surface> surfaces = new ArrayDeque<>();
+
+        Bucket(Key key) {
+            this.key = key;
+        }
+    }
+
+    private final int maxRetained;
+    private final Map<Key, Bucket> free = new HashMap<>();
+    // Every pooled surface, oldest release first
+    private final LinkedHashMap<Surface, Bucket> lru = new LinkedHashMap<>();
+    // Reused for lookups, so that acquire doesn't allocate a key; only used while holding the lock
+    private final Key lookup = new Key(0, 0, 0);
+    private long hits, misses, evictions;
+
+    /**
+     * @param maxRetained the most surfaces to keep around for reuse
+     */
+    public SurfacePool(int maxRetained) {
+        if (maxRetained < 0) {
+            throw new IllegalArgumentException("maxRetained must not be negative");
+        }
+        this.maxRetained = maxRetained;
+    }
+
+    /**
+     * Same as {@link #acquire(int, int, int)} with {@link SDL_PixelFormatEnum#ARGB8888}.
+     */
+    public Surface acquire(int width, int height) {
+        return acquire(width, height, SDL_PixelFormatEnum.ARGB8888);
+    }
+
+    /**
+     * Get a surface with the given size and {@link SDL_PixelFormatEnum} format, reusing a pooled one if
+     * possible. It should be given back with {@link #release(Surface)} (or closed) when no longer needed.
+     */
+    public Surface acquire(int width, int height, int format) {
+        Surface surface = take(width, height, format);
+        return surface != null ? surface : new Surface(width, height, format);
+    }
+
+    /**
+     * Put a surface back in the pool. If the pool is full, the surface that was released longest ago is
+     * closed to make room. The surface must not be used after this.
+     *
+     * @throws IllegalArgumentException if the surface doesn't own its {@code SDL_Surface}, or is closed
+     * @throws IllegalStateException if the surface is locked
+     */
+    public void release(Surface surface) {
+        if (surface.surf == null || !surface.owner) {
+            throw new IllegalArgumentException("Only open surfaces that own their SDL_Surface can be pooled");
+        }
+        if (surface.isLocked()) {
+            throw new IllegalStateException("Surface is locked");
+        }
+        surface.clearConvertCaches();
+        Surface evicted = put(surface, surface.getWidth(), surface.getHeight(), surface.getFormat());
+        if (evicted != null) {
+            evicted.close();
+        }
+    }
+
+    /**
+     * Take the most recently released surface of a size and format out of the pool, counting a hit or a
+     * miss. This and {@link #put} are the bookkeeping of {@link #acquire(int, int, int)} and
+     * {@link #release(Surface)}, without creating or closing any surface.
+     *
+     * @return the surface, or {@code null} if there's none
+     */
+    synchronized Surface take(int width, int height, int format) {
+        Bucket bucket = free.get(lookup.set(width, height, format));
+        if (bucket == null) {
+            misses++;
+            return null;
+        }
+        Surface surface = bucket.surfaces.pollLast();
+        if (bucket.surfaces.isEmpty()) {
+            free.remove(bucket.key);
+        }
+        lru.remove(surface);
+        hits++;
+        return surface;
+    }
+
+    /**
+     * Add a surface to the pool, evicting the one released longest ago if the pool is full.
+     *
+     * @return the surface to close: the evicted one, {@code surface} itself if nothing can be retained, or
+     *         {@code null}
+     */
+    synchronized Surface put(Surface surface, int width, int height, int format) {
+        if (maxRetained == 0) {
+            return surface;
+        }
+        if (lru.containsKey(surface)) {
+            return null;
+        }
+        Surface evicted = null;
+        if (lru.size() >= maxRetained) {
+            Iterator<Map.Entry<Surface, Bucket>> it = lru.entrySet().iterator();
+            Bucket oldest = it.next().getValue();
+            it.remove();
+            // The oldest surface overall is also the oldest in its bucket, so it's at the front
+            evicted = oldest.surfaces.pollFirst();
+            if (oldest.surfaces.isEmpty()) {
+                free.remove(oldest.key);
+            }
+            evictions++;
+        }
+        Bucket bucket = free.get(lookup.set(width, height, format));
+        if (bucket == null) {
+            bucket = new Bucket(new Key(width, height, format));
+            free.put(bucket.key, bucket);
+        }
+        bucket.surfaces.addLast(surface);
+        lru.put(surface, bucket);
+        return evicted;
+    }
+
+    /**
+     * Close every pooled surface.
+     */
+    public void clear() {
+        Surface[] surfaces;
+        synchronized (this) {
+            surfaces = lru.keySet().toArray(new Surface[0]);
+            lru.clear();
+            free.clear();
+        }
+        for (Surface surface : surfaces) {
+            surface.close();
+        }
+    }
+
+    public int getMaxRetained() {
+        return maxRetained;
+    }
+
+    /**
+     * @return the number of surfaces currently waiting for reuse
+     */
+    public synchronized int size() {
+        return lru.size();
+    }
+
+    /**
+     * @return the number of different sizes and formats among the surfaces waiting for reuse
+     */
+    synchronized int bucketCount() {
+        return free.size();
+    }
+
+    /**
+     * @return the number of {@code acquire} calls that reused a pooled surface
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return the number of {@code acquire} calls that had to create a new surface
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return the number of pooled surfaces closed to make room for newer ones
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.gaming32.sdl4j;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Texture;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_BlendMode;
+
+/**
+ * <p>An image stored by a {@link Renderer}, usually on the GPU. Textures are created with
+ * {@link Renderer#createTexture(Surface)} or {@link Renderer#createTexture(int, int, int, int)}.</p>
+ *
+ * <p>A texture should be {@link #close() closed} when it's no longer needed. Closing its renderer closes
+ * it too.</p>
+ */
+public final class Texture implements AutoCloseable {
+    // The native SDL_Rect for update(Surface, int[]), so that uploading an area doesn't allocate
+    private static final ThreadLocal<Memory> UPDATE_RECT = ThreadLocal.withInitial(() -> new Memory(Surface.RECT_SIZE));
+
+    private final Renderer renderer;
+    SDL_Texture texture;
+    private final int format, access, width, height;
+    private int colorMod = 0xffffff;
+    private int alphaMod = 0xff;
+
+    Texture(Renderer renderer, SDL_Texture texture) {
+        this.renderer = renderer;
+        this.texture = texture;
+        IntByReference format = new IntByReference(), access = new IntByReference();
+        IntByReference w = new IntByReference(), h = new IntByReference();
+        SDL2Library lib = LowLevel.getInstance();
+        if (lib.SDL_QueryTexture(texture, format, access, w, h) < 0) {
+            lib.SDL_DestroyTexture(texture);
+            SDLException.throwNew();
+        }
+        this.format = format.getValue();
+        this.access = access.getValue();
+        this.width = w.getValue();
+        this.height = h.getValue();
+    }
+
+    void checkOpen() {
+        if (texture == null) {
+            throw new IllegalStateException("Texture is closed");
+        }
+    }
+
+    public Renderer getRenderer() {
+        return renderer;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the {@link io.github.gaming32.sdl4j.sdl_enums.SDL_PixelFormatEnum} value of this texture's
+     *         pixel format
+     */
+    public int getFormat() {
+        return format;
+    }
+
+    /**
+     * @return the {@link io.github.gaming32.sdl4j.sdl_enums.SDL_TextureAccess} value of this texture
+     */
+    public int getAccess() {
+        return access;
+    }
+
+    /**
+     * Set a color that every pixel is multiplied by when the texture is drawn. {@link SpriteBatch} applies
+     * it through the vertex colors.
+     */
+    public void setColorMod(int r, int g, int b) {
+        checkOpen();
+        SDL2Library lib = LowLevel.getInstance();
+        if (lib.SDL_SetTextureColorMod(texture, (byte)r, (byte)g, (byte)b) < 0) {
+            SDLException.throwNew();
+        }
+        colorMod = (r & 0xff) << 16 | (g & 0xff) << 8 | (b & 0xff);
+    }
+
+    /**
+     * @return the color mod as {@code 0xRRGGBB}
+     */
+    public int getColorMod() {
+        return colorMod;
+    }
+
+    /**
+     * Set a value that every pixel's alpha is multiplied by when the texture is drawn. {@link SpriteBatch}
+     * applies it through the vertex colors.
+     */
+    public void setAlphaMod(int alpha) {
+        checkOpen();
+        SDL2Library lib = LowLevel.getInstance();
+        if (lib.SDL_SetTextureAlphaMod(texture, (byte)alpha) < 0) {
+            SDLException.throwNew();
+        }
+        alphaMod = alpha & 0xff;
+    }
+
+    public int getAlphaMod() {
+        return alphaMod;
+    }
+
+    /**
+     * @param blendMode an {@link SDL_BlendMode} value
+     */
+    public void setBlendMode(int blendMode) {
+        checkOpen();
+        SDL2Library lib = LowLevel.getInstance();
+        if (lib.SDL_SetTextureBlendMode(texture, blendMode) < 0) {
+            SDLException.throwNew();
+        }
+    }
+
+    /**
+     * Replace the texture's pixels with a surface's. The surface must be the same size as the texture and
+     * have the same pixel format.
+     */
+    public void update(Surface source) {
+        checkOpen();
+        if (source.getWidth() != width || source.getHeight() != height) {
+            throw new IllegalArgumentException("Surface size doesn't match the texture");
+        }
+        if (source.getFormat() != format) {
+            throw new IllegalArgumentException("Surface format doesn't match the texture");
+        }
+        source.lock();
+        try {
+            if (LowLevel.getFrameInstance().SDL_UpdateTexture(texture, (Pointer)null, source.surf.pixels, source.getPitch()) < 0) {
+                SDLException.throwNew();
+            }
+        } finally {
+            source.unlock();
+        }
+    }
+
+    /**
+     * Upload one area of a surface to the same area of the texture. The surface must be the same size as
+     * the texture and have the same pixel format.
+     *
+     * @param area the area to upload as {@code x, y, w, h}; it must be inside the texture
+     */
+    public void update(Surface source, int[] area) {
+        checkOpen();
+        if (source.getWidth() != width || source.getHeight() != height) {
+            throw new IllegalArgumentException("Surface size doesn't match the texture");
+        }
+        if (source.getFormat() != format) {
+            throw new IllegalArgumentException("Surface format doesn't match the texture");
+        }
+        if (area[0] < 0 || area[1] < 0 || area[2] < 0 || area[3] < 0 || area[0] + area[2] > width || area[1] + area[3] > height) {
+            throw new IllegalArgumentException("Area is outside the texture");
+        }
+        Memory rect = UPDATE_RECT.get();
+        rect.write(0, area, 0, 4);
+        source.lock();
+        try {
+            int pitch = source.getPitch();
+            Pointer pixels = source.surf.pixels.share((long)area[1] * pitch + (long)area[0] * source.getBytesPerPixel());
+            if (LowLevel.getFrameInstance().SDL_UpdateTexture(texture, rect, pixels, pitch) < 0) {
+                SDLException.throwNew();
+            }
+        } finally {
+            source.unlock();
+        }
+    }
+
+    /**
+     * Destroy the texture. Does nothing if already closed.
+     */
+    @Override
+    public void close() {
+        if (texture == null) {
+            return;
+        }
+        if (!renderer.isClosed()) {
+            SDL2Library lib = LowLevel.getInstance();
+            lib.SDL_DestroyTexture(texture);
+        }
+        renderer.unregister(this);
+        texture = null;
+    }
+
+    public boolean isClosed() {
+        return texture == null;
+    }
+}
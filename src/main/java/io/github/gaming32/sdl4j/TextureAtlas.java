@@ -0,0 +1,456 @@
+package io.github.gaming32.sdl4j;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_BlendMode;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_PixelFormatEnum;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_TextureAccess;
+
+/**
+ * <p>Packs many small images into one {@link Texture}, so that a scene drawn from them needs a single
+ * texture and, through a {@link SpriteBatch}, a single draw call.</p>
+ *
+ * <p>Images are placed with a skyline packer as they're {@link #add(Surface) added}. When one doesn't fit,
+ * every image is packed again from scratch, tallest first, which also reclaims the space of
+ * {@link #remove(Region) removed} ones. The {@link Region} handles stay valid across repacks; they just
+ * move. A copy of the atlas is kept in a {@link Surface}, and changes are uploaded to the texture the
+ * next time it's asked for.</p>
+ *
+ * <p>Since adding an image can move the others, add images before queueing the sprites of a frame, not
+ * between queueing and {@link SpriteBatch#flush() flushing} them.</p>
+ */
+public final class TextureAtlas implements AutoCloseable {
+    /**
+     * A stable handle to an image in a {@link TextureAtlas}.
+     */
+    public static final class Region {
+        final TextureAtlas atlas;
+        // x, y, w, h in the atlas; updated in place by repacks
+        final int[] area;
+        boolean removed;
+
+        Region(TextureAtlas atlas, int width, int height) {
+            this.atlas = atlas;
+            this.area = new int[] {0, 0, width, height};
+        }
+
+        public TextureAtlas getAtlas() {
+            return atlas;
+        }
+
+        public int getX() {
+            return area[0];
+        }
+
+        public int getY() {
+            return area[1];
+        }
+
+        public int getWidth() {
+            return area[2];
+        }
+
+        public int getHeight() {
+            return area[3];
+        }
+
+        /**
+         * @return a copy of the region's current area in the atlas texture, as {@code x, y, w, h}
+         */
+        public int[] getArea() {
+            return area.clone();
+        }
+
+        public boolean isRemoved() {
+            return removed;
+        }
+
+        void checkUsable() {
+            if (removed) {
+                throw new IllegalStateException("Region was removed from its atlas");
+            }
+        }
+    }
+
+    private static final class Segment {
+        int x, y, width;
+
+        Segment(int x, int y, int width) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+        }
+    }
+
+    /**
+     * The top edge of the packed area, as horizontal segments from left to right.
+     */
+    static final class Skyline {
+        final int width, height;
+        final List<Segment> segments = new ArrayList<>();
+
+        Skyline(int width, int height) {
+            this.width = width;
+            this.height = height;
+            segments.add(new Segment(0, 0, width));
+        }
+
+        /**
+         * Place a {@code w} by {@code h} box as low as possible, then as far left as possible.
+         *
+         * @return {@code false} if it doesn't fit
+         */
+        boolean place(int w, int h, int[] pos) {
+            int bestIndex = -1, bestX = 0, bestY = Integer.MAX_VALUE;
+            for (int i = 0; i < segments.size(); i++) {
+                int x = segments.get(i).x;
+                if (x + w > width) {
+                    break;
+                }
+                int y = 0;
+                for (int j = i, covered = 0; covered < w; j++) {
+                    Segment segment = segments.get(j);
+                    y = Math.max(y, segment.y);
+                    covered += segment.width;
+                }
+                if (y + h <= height && y < bestY) {
+                    bestIndex = i;
+                    bestX = x;
+                    bestY = y;
+                }
+            }
+            if (bestIndex == -1) {
+                return false;
+            }
+
+            segments.add(bestIndex, new Segment(bestX, bestY + h, w));
+            int right = bestX + w;
+            for (int i = bestIndex + 1; i < segments.size();) {
+                Segment segment = segments.get(i);
+                if (segment.x >= right) {
+                    break;
+                }
+                int overlap = right - segment.x;
+                if (segment.width <= overlap) {
+                    segments.remove(i);
+                } else {
+                    segment.x += overlap;
+                    segment.width -= overlap;
+                    break;
+                }
+            }
+            for (int i = 0; i + 1 < segments.size();) {
+                Segment segment = segments.get(i), next = segments.get(i + 1);
+                if (segment.y == next.y) {
+                    segment.width += next.width;
+                    segments.remove(i + 1);
+                } else {
+                    i++;
+                }
+            }
+            pos[0] = bestX;
+            pos[1] = bestY;
+            return true;
+        }
+    }
+
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final int width, height, padding;
+    private final List<Region> regions = new ArrayList<>();
+    private Skyline skyline;
+    private Surface surface;
+    private Texture texture;
+    private final int[] pos = new int[2];
+    // Area of the surface not yet uploaded to the texture, as x0, y0, x1, y1
+    private int dirtyX0, dirtyY0, dirtyX1, dirtyY1;
+    private int repackCount;
+
+    /**
+     * Same as {@link #TextureAtlas(Renderer, int, int, int)} with 1 pixel of padding.
+     */
+    public TextureAtlas(Renderer renderer, int width, int height) {
+        this(renderer, width, height, 1);
+    }
+
+    /**
+     * Create an empty atlas with an alpha blended, {@link SDL_PixelFormatEnum#ARGB8888} texture.
+     *
+     * @param padding the empty pixels to keep to the right of and below every image, so that scaled
+     *                draws don't pick up their neighbors
+     */
+    public TextureAtlas(Renderer renderer, int width, int height, int padding) {
+        if (padding < 0) {
+            throw new IllegalArgumentException("padding must not be negative");
+        }
+        this.width = width;
+        this.height = height;
+        this.padding = padding;
+        skyline = new Skyline(width, height);
+        surface = new Surface(width, height, SDL_PixelFormatEnum.ARGB8888);
+        try {
+            texture = renderer.createTexture(SDL_PixelFormatEnum.ARGB8888, SDL_TextureAccess.STATIC, width, height);
+            texture.setBlendMode(SDL_BlendMode.BLEND);
+        } catch (RuntimeException e) {
+            surface.close();
+            throw e;
+        }
+        markDirty(0, 0, width, height);
+    }
+
+    private void checkOpen() {
+        if (texture == null) {
+            throw new IllegalStateException("TextureAtlas is closed");
+        }
+    }
+
+    /**
+     * Copy an image into the atlas, repacking it if there's no room.
+     *
+     * @return the handle to draw the image with
+     * @throws IllegalArgumentException if the image is bigger than the atlas
+     * @throws IllegalStateException if the atlas is full even after repacking
+     */
+    public Region add(Surface image) {
+        checkOpen();
+        int w = image.getWidth(), h = image.getHeight();
+        if (w + padding > width || h + padding > height) {
+            throw new IllegalArgumentException("Image is bigger than the atlas");
+        }
+        Region region = new Region(this, w, h);
+        if (skyline.place(w + padding, h + padding, pos)) {
+            region.area[0] = pos[0];
+            region.area[1] = pos[1];
+        } else if (!repack(region)) {
+            throw new IllegalStateException("TextureAtlas is full");
+        }
+        regions.add(region);
+        copyIn(image, region);
+        return region;
+    }
+
+    /**
+     * Remove an image from the atlas. Its space is reclaimed by the next repack.
+     */
+    public void remove(Region region) {
+        if (region.atlas != this) {
+            throw new IllegalArgumentException("Region belongs to a different atlas");
+        }
+        if (!region.removed) {
+            region.removed = true;
+            regions.remove(region);
+        }
+    }
+
+    /**
+     * Pack every image again from scratch, reclaiming the space of removed ones.
+     *
+     * @throws IllegalStateException if they somehow no longer fit
+     */
+    public void repack() {
+        checkOpen();
+        if (!repack(null)) {
+            throw new IllegalStateException("TextureAtlas is full");
+        }
+    }
+
+    /**
+     * Repack the current regions plus {@code extra}, if it's not {@code null}. Nothing changes if they
+     * don't fit.
+     */
+    private boolean repack(Region extra) {
+        List<Region> order = new ArrayList<>(regions);
+        if (extra != null) {
+            order.add(extra);
+        }
+        int[] placed = new int[order.size() * 2];
+        Skyline newSkyline = layout(width, height, padding, order, placed);
+        if (newSkyline == null) {
+            return false;
+        }
+
+        Surface newSurface = new Surface(width, height, SDL_PixelFormatEnum.ARGB8888);
+        ByteBuffer src = surface.lock();
+        try {
+            ByteBuffer dst = newSurface.lock();
+            try {
+                for (int i = 0; i < order.size(); i++) {
+                    Region region = order.get(i);
+                    if (region != extra) {
+                        copyRows(
+                            src, surface.getPitch(), region.area[0], region.area[1],
+                            dst, newSurface.getPitch(), placed[i * 2], placed[i * 2 + 1],
+                            region.area[2], region.area[3]
+                        );
+                    }
+                }
+            } finally {
+                newSurface.unlock();
+            }
+        } finally {
+            surface.unlock();
+        }
+        for (int i = 0; i < order.size(); i++) {
+            order.get(i).area[0] = placed[i * 2];
+            order.get(i).area[1] = placed[i * 2 + 1];
+        }
+        surface.close();
+        surface = newSurface;
+        skyline = newSkyline;
+        repackCount++;
+        markDirty(0, 0, width, height);
+        return true;
+    }
+
+    /**
+     * Pack {@code order} into an empty skyline, tallest first. The list is sorted into that order, and the
+     * position of each region goes in {@code placed} as {@code x, y} pairs; the regions aren't moved.
+     *
+     * @return the new skyline, or {@code null} if they don't fit
+     */
+    static Skyline layout(int width, int height, int padding, List<Region> order, int[] placed) {
+        order.sort(Comparator.comparingInt((Region r) -> r.area[3]).thenComparingInt(r -> r.area[2]).reversed());
+        Skyline skyline = new Skyline(width, height);
+        int[] pos = new int[2];
+        for (int i = 0; i < order.size(); i++) {
+            Region region = order.get(i);
+            if (!skyline.place(region.area[2] + padding, region.area[3] + padding, pos)) {
+                return null;
+            }
+            placed[i * 2] = pos[0];
+            placed[i * 2 + 1] = pos[1];
+        }
+        return skyline;
+    }
+
+    private void copyIn(Surface image, Region region) {
+        Surface source = image;
+        if (image.getFormat() != SDL_PixelFormatEnum.ARGB8888) {
+            SDL2Library lib = LowLevel.getInstance();
+            SDL2Library.SDL_Surface converted = lib.SDL_ConvertSurfaceFormat(image.surf.getPointer(), SDL_PixelFormatEnum.ARGB8888, 0);
+            if (converted == null) {
+                SDLException.throwNew();
+            }
+            source = new Surface(converted);
+        }
+        try {
+            ByteBuffer src = source.lock();
+            try {
+                ByteBuffer dst = surface.lock();
+                try {
+                    copyRows(
+                        src, source.getPitch(), 0, 0,
+                        dst, surface.getPitch(), region.area[0], region.area[1],
+                        region.area[2], region.area[3]
+                    );
+                } finally {
+                    surface.unlock();
+                }
+            } finally {
+                source.unlock();
+            }
+        } finally {
+            if (source != image) {
+                source.close();
+            }
+        }
+        markDirty(region.area[0], region.area[1], region.area[2], region.area[3]);
+    }
+
+    private static void copyRows(
+        ByteBuffer src, int srcPitch, int srcX, int srcY,
+        ByteBuffer dst, int dstPitch, int dstX, int dstY,
+        int w, int h
+    ) {
+        int rowBytes = w * BYTES_PER_PIXEL;
+        for (int row = 0; row < h; row++) {
+            int srcOffset = (srcY + row) * srcPitch + srcX * BYTES_PER_PIXEL;
+            ((Buffer)src).limit(srcOffset + rowBytes);
+            ((Buffer)src).position(srcOffset);
+            ((Buffer)dst).position((dstY + row) * dstPitch + dstX * BYTES_PER_PIXEL);
+            dst.put(src);
+        }
+    }
+
+    private void markDirty(int x, int y, int w, int h) {
+        if (dirtyX1 <= dirtyX0 || dirtyY1 <= dirtyY0) {
+            dirtyX0 = x;
+            dirtyY0 = y;
+            dirtyX1 = x + w;
+            dirtyY1 = y + h;
+        } else {
+            dirtyX0 = Math.min(dirtyX0, x);
+            dirtyY0 = Math.min(dirtyY0, y);
+            dirtyX1 = Math.max(dirtyX1, x + w);
+            dirtyY1 = Math.max(dirtyY1, y + h);
+        }
+    }
+
+    /**
+     * Upload any changes to the texture now. {@link #getTexture()} does this already.
+     */
+    public void sync() {
+        checkOpen();
+        if (dirtyX1 > dirtyX0 && dirtyY1 > dirtyY0) {
+            texture.update(surface, new int[] {dirtyX0, dirtyY0, dirtyX1 - dirtyX0, dirtyY1 - dirtyY0});
+            dirtyX0 = dirtyY0 = dirtyX1 = dirtyY1 = 0;
+        }
+    }
+
+    /**
+     * @return the atlas texture, with every added image uploaded
+     */
+    public Texture getTexture() {
+        sync();
+        return texture;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getPadding() {
+        return padding;
+    }
+
+    /**
+     * @return the number of images in the atlas
+     */
+    public int size() {
+        return regions.size();
+    }
+
+    /**
+     * @return the number of times the atlas has been repacked
+     */
+    public int getRepackCount() {
+        return repackCount;
+    }
+
+    /**
+     * Destroy the texture and free the copy of the atlas. Does nothing if already closed.
+     */
+    @Override
+    public void close() {
+        if (texture == null) {
+            return;
+        }
+        texture.close();
+        texture = null;
+        surface.close();
+        surface = null;
+        for (Region region : regions) {
+            region.removed = true;
+        }
+        regions.clear();
+    }
+}
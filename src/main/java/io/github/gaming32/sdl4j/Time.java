@@ -0,0 +1,36 @@
+package io.github.gaming32.sdl4j;
+
+import io.github.gaming32.sdl4j.modules.TimeModule;
+
+public final class Time {
+    private Time() {}
+
+    public static void init() {
+        TimeModule.getInstance().init();
+    }
+
+    public static void quit() {
+        TimeModule.getInstance().quit();
+    }
+
+    /**
+     * Same as {@link #setTimer(int, int, int)}, repeating until stopped.
+     */
+    public static void setTimer(int eventType, int millis) {
+        setTimer(eventType, millis, 0);
+    }
+
+    /**
+     * <p>Repeatedly push an event of the given type onto the event queue, every {@code millis}
+     * milliseconds. Setting a timer for an event type replaces the one it had, and a {@code millis} of 0
+     * stops it.</p>
+     *
+     * <p>The events are {@code SDL_UserEvent}s with no code or data. Every timer runs on one shared
+     * thread, so having thousands of them is cheap.</p>
+     *
+     * @param loops how many events to push before stopping, or 0 to keep going until stopped
+     */
+    public static void setTimer(int eventType, int millis, int loops) {
+        TimeModule.getInstance().setTimer(eventType, millis, loops);
+    }
+}
@@ -12,6 +12,12 @@ public final class DisplayFlags {
     DOUBLEBUF = 0x40000000,
     FULLSCREEN = 0x80000000,
     SCALED = 0x00000200,
+    /**
+     * With {@link #SCALED}, make the screen surface point straight at the locked memory of the texture it's
+     * drawn through, instead of copying a separate buffer into it on every flip. The surface's contents are
+     * undefined after each flip, so this only suits programs that redraw the whole screen every frame.
+     */
+    STREAMING = 0x00000400,
 
     OPENGL = 0x00000002,
     OPENGLBLIT = 0x0000000A,
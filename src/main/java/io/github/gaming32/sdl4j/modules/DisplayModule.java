@@ -33,7 +33,8 @@ public final class DisplayModule implements Module {
     public void init() {
         SDL2Library lib = LowLevel.getInstance();
         String driverName = lib.SDL_getenv("SDL_VIDEODRIVER");
-        if (driverName != null && !driverName.equalsIgnoreCase("windib")) {
+        if (driverName != null && driverName.equalsIgnoreCase("windib")) {
+            // SDL 1.2's name for the Windows driver
             lib.SDL_setenv("SDL_VIDEODRIVER", "windows", true);
         }
         if (lib.SDL_WasInit(SDL2Library.SDL_INIT_VIDEO) == 0) {
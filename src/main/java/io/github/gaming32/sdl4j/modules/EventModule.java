@@ -1,21 +1,24 @@
 package io.github.gaming32.sdl4j.modules;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
+import com.sun.jna.Memory;
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Union;
 import com.sun.jna.ptr.IntByReference;
 
 import io.github.gaming32.sdl4j.LowLevel;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Button;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Common;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Key;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Text;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Wheel;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Window;
 import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
 import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_KeyboardEvent;
 import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Keysym;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_MouseButtonEvent;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_MouseWheelEvent;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_TextInputEvent;
-import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_WindowEvent;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_RawEventFilter;
 import io.github.gaming32.sdl4j.LowLevel.Util;
 import io.github.gaming32.sdl4j.SDL4J.Module;
 import io.github.gaming32.sdl4j.enums.MouseFlags;
@@ -24,34 +27,34 @@ import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
 import io.github.gaming32.sdl4j.sdl_enums.SDL_KeyCode;
 import io.github.gaming32.sdl4j.sdl_enums.SDL_Keymod;
 import io.github.gaming32.sdl4j.sdl_enums.SDL_WindowEventID;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_eventaction;
 
 public final class EventModule implements Module {
-    private static final int MAX_SCAN_UNICODE = 15;
-
     private static EventModule INSTANCE = null;
+    private static final ThreadLocal<Memory> SCRATCH_EVENT = ThreadLocal.withInitial(() -> new Memory(SDL_Event.SIZE));
     private boolean isInit;
     private int keyRepeatDelay, keyRepeatInterval;
     private int repeatTimer;
-    private SDL_Event repeatEvent, lastKeyDownEvent;
-
-    private final class ScanAndUnicode {
-        int key;
-        String unicode;
-
-        ScanAndUnicode(int key, String unicode) {
-            this.key = key;
-            this.unicode = unicode;
-        }
-    }
-    private ScanAndUnicode[] scanUnicode = new ScanAndUnicode[MAX_SCAN_UNICODE];
+    private SDL_Event repeatEvent;
+    // The scancode of the last KEYDOWN whose TEXTINPUT hasn't come yet, or -1
+    private int lastKeyDownScancode = -1;
+    private final SDL_RawEventFilter eventFilter = this::eventFilter;
+    private final SDL_RawEventFilter removePendingVideoResize = this::removePendingVideoResize;
+    private final SDL_RawEventFilter removePendingVideoExpose = this::removePendingVideoExpose;
+
+    private volatile boolean wheelEmulation = true;
+    private final Object wheelLock = new Object();
+    private final IntByReference wheelMouseX = new IntByReference(), wheelMouseY = new IntByReference();
+    private Memory wheelEvents;
+    private ByteBuffer wheelBuffer;
+    private int wheelCapacity;
+
+    private final ScancodeTextMap scanUnicode = new ScancodeTextMap();
 
     EventModule() {
         if (INSTANCE != null) {
             throw new IllegalStateException("EventModule instance already exists. Did you mean to use getInstance()?");
         }
-        for (int i = 0; i < MAX_SCAN_UNICODE; i++) {
-            scanUnicode[i] = new ScanAndUnicode(0, null);
-        }
     }
 
     public static EventModule getInstance() {
@@ -67,7 +70,7 @@ public final class EventModule implements Module {
         if (!isInit) {
             keyRepeatDelay = 0;
             keyRepeatInterval = 0;
-            lib.SDL_SetEventFilter(this::eventFilter, null);
+            lib.SDL_SetEventFilter(eventFilter, null);
         }
         isInit = true;
     }
@@ -84,25 +87,36 @@ public final class EventModule implements Module {
         isInit = false;
     }
 
-    private boolean eventFilter(Pointer ignored, SDL_Event event) {
+    /**
+     * Copy an event into this thread's scratch buffer, to push a derived event from. The filter runs on
+     * whichever thread pushes or pumps, so each thread gets its own.
+     */
+    private static Pointer scratchCopy(Pointer event) {
+        Memory scratch = SCRATCH_EVENT.get();
+        Util.copyMemory(event, scratch, SDL_Event.SIZE);
+        return scratch;
+    }
+
+    private boolean eventFilter(Pointer ignored, Pointer event) {
         SDL2Library lib = LowLevel.getInstance();
-        SDL_Event newevent = Util.copyStructure(SDL_Event.class, event);
+        Pointer newp;
 
-        switch (event.getType()) {
+        switch (event.getInt(Common.TYPE)) {
             case SDL_EventType.WINDOWEVENT:
-                SDL_WindowEvent windowEvent = event.getProperValue(SDL_WindowEvent.class);
-                switch (windowEvent.event) {
+                switch (event.getByte(Window.EVENT)) {
                     case SDL_WindowEventID.RESIZED:
-                        lib.SDL_FilterEvents(this::removePendingVideoResize, newevent.getPointer());
+                        newp = scratchCopy(event);
+                        lib.SDL_FilterEvents(removePendingVideoResize, newp);
 
-                        newevent.writeField("type", SDL4J_EventCode.VIDEORESIZE);
-                        lib.SDL_PushEvent(newevent);
+                        newp.setInt(Common.TYPE, SDL4J_EventCode.VIDEORESIZE);
+                        lib.SDL_PushEvent(newp);
                         break;
                     case SDL_WindowEventID.EXPOSED:
-                        lib.SDL_FilterEvents(this::removePendingVideoExpose, newevent.getPointer());
+                        newp = scratchCopy(event);
+                        lib.SDL_FilterEvents(removePendingVideoExpose, newp);
 
-                        newevent.writeField("type", SDL4J_EventCode.VIDEOEXPOSE);
-                        lib.SDL_PushEvent(newevent);
+                        newp.setInt(Common.TYPE, SDL4J_EventCode.VIDEOEXPOSE);
+                        lib.SDL_PushEvent(newp);
                         break;
                     case SDL_WindowEventID.ENTER:
                     case SDL_WindowEventID.LEAVE:
@@ -110,12 +124,13 @@ public final class EventModule implements Module {
                     case SDL_WindowEventID.FOCUS_LOST:
                     case SDL_WindowEventID.MINIMIZED:
                     case SDL_WindowEventID.RESTORED:
-                        newevent.writeField("type", SDL4J_EventCode.ACTIVEEVENT);
-                        lib.SDL_PushEvent(newevent);
+                        newp = scratchCopy(event);
+                        newp.setInt(Common.TYPE, SDL4J_EventCode.ACTIVEEVENT);
+                        lib.SDL_PushEvent(newp);
                 }
                 break;
             case SDL_EventType.KEYDOWN:
-                if (event.getProperValue(SDL_KeyboardEvent.class).repeat != 0) {
+                if (event.getByte(Key.REPEAT) != 0) {
                     return false;
                 }
 
@@ -124,156 +139,195 @@ public final class EventModule implements Module {
                         lib.SDL_RemoveTimer(repeatTimer);
                     }
 
-                    Util.copyStructureInPlace(event, repeatEvent);
+                    if (repeatEvent == null) {
+                        repeatEvent = Union.newInstance(SDL_Event.class);
+                    }
+                    Util.copyMemory(event, repeatEvent.getPointer(), SDL_Event.SIZE);
                     repeatTimer = lib.SDL_AddTimer(keyRepeatDelay, this::repeatCallback, null);
                 }
 
-                if (lastKeyDownEvent == null) {
-                    lastKeyDownEvent = Union.newInstance(SDL_Event.class);
-                }
-                Util.copyStructureInPlace(event, lastKeyDownEvent);
+                trackText(event, 0);
                 break;
             case SDL_EventType.TEXTINPUT:
-                if (lastKeyDownEvent != null) {
-                    putEventUnicode(lastKeyDownEvent, event.getProperValue(SDL_TextInputEvent.class).text);
-                    lastKeyDownEvent = null;
-                }
+                trackText(event, 0);
                 break;
             case SDL4J_EventCode.KEYREPEAT:
-                event.writeField("type", SDL_EventType.KEYDOWN);
+                event.setInt(Common.TYPE, SDL_EventType.KEYDOWN);
                 break;
             case SDL_EventType.KEYUP:
-                if (repeatTimer != 0 && repeatEvent.getProperValue(SDL_KeyboardEvent.class).keysym.scancode == event.getProperValue(SDL_KeyboardEvent.class).keysym.scancode) {
+                if (repeatTimer != 0 && repeatEvent.getPointer().getInt(Key.SCANCODE) == event.getInt(Key.SCANCODE)) {
                     lib.SDL_RemoveTimer(repeatTimer);
                     repeatTimer = 0;
                 }
                 break;
             case SDL_EventType.MOUSEBUTTONDOWN:
             case SDL_EventType.MOUSEBUTTONUP:
-                SDL_MouseButtonEvent buttonEvent = event.getProperValue(SDL_MouseButtonEvent.class);
-                buttonEvent.readField("button");
-                if ((buttonEvent.button & MouseFlags.KEEP) != 0) {
-                    buttonEvent.writeField("button", buttonEvent.button ^ MouseFlags.KEEP);
-                } else if (buttonEvent.button >= MouseFlags.WHEELUP) {
-                    buttonEvent.writeField("button", buttonEvent.button + (MouseFlags.X1 - MouseFlags.WHEELUP));
+                int button = event.getByte(Button.BUTTON) & 0xff;
+                if ((button & MouseFlags.KEEP) != 0) {
+                    event.setByte(Button.BUTTON, (byte)(button ^ MouseFlags.KEEP));
+                } else if (button >= MouseFlags.WHEELUP) {
+                    event.setByte(Button.BUTTON, (byte)(button + (MouseFlags.X1 - MouseFlags.WHEELUP)));
                 }
                 break;
             case SDL_EventType.MOUSEWHEEL:
-                SDL_MouseWheelEvent wheelEvent = event.getProperValue(SDL_MouseWheelEvent.class);
-                if ((int)wheelEvent.readField("y") == 0 && (int)wheelEvent.readField("x") == 0) {
+                int wheelY = event.getInt(Wheel.Y);
+                if (wheelY == 0 && event.getInt(Wheel.X) == 0) {
                     return false;
                 }
+                if (wheelEmulation) {
+                    emulateWheelClicks(event, Math.abs(wheelY), wheelY > 0 ? MouseFlags.WHEELUP : MouseFlags.WHEELDOWN);
+                }
+                break;
+        }
+        return lib.SDL_EventState(event.getInt(Common.TYPE), SDL2Library.SDL_QUERY);
+    }
 
-                IntByReference xRef = new IntByReference();
-                IntByReference yRef = new IntByReference();
-                lib.SDL_GetMouseState(xRef, yRef);
-                int x = xRef.getValue(), y = yRef.getValue();
-
-                int which = (int)event.getProperValue(SDL_MouseButtonEvent.class).readField("which");
-
-                SDL_MouseButtonEvent newDownEvent = new SDL_MouseButtonEvent();
-                newDownEvent.type = SDL_EventType.MOUSEBUTTONDOWN;
-                newDownEvent.x = x;
-                newDownEvent.y = y;
-                newDownEvent.state = SDL2Library.SDL_PRESSED;
-                newDownEvent.clicks = 1;
-                newDownEvent.which = which;
-
-                SDL_MouseButtonEvent newUpEvent = new SDL_MouseButtonEvent();
-                newUpEvent.type = SDL_EventType.MOUSEBUTTONUP;
-                newUpEvent.x = x;
-                newUpEvent.y = y;
-                newUpEvent.state = SDL2Library.SDL_RELEASED;
-                newUpEvent.clicks = 1;
-                newUpEvent.which = which;
-
-                if (wheelEvent.y > 0) {
-                    newDownEvent.button = (byte)(MouseFlags.WHEELUP | MouseFlags.KEEP);
-                    newUpEvent.button = (byte)(MouseFlags.WHEELUP | MouseFlags.KEEP);
-                } else {
-                    newDownEvent.button = (byte)(MouseFlags.WHEELDOWN | MouseFlags.KEEP);
-                    newUpEvent.button = (byte)(MouseFlags.WHEELDOWN | MouseFlags.KEEP);
+    /**
+     * Remember which key a {@code TEXTINPUT} event was typed with, for {@link #getEventUnicode}. Repeated
+     * {@code KEYDOWN}s are skipped, since they don't type anything new.
+     */
+    private void trackText(Pointer events, long offset) {
+        switch (events.getInt(offset + Common.TYPE)) {
+            case SDL_EventType.KEYDOWN:
+                if (events.getByte(offset + Key.REPEAT) == 0) {
+                    lastKeyDownScancode = events.getInt(offset + Key.SCANCODE);
                 }
-                newDownEvent.write();
-                newUpEvent.write();
-
-                SDL_Event newDownEventUnion = new SDL_Event(newDownEvent.getPointer());
-                SDL_Event newUpEventUnion = new SDL_Event(newUpEvent.getPointer());
-                for (int i = 0; i < Math.abs(wheelEvent.y); i++) {
-                    lib.SDL_PushEvent(newDownEventUnion);
-                    lib.SDL_PushEvent(newUpEventUnion);
+                break;
+            case SDL_EventType.TEXTINPUT:
+                if (lastKeyDownScancode != -1) {
+                    scanUnicode.put(lastKeyDownScancode, events, offset + Text.TEXT);
+                    lastKeyDownScancode = -1;
                 }
                 break;
         }
-        return lib.SDL_EventState(event.getType(), SDL2Library.SDL_QUERY);
     }
 
-    private boolean removePendingVideoResize(Pointer userdata, SDL_Event event) {
-        SDL_Event newEvent = Structure.newInstance(SDL_Event.class, userdata);
+    /**
+     * Keep track of the text typed by {@code count} events that were added to the queue with
+     * {@code SDL_PeepEvents}, which skips the event filter. This is for events that already went through it
+     * once, like those from {@link io.github.gaming32.sdl4j.EventReplayer}, so nothing else about them is
+     * translated again.
+     */
+    public void trackAddedEvents(Pointer events, int count) {
+        for (int i = 0; i < count; i++) {
+            trackText(events, (long)i * SDL_Event.SIZE);
+        }
+    }
 
-        if (event.getType() == SDL4J_EventCode.VIDEORESIZE &&
-            ((SDL_WindowEvent)event.getTypedValue(SDL_WindowEvent.class)).windowID == ((SDL_WindowEvent)newEvent.getTypedValue(SDL_WindowEvent.class)).windowID) {
-            return false;
+    /**
+     * Add {@code clicks} presses and releases of a wheel button after a {@code MOUSEWHEEL} event. They're
+     * written into a reused native buffer and added with one {@code SDL_PeepEvents} call. That call skips
+     * this filter, so the buttons are written as they should come out of it.
+     */
+    private void emulateWheelClicks(Pointer wheel, int clicks, int button) {
+        if (clicks == 0) {
+            return;
+        }
+        SDL2Library lib = LowLevel.getInstance();
+        boolean down = lib.SDL_EventState(SDL_EventType.MOUSEBUTTONDOWN, SDL2Library.SDL_QUERY);
+        boolean up = lib.SDL_EventState(SDL_EventType.MOUSEBUTTONUP, SDL2Library.SDL_QUERY);
+        if (!down && !up) {
+            return;
+        }
+        int timestamp = wheel.getInt(Common.TIMESTAMP);
+        int windowId = wheel.getInt(Wheel.WINDOW_ID);
+        int which = wheel.getInt(Wheel.WHICH);
+        // The filter may run on any thread that pushes events
+        synchronized (wheelLock) {
+            LowLevel.getFrameInstance().SDL_GetMouseState(wheelMouseX, wheelMouseY);
+            int x = wheelMouseX.getValue(), y = wheelMouseY.getValue();
+            int count = clicks * 2;
+            if (count > wheelCapacity) {
+                wheelCapacity = Math.max(count, wheelCapacity * 2);
+                wheelEvents = new Memory((long)wheelCapacity * SDL_Event.SIZE);
+                wheelEvents.clear();
+                wheelBuffer = wheelEvents.getByteBuffer(0, wheelEvents.size()).order(ByteOrder.nativeOrder());
+            }
+            int n = 0;
+            for (int i = 0; i < clicks; i++) {
+                if (down) {
+                    putWheelButton(n++, SDL_EventType.MOUSEBUTTONDOWN, SDL2Library.SDL_PRESSED, timestamp, windowId, which, button, x, y);
+                }
+                if (up) {
+                    putWheelButton(n++, SDL_EventType.MOUSEBUTTONUP, SDL2Library.SDL_RELEASED, timestamp, windowId, which, button, x, y);
+                }
+            }
+            LowLevel.getFrameInstance().SDL_PeepEvents(
+                wheelEvents, n, SDL_eventaction.ADDEVENT, SDL_EventType.FIRSTEVENT, SDL_EventType.LASTEVENT
+            );
         }
-        return true;
     }
 
-    private boolean removePendingVideoExpose(Pointer userdata, SDL_Event event) {
-        SDL_Event newEvent = Structure.newInstance(SDL_Event.class, userdata);
+    private void putWheelButton(int index, int type, byte state, int timestamp, int windowId, int which, int button, int x, int y) {
+        int offset = index * SDL_Event.SIZE;
+        wheelBuffer.putInt(offset + Common.TYPE, type);
+        wheelBuffer.putInt(offset + Common.TIMESTAMP, timestamp);
+        wheelBuffer.putInt(offset + Button.WINDOW_ID, windowId);
+        wheelBuffer.putInt(offset + Button.WHICH, which);
+        wheelBuffer.put(offset + Button.BUTTON, (byte)button);
+        wheelBuffer.put(offset + Button.STATE, state);
+        wheelBuffer.put(offset + Button.CLICKS, (byte)1);
+        wheelBuffer.putInt(offset + Button.X, x);
+        wheelBuffer.putInt(offset + Button.Y, y);
+    }
 
-        if (event.getType() == SDL4J_EventCode.VIDEOEXPOSE &&
-            ((SDL_WindowEvent)event.getTypedValue(SDL_WindowEvent.class)).windowID == ((SDL_WindowEvent)newEvent.getTypedValue(SDL_WindowEvent.class)).windowID) {
-            return false;
-        }
-        return true;
+    /**
+     * Set whether each {@code MOUSEWHEEL} event is followed by a press and release of the
+     * {@link MouseFlags#WHEELUP} or {@link MouseFlags#WHEELDOWN} button per notch, like SDL 1.2 did. It's
+     * on by default. With it off, only the {@code MOUSEWHEEL} event is delivered, with the whole delta.
+     */
+    public void setWheelEmulation(boolean wheelEmulation) {
+        this.wheelEmulation = wheelEmulation;
+    }
+
+    public boolean isWheelEmulation() {
+        return wheelEmulation;
+    }
+
+    private boolean removePendingVideoResize(Pointer userdata, Pointer event) {
+        return event.getInt(Common.TYPE) != SDL4J_EventCode.VIDEORESIZE ||
+            event.getInt(Window.WINDOW_ID) != userdata.getInt(Window.WINDOW_ID);
+    }
+
+    private boolean removePendingVideoExpose(Pointer userdata, Pointer event) {
+        return event.getInt(Common.TYPE) != SDL4J_EventCode.VIDEOEXPOSE ||
+            event.getInt(Window.WINDOW_ID) != userdata.getInt(Window.WINDOW_ID);
     }
 
     private int repeatCallback(int interval, Pointer param) {
         SDL2Library lib = LowLevel.getInstance();
-        repeatEvent.writeField("type", SDL4J_EventCode.KEYREPEAT);
-        SDL_KeyboardEvent keyEvent = (SDL_KeyboardEvent)repeatEvent.getTypedValue(SDL_KeyboardEvent.class);
-        keyEvent.writeField("state", SDL2Library.SDL_PRESSED);
-        keyEvent.writeField("repeat", 1);
-        lib.SDL_PushEvent(repeatEvent);
+        Pointer p = repeatEvent.getPointer();
+        p.setInt(Common.TYPE, SDL4J_EventCode.KEYREPEAT);
+        p.setByte(Key.STATE, SDL2Library.SDL_PRESSED);
+        p.setByte(Key.REPEAT, (byte)1);
+        lib.SDL_PushEvent(p);
         return keyRepeatInterval;
     }
 
-    private boolean putEventUnicode(SDL_Event event, byte[] uniData) {
-        String uni = new String(uniData, StandardCharsets.UTF_8);
-        SDL_KeyboardEvent keyEvent = event.getProperValue(SDL_KeyboardEvent.class);
-        for (int i = 0; i < MAX_SCAN_UNICODE; i++) {
-            if (scanUnicode[i] == null) {
-                scanUnicode[i] = new ScanAndUnicode(keyEvent.keysym.scancode, uni);
-                return true;
-            }
-        }
-        return false;
-    }
-
     public String getEventUnicode(SDL_Event event) {
-        return getEventUnicode(event, event.getType(), (SDL_Keysym)event.getProperValue(SDL_KeyboardEvent.class).readField("keysym"));
+        Pointer p = event.getPointer();
+        return getEventUnicode(p.getInt(Common.TYPE), p.getInt(Key.SCANCODE), p.getInt(Key.SYM), p.getShort(Key.MOD) & 0xffff);
     }
 
     public String getEventUnicode(SDL_Event event, int eventType, SDL_Keysym keysym) {
-        for (int i = 0; i < MAX_SCAN_UNICODE; i++) {
-            if (scanUnicode[i].key == keysym.scancode) {
-                if (eventType == SDL_EventType.KEYUP) {
-                    scanUnicode[i].key = 0;
-                }
-                return scanUnicode[i].unicode;
-            }
+        return getEventUnicode(eventType, keysym.scancode, keysym.sym, keysym.mod);
+    }
+
+    public String getEventUnicode(int eventType, int scancode, int sym, int mod) {
+        String text = scanUnicode.get(scancode, eventType == SDL_EventType.KEYUP);
+        if (text != null) {
+            return text;
         }
-        return new String(new char[] { unicodeFromEvent(keysym) });
+        return ScancodeTextMap.charString(unicodeFromEvent(sym, mod));
     }
 
-    private static char unicodeFromEvent(SDL_Keysym keysym) {
-        boolean capsHeld = (keysym.mod & SDL_Keymod.CAPS) != 0;
-        boolean shiftHeld = (keysym.mod & SDL_Keymod.SHIFT) != 0;
+    private static char unicodeFromEvent(int key, int mod) {
+        boolean capsHeld = (mod & SDL_Keymod.CAPS) != 0;
+        boolean shiftHeld = (mod & SDL_Keymod.SHIFT) != 0;
 
         boolean capitalize = (capsHeld && !shiftHeld) || (shiftHeld && !capsHeld);
-        int key = keysym.sym;
 
-        if ((keysym.mod & SDL_Keymod.CTRL) != 0) {
+        if ((mod & SDL_Keymod.CTRL) != 0) {
             if (key >= SDL_KeyCode.a && key <= SDL_KeyCode.z) {
                 return (char)(key - SDL_KeyCode.a + 1);
             } else {
@@ -0,0 +1,170 @@
+package io.github.gaming32.sdl4j.modules;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.sun.jna.Pointer;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_TextInputEvent;
+
+/**
+ * <p>The text typed by each held key, from the {@code TEXTINPUT} event that followed its
+ * {@code KEYDOWN}, so that key events can report it as {@code unicode}.</p>
+ *
+ * <p>This is an open-addressing hash map from scancode to text, with linear probing and room for all 512
+ * SDL scancodes at a load factor of at most one half. Removing an entry shifts the rest of its probe run
+ * back, so there are no tombstones to clean up. Each slot owns a fixed {@code TEXTINPUT}-sized byte
+ * buffer that text is read into straight from native memory, plus the {@link String} decoded from it.
+ * The string is only decoded when the key's text changes, and single ASCII characters come from a
+ * shared table, so typing the same keys over and over doesn't allocate.</p>
+ *
+ * <p>The event filter may run on any thread, so every method is synchronized.</p>
+ */
+final class ScancodeTextMap {
+    private static final int CAPACITY = 1024;
+    private static final int MASK = CAPACITY - 1;
+    private static final int TEXT_SIZE = SDL_TextInputEvent.TEXT_SIZE;
+    private static final int EMPTY = -1;
+
+    private static final String[] ASCII = new String[128];
+    static {
+        for (int i = 0; i < ASCII.length; i++) {
+            ASCII[i] = String.valueOf((char)i);
+        }
+    }
+
+    private final int[] keys = new int[CAPACITY];
+    private final byte[][] texts = new byte[CAPACITY][];
+    private final int[] lengths = new int[CAPACITY];
+    private final String[] decoded = new String[CAPACITY];
+    private final byte[] scratch = new byte[TEXT_SIZE];
+    private int size;
+
+    ScancodeTextMap() {
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * @return a string of one character, shared if it's ASCII
+     */
+    static String charString(char c) {
+        return c < ASCII.length ? ASCII[c] : String.valueOf(c);
+    }
+
+    private static int slot(int scancode) {
+        return (scancode * 0x9e3779b9 >>> 22) & MASK;
+    }
+
+    /**
+     * Read the null-terminated text at {@code offset} in {@code event} and store it for {@code scancode}.
+     */
+    synchronized void put(int scancode, Pointer event, long offset) {
+        event.read(offset, scratch, 0, TEXT_SIZE);
+        int length = 0;
+        while (length < TEXT_SIZE && scratch[length] != 0) {
+            length++;
+        }
+
+        int index = slot(scancode);
+        while (keys[index] != EMPTY && keys[index] != scancode) {
+            index = (index + 1) & MASK;
+        }
+        if (keys[index] == EMPTY) {
+            if (size == CAPACITY / 2) {
+                // More keys held than there are scancodes; something is never being released
+                return;
+            }
+            keys[index] = scancode;
+            size++;
+        }
+
+        byte[] text = texts[index];
+        if (text == null) {
+            text = texts[index] = new byte[TEXT_SIZE];
+        } else if (decoded[index] != null && lengths[index] == length && equals(text, scratch, length)) {
+            return;
+        }
+        System.arraycopy(scratch, 0, text, 0, length);
+        lengths[index] = length;
+        decoded[index] = null;
+    }
+
+    private static boolean equals(byte[] a, byte[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param remove whether to remove the entry, once the key is released
+     * @return the text for {@code scancode}, or {@code null} if there is none
+     */
+    synchronized String get(int scancode, boolean remove) {
+        int index = slot(scancode);
+        while (keys[index] != scancode) {
+            if (keys[index] == EMPTY) {
+                return null;
+            }
+            index = (index + 1) & MASK;
+        }
+        String result = decoded[index];
+        if (result == null) {
+            int length = lengths[index];
+            byte[] text = texts[index];
+            if (length == 1 && text[0] >= 0) {
+                result = ASCII[text[0]];
+            } else {
+                result = new String(text, 0, length, StandardCharsets.UTF_8);
+            }
+            decoded[index] = result;
+        }
+        if (remove) {
+            remove(index);
+        }
+        return result;
+    }
+
+    /**
+     * Empty the slot at {@code index}, and move later entries of the probe run back into the gap so that
+     * lookups never stop early. The text moves along with its key.
+     */
+    private void remove(int index) {
+        int gap = index;
+        int next = (gap + 1) & MASK;
+        while (keys[next] != EMPTY) {
+            int home = slot(keys[next]);
+            // Move the entry back if its home slot isn't between the gap and where it is now
+            if (((next - home) & MASK) >= ((next - gap) & MASK)) {
+                keys[gap] = keys[next];
+                swap(gap, next);
+                gap = next;
+            }
+            next = (next + 1) & MASK;
+        }
+        keys[gap] = EMPTY;
+        size--;
+    }
+
+    /**
+     * Swap the text of two slots. A slot's buffer, length and string always stay together, even in empty
+     * slots, so a later key with the same text can reuse the string.
+     */
+    private void swap(int i, int j) {
+        byte[] text = texts[i];
+        texts[i] = texts[j];
+        texts[j] = text;
+        int length = lengths[i];
+        lengths[i] = lengths[j];
+        lengths[j] = length;
+        String string = decoded[i];
+        decoded[i] = decoded[j];
+        decoded[j] = string;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
@@ -9,6 +9,7 @@ import io.github.gaming32.sdl4j.SDLException;
 public final class TimeModule implements Module {
     private static TimeModule INSTANCE = null;
     private SDL_mutex timerMutex;
+    private TimerWheel timerWheel;
 
     TimeModule() {
         if (INSTANCE != null) {
@@ -38,9 +39,33 @@ public final class TimeModule implements Module {
     public void quit() {
         SDL2Library lib = LowLevel.getInstance();
         lib.SDL_LockMutex(timerMutex);
-        // TODO: Event timers
+        synchronized (this) {
+            if (timerWheel != null) {
+                timerWheel.stop();
+                timerWheel = null;
+            }
+        }
         lib.SDL_UnlockMutex(timerMutex);
         lib.SDL_DestroyMutex(timerMutex);
         timerMutex = null;
     }
+
+    /**
+     * <p>Repeatedly push an event of the given type onto the event queue, every {@code millis}
+     * milliseconds. Setting a timer for an event type replaces the one it had.</p>
+     *
+     * <p>All timers run on a single thread, however many there are.</p>
+     *
+     * @param millis the interval, or 0 to stop the event type's timer
+     * @param loops how many events to push before stopping, or 0 to keep going until stopped
+     */
+    public synchronized void setTimer(int eventType, int millis, int loops) {
+        if (timerWheel == null) {
+            if (millis <= 0) {
+                return;
+            }
+            timerWheel = new TimerWheel();
+        }
+        timerWheel.set(eventType, millis, loops);
+    }
 }
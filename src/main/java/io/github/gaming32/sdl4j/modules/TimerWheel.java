@@ -0,0 +1,228 @@
+package io.github.gaming32.sdl4j.modules;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import com.sun.jna.Memory;
+
+import io.github.gaming32.sdl4j.LowLevel;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Common;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+
+/**
+ * <p>Event timers for {@link TimeModule#setTimer(int, int, int)}, all driven from one thread.</p>
+ *
+ * <p>This is a hashed timer wheel: a timer due at tick {@code t} goes in bucket {@code t % WHEEL_SIZE},
+ * along with how many turns of the wheel are left before it's due. Every millisecond the thread looks at
+ * one bucket only, so a tick costs the same no matter how many timers there are in all. Due timers push
+ * their event from a single reused native buffer.</p>
+ */
+final class TimerWheel {
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final long TICK_NANOS = 1_000_000L;
+
+    private static final class Timer {
+        final int eventType;
+        final long interval;
+        // Fires left, or 0 to repeat forever
+        int loops;
+        long deadline;
+        long rounds;
+        Timer prev, next;
+
+        Timer(int eventType, long interval, int loops) {
+            this.eventType = eventType;
+            this.interval = interval;
+            this.loops = loops;
+        }
+    }
+
+    private final Timer[] buckets = new Timer[WHEEL_SIZE];
+    private final Map<Integer, Timer> timers = new HashMap<>();
+    private final long startNanos = System.nanoTime();
+    // The last tick that has been processed
+    private long currentTick;
+    private Thread thread;
+    private boolean running;
+
+    // Only touched by the timer thread
+    private final Memory event = new Memory(SDL_Event.SIZE);
+    int[] due = new int[16];
+
+    TimerWheel() {
+        event.clear();
+    }
+
+    private long nowTick() {
+        return (System.nanoTime() - startNanos) / TICK_NANOS;
+    }
+
+    /**
+     * Start, replace or (with {@code millis <= 0}) stop the timer for an event type.
+     */
+    synchronized void set(int eventType, int millis, int loops) {
+        add(eventType, millis, loops, nowTick());
+        if (millis <= 0) {
+            return;
+        }
+        if (thread == null) {
+            running = true;
+            thread = new Thread(this::run, "SDL4J Timer");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Does the scheduling for {@link #set(int, int, int)} as of tick {@code now}, without starting the
+     * thread.
+     */
+    synchronized void add(int eventType, int millis, int loops, long now) {
+        Timer old = timers.remove(eventType);
+        if (old != null) {
+            unlink(old);
+        }
+        if (millis <= 0) {
+            return;
+        }
+        if (timers.isEmpty()) {
+            // Nothing was scheduled, so the wheel may have stopped turning a while ago
+            currentTick = Math.max(currentTick, now);
+        }
+        Timer timer = new Timer(eventType, millis, Math.max(loops, 0));
+        timers.put(eventType, timer);
+        schedule(timer, now + millis);
+    }
+
+    /**
+     * Cancel every timer and stop the thread.
+     */
+    void stop() {
+        Thread toJoin;
+        synchronized (this) {
+            timers.clear();
+            Arrays.fill(buckets, null);
+            running = false;
+            toJoin = thread;
+            thread = null;
+            notifyAll();
+        }
+        if (toJoin != null && toJoin != Thread.currentThread()) {
+            LockSupport.unpark(toJoin);
+            try {
+                toJoin.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    synchronized int size() {
+        return timers.size();
+    }
+
+    private void schedule(Timer timer, long deadline) {
+        if (deadline <= currentTick) {
+            deadline = currentTick + 1;
+        }
+        timer.deadline = deadline;
+        timer.rounds = (deadline - currentTick - 1) / WHEEL_SIZE;
+        int slot = (int)(deadline & WHEEL_MASK);
+        timer.prev = null;
+        timer.next = buckets[slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        buckets[slot] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            int slot = (int)(timer.deadline & WHEEL_MASK);
+            if (buckets[slot] == timer) {
+                buckets[slot] = timer.next;
+            }
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = timer.next = null;
+    }
+
+    /**
+     * Advance the wheel up to tick {@code now}.
+     *
+     * @return the number of event types in {@link #due} to push
+     */
+    synchronized int advance(long now) {
+        int count = 0;
+        while (currentTick < now) {
+            currentTick++;
+            Timer timer = buckets[(int)(currentTick & WHEEL_MASK)];
+            while (timer != null) {
+                Timer next = timer.next;
+                if (timer.rounds > 0) {
+                    timer.rounds--;
+                } else {
+                    unlink(timer);
+                    if (count == due.length) {
+                        due = Arrays.copyOf(due, count * 2);
+                    }
+                    due[count++] = timer.eventType;
+                    if (timer.loops == 0 || --timer.loops > 0) {
+                        schedule(timer, timer.deadline + timer.interval);
+                    } else {
+                        timers.remove(timer.eventType);
+                    }
+                }
+                timer = next;
+            }
+        }
+        return count;
+    }
+
+    private void run() {
+        SDL2Library lib = LowLevel.getInstance();
+        while (true) {
+            long nextTick;
+            synchronized (this) {
+                while (running && timers.isEmpty()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+                nextTick = currentTick + 1;
+            }
+
+            long wait;
+            while ((wait = startNanos + nextTick * TICK_NANOS - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, wait);
+                synchronized (this) {
+                    if (!running) {
+                        return;
+                    }
+                }
+            }
+
+            // Push outside the lock, so that setting timers never waits on SDL
+            int count = advance(nowTick());
+            for (int i = 0; i < count; i++) {
+                event.setInt(Common.TYPE, due[i]);
+                lib.SDL_PushEvent(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.gaming32.sdl4j.sdl_enums;
+
+/**
+ * The blend mode used in SDL_RenderCopy() and drawing operations.
+ */
+public final class SDL_BlendMode {
+    public static final int
+
+    /** no blending: dstRGBA = srcRGBA */
+    NONE = 0x00000000,
+    /** alpha blending: dstRGB = (srcRGB * srcA) + (dstRGB * (1-srcA)), dstA = srcA + (dstA * (1-srcA)) */
+    BLEND = 0x00000001,
+    /** additive blending: dstRGB = (srcRGB * srcA) + dstRGB, dstA = dstA */
+    ADD = 0x00000002,
+    /** color modulate: dstRGB = srcRGB * dstRGB, dstA = dstA */
+    MOD = 0x00000004,
+    /** color multiply: dstRGB = (srcRGB * dstRGB) + (dstRGB * (1-srcA)), dstA = (srcA * dstA) + (dstA * (1-srcA)) */
+    MUL = 0x00000008;
+}
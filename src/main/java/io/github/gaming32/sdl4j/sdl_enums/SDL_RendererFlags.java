@@ -0,0 +1,17 @@
+package io.github.gaming32.sdl4j.sdl_enums;
+
+/**
+ * Flags used when creating a rendering context
+ */
+public final class SDL_RendererFlags {
+    public static final int
+
+    /** The renderer is a software fallback */
+    SOFTWARE = 0x00000001,
+    /** The renderer uses hardware acceleration */
+    ACCELERATED = 0x00000002,
+    /** Present is synchronized with the refresh rate */
+    PRESENTVSYNC = 0x00000004,
+    /** The renderer supports rendering to texture */
+    TARGETTEXTURE = 0x00000008;
+}
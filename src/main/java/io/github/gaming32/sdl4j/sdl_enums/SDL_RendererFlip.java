@@ -0,0 +1,15 @@
+package io.github.gaming32.sdl4j.sdl_enums;
+
+/**
+ * Flip constants for SDL_RenderCopyEx
+ */
+public final class SDL_RendererFlip {
+    public static final int
+
+    /** Do not flip */
+    NONE = 0x00000000,
+    /** flip horizontally */
+    HORIZONTAL = 0x00000001,
+    /** flip vertically */
+    VERTICAL = 0x00000002;
+}
@@ -0,0 +1,419 @@
+package io.github.gaming32.sdl4j;
+
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import java.io.File;
+import java.lang.foreign.AddressLayout;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+import com.sun.jna.PointerType;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2FrameLibrary;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Rect;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Renderer;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Texture;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Window;
+
+/**
+ * <p>{@link SDL2FrameLibrary} backed by the Foreign Function &amp; Memory API.</p>
+ *
+ * <p>Every function is a {@link MethodHandle} downcall held in a {@code static final} field, so the JIT
+ * can inline straight through to the native call. Arguments that are still JNA objects are passed by
+ * their native address; nothing is copied. {@code SDL_Rect} arguments are written through the
+ * {@link #SDL_RECT} layout rather than {@code Structure.write()}, and surfaces are passed as raw
+ * {@code SDL_Surface} pointers, so no structure is copied reflectively.</p>
+ *
+ * <p>Binding the handles uses restricted methods, so the JVM warns once unless it's started with
+ * {@code --enable-native-access=ALL-UNNAMED} (or the name of the module SDL4J is in), or SDL4J's jar is
+ * the one being run, whose manifest enables it.</p>
+ */
+final class ForeignFrameLibrary implements SDL2FrameLibrary {
+    static final MemoryLayout SDL_RECT = struct("SDL_Rect",
+        JAVA_INT.withName("x"),
+        JAVA_INT.withName("y"),
+        JAVA_INT.withName("w"),
+        JAVA_INT.withName("h")
+    );
+
+    static final MemoryLayout SDL_EVENT = MemoryLayout.unionLayout(
+        JAVA_INT.withName("type"),
+        MemoryLayout.sequenceLayout(SDL_Event.SIZE, JAVA_BYTE).withName("padding")
+    ).withName("SDL_Event");
+
+    static final MemoryLayout SDL_SURFACE = struct("SDL_Surface",
+        JAVA_INT.withName("flags"),
+        ADDRESS.withName("format"),
+        JAVA_INT.withName("w"),
+        JAVA_INT.withName("h"),
+        JAVA_INT.withName("pitch"),
+        ADDRESS.withName("pixels"),
+        ADDRESS.withName("userdata"),
+        JAVA_INT.withName("locked"),
+        ADDRESS.withName("list_blitmap"),
+        SDL_RECT.withName("clip_rect"),
+        ADDRESS.withName("map"),
+        JAVA_INT.withName("refcount")
+    );
+
+    private static final VarHandle RECT_X = SDL_RECT.varHandle(groupElement("x"));
+    private static final VarHandle RECT_Y = SDL_RECT.varHandle(groupElement("y"));
+    private static final VarHandle RECT_W = SDL_RECT.varHandle(groupElement("w"));
+    private static final VarHandle RECT_H = SDL_RECT.varHandle(groupElement("h"));
+
+    private static final class Handles {
+        private static final AddressLayout RECT_PTR = ADDRESS.withTargetLayout(SDL_RECT);
+        private static final AddressLayout EVENT_PTR = ADDRESS.withTargetLayout(SDL_EVENT);
+        private static final AddressLayout SURFACE_PTR = ADDRESS.withTargetLayout(SDL_SURFACE);
+
+        private static final SymbolLookup SDL2;
+        private static final Linker LINKER = Linker.nativeLinker();
+
+        static {
+            File file = NativeLibrary.getInstance("SDL2").getFile();
+            SDL2 = file != null
+                ? SymbolLookup.libraryLookup(file.toPath(), Arena.global())
+                : SymbolLookup.libraryLookup(System.mapLibraryName("SDL2"), Arena.global());
+        }
+
+        static final MethodHandle SDL_PumpEvents = downcall("SDL_PumpEvents", FunctionDescriptor.ofVoid());
+        static final MethodHandle SDL_PeepEvents = downcall("SDL_PeepEvents", FunctionDescriptor.of(
+            JAVA_INT, EVENT_PTR, JAVA_INT, JAVA_INT, JAVA_INT, JAVA_INT
+        ));
+        static final MethodHandle SDL_UpdateWindowSurface = downcall("SDL_UpdateWindowSurface", FunctionDescriptor.of(
+            JAVA_INT, ADDRESS
+        ));
+        static final MethodHandle SDL_UpdateWindowSurfaceRects = downcall("SDL_UpdateWindowSurfaceRects", FunctionDescriptor.of(
+            JAVA_INT, ADDRESS, RECT_PTR, JAVA_INT
+        ));
+        static final MethodHandle SDL_UpdateTexture = downcall("SDL_UpdateTexture", FunctionDescriptor.of(
+            JAVA_INT, ADDRESS, RECT_PTR, ADDRESS, JAVA_INT
+        ));
+        static final MethodHandle SDL_LockTexture = downcall("SDL_LockTexture", FunctionDescriptor.of(
+            JAVA_INT, ADDRESS, RECT_PTR, ADDRESS, ADDRESS
+        ));
+        static final MethodHandle SDL_UnlockTexture = downcall("SDL_UnlockTexture", FunctionDescriptor.ofVoid(ADDRESS));
+        static final MethodHandle SDL_RenderCopy = downcall("SDL_RenderCopy", FunctionDescriptor.of(
+            JAVA_INT, ADDRESS, ADDRESS, RECT_PTR, RECT_PTR
+        ));
+        static final MethodHandle SDL_RenderPresent = downcall("SDL_RenderPresent", FunctionDescriptor.ofVoid(ADDRESS));
+        static final MethodHandle SDL_UpperBlit = downcall("SDL_UpperBlit", FunctionDescriptor.of(
+            JAVA_INT, SURFACE_PTR, RECT_PTR, SURFACE_PTR, RECT_PTR
+        ));
+        static final MethodHandle SDL_LowerBlit = downcall("SDL_LowerBlit", FunctionDescriptor.of(
+            JAVA_INT, SURFACE_PTR, RECT_PTR, SURFACE_PTR, RECT_PTR
+        ));
+        static final MethodHandle SDL_UpperBlitScaled = downcall("SDL_UpperBlitScaled", FunctionDescriptor.of(
+            JAVA_INT, SURFACE_PTR, RECT_PTR, SURFACE_PTR, RECT_PTR
+        ));
+        static final MethodHandle SDL_LockSurface = downcall("SDL_LockSurface", FunctionDescriptor.of(JAVA_INT, SURFACE_PTR));
+        static final MethodHandle SDL_UnlockSurface = downcall("SDL_UnlockSurface", FunctionDescriptor.ofVoid(SURFACE_PTR));
+        static final MethodHandle SDL_GetTicks = downcall("SDL_GetTicks", FunctionDescriptor.of(JAVA_INT));
+        static final MethodHandle SDL_GetPerformanceCounter = downcall("SDL_GetPerformanceCounter", FunctionDescriptor.of(JAVA_LONG));
+        static final MethodHandle SDL_Delay = downcall("SDL_Delay", FunctionDescriptor.ofVoid(JAVA_INT));
+        static final MethodHandle SDL_GetMouseState = downcall("SDL_GetMouseState", FunctionDescriptor.of(
+            JAVA_INT, ADDRESS, ADDRESS
+        ));
+
+        static final MethodHandle SDL_RenderCopyEx = downcall("SDL_RenderCopyEx", FunctionDescriptor.of(
+            JAVA_INT, ADDRESS, ADDRESS, RECT_PTR, RECT_PTR, JAVA_DOUBLE, ADDRESS, JAVA_INT
+        ));
+
+        private static MethodHandle downcall(String name, FunctionDescriptor descriptor) {
+            MemorySegment symbol = SDL2.find(name).orElseThrow(() -> new UnsatisfiedLinkError(
+                "Can't find " + name + " in the SDL2 library"
+            ));
+            return LINKER.downcallHandle(symbol, descriptor);
+        }
+    }
+
+    private static volatile ForeignFrameLibrary instance;
+
+    private ForeignFrameLibrary() {
+    }
+
+    /**
+     * @return the FFM backend
+     * @throws UnsatisfiedLinkError if SDL2 is missing one of the functions
+     */
+    static SDL2FrameLibrary load() {
+        if (instance == null) {
+            synchronized (ForeignFrameLibrary.class) {
+                if (instance == null) {
+                    try {
+                        Handles.SDL_PumpEvents.type(); // Force the handles to be bound now
+                    } catch (ExceptionInInitializerError e) {
+                        // Report what failed to bind rather than the wrapper
+                        if (e.getCause() instanceof RuntimeException) {
+                            throw (RuntimeException)e.getCause();
+                        }
+                        if (e.getCause() instanceof Error) {
+                            throw (Error)e.getCause();
+                        }
+                        throw e;
+                    }
+                    instance = new ForeignFrameLibrary();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Lay out a C struct, with the padding the native ABI puts before each field and at the end.
+     */
+    private static MemoryLayout struct(String name, MemoryLayout... fields) {
+        List<MemoryLayout> members = new ArrayList<>();
+        long size = 0, alignment = 1;
+        for (MemoryLayout field : fields) {
+            long padding = -size & (field.byteAlignment() - 1);
+            if (padding != 0) {
+                members.add(MemoryLayout.paddingLayout(padding));
+            }
+            members.add(field);
+            size += padding + field.byteSize();
+            alignment = Math.max(alignment, field.byteAlignment());
+        }
+        long padding = -size & (alignment - 1);
+        if (padding != 0) {
+            members.add(MemoryLayout.paddingLayout(padding));
+        }
+        return MemoryLayout.structLayout(members.toArray(MemoryLayout[]::new)).withName(name);
+    }
+
+    private static MemorySegment address(Pointer pointer) {
+        return pointer == null ? MemorySegment.NULL : MemorySegment.ofAddress(Pointer.nativeValue(pointer));
+    }
+
+    private static MemorySegment address(PointerType pointer) {
+        return pointer == null ? MemorySegment.NULL : address(pointer.getPointer());
+    }
+
+    private static MemorySegment address(SDL_Rect rect) {
+        if (rect == null) {
+            return MemorySegment.NULL;
+        }
+        MemorySegment segment = address(rect.getPointer()).reinterpret(SDL_RECT.byteSize());
+        RECT_X.set(segment, 0L, rect.x);
+        RECT_Y.set(segment, 0L, rect.y);
+        RECT_W.set(segment, 0L, rect.w);
+        RECT_H.set(segment, 0L, rect.h);
+        return segment;
+    }
+
+    private static MemorySegment address(IntByReference ref) {
+        return ref == null ? MemorySegment.NULL : address(ref.getPointer());
+    }
+
+    private static RuntimeException unchecked(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException)t;
+        }
+        if (t instanceof Error) {
+            throw (Error)t;
+        }
+        return new RuntimeException(t);
+    }
+
+    @Override
+    public void SDL_PumpEvents() {
+        try {
+            Handles.SDL_PumpEvents.invokeExact();
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_PeepEvents(Pointer events, int numevents, int action, int minType, int maxType) {
+        try {
+            return (int)Handles.SDL_PeepEvents.invokeExact(address(events), numevents, action, minType, maxType);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_UpdateWindowSurface(SDL_Window window) {
+        try {
+            return (int)Handles.SDL_UpdateWindowSurface.invokeExact(address(window));
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_UpdateWindowSurfaceRects(SDL_Window window, Pointer rects, int numrects) {
+        try {
+            return (int)Handles.SDL_UpdateWindowSurfaceRects.invokeExact(address(window), address(rects), numrects);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_UpdateTexture(SDL_Texture texture, SDL_Rect rect, Pointer pixels, int pitch) {
+        try {
+            return (int)Handles.SDL_UpdateTexture.invokeExact(address(texture), address(rect), address(pixels), pitch);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_UpdateTexture(SDL_Texture texture, Pointer rect, Pointer pixels, int pitch) {
+        try {
+            return (int)Handles.SDL_UpdateTexture.invokeExact(address(texture), address(rect), address(pixels), pitch);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_LockTexture(SDL_Texture texture, SDL_Rect rect, PointerByReference pixels, IntByReference pitch) {
+        try {
+            return (int)Handles.SDL_LockTexture.invokeExact(address(texture), address(rect), address(pixels), address(pitch));
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public void SDL_UnlockTexture(SDL_Texture texture) {
+        try {
+            Handles.SDL_UnlockTexture.invokeExact(address(texture));
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_RenderCopy(SDL_Renderer renderer, SDL_Texture texture, SDL_Rect srcrect, SDL_Rect dstrect) {
+        try {
+            return (int)Handles.SDL_RenderCopy.invokeExact(
+                address(renderer), address(texture), address(srcrect), address(dstrect)
+            );
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public void SDL_RenderPresent(SDL_Renderer renderer) {
+        try {
+            Handles.SDL_RenderPresent.invokeExact(address(renderer));
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_UpperBlit(Pointer src, Pointer srcrect, Pointer dst, Pointer dstrect) {
+        try {
+            return (int)Handles.SDL_UpperBlit.invokeExact(address(src), address(srcrect), address(dst), address(dstrect));
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_LowerBlit(Pointer src, Pointer srcrect, Pointer dst, Pointer dstrect) {
+        try {
+            return (int)Handles.SDL_LowerBlit.invokeExact(address(src), address(srcrect), address(dst), address(dstrect));
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_UpperBlitScaled(Pointer src, Pointer srcrect, Pointer dst, Pointer dstrect) {
+        try {
+            return (int)Handles.SDL_UpperBlitScaled.invokeExact(address(src), address(srcrect), address(dst), address(dstrect));
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_LockSurface(Pointer surface) {
+        try {
+            return (int)Handles.SDL_LockSurface.invokeExact(address(surface));
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public void SDL_UnlockSurface(Pointer surface) {
+        try {
+            Handles.SDL_UnlockSurface.invokeExact(address(surface));
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_GetTicks() {
+        try {
+            return (int)Handles.SDL_GetTicks.invokeExact();
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public long SDL_GetPerformanceCounter() {
+        try {
+            return (long)Handles.SDL_GetPerformanceCounter.invokeExact();
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public void SDL_Delay(int ms) {
+        try {
+            Handles.SDL_Delay.invokeExact(ms);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_GetMouseState(IntByReference x, IntByReference y) {
+        try {
+            return (int)Handles.SDL_GetMouseState.invokeExact(address(x), address(y));
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    @Override
+    public int SDL_RenderCopyEx(SDL_Renderer renderer, SDL_Texture texture, Pointer srcrect, Pointer dstrect, double angle, Pointer center, int flip) {
+        try {
+            return (int)Handles.SDL_RenderCopyEx.invokeExact(
+                address(renderer), address(texture), address(srcrect), address(dstrect), angle, address(center), flip
+            );
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+}
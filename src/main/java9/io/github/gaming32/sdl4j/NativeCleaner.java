@@ -0,0 +1,31 @@
+package io.github.gaming32.sdl4j;
+
+import java.lang.ref.Cleaner;
+
+/**
+ * <p>Runs a cleanup action once an object becomes phantom reachable, or earlier if asked to.</p>
+ *
+ * <p>This is the Java 9 version, a thin wrapper around {@link Cleaner}. The action must not refer to the
+ * object it cleans up after, or the object will never become phantom reachable.</p>
+ */
+final class NativeCleaner {
+    interface Cleanable {
+        /**
+         * Unregister and run the action, if it hasn't run already.
+         */
+        void clean();
+    }
+
+    private static final Cleaner CLEANER = Cleaner.create(r -> {
+        Thread thread = new Thread(r, "SDL4J Cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private NativeCleaner() {
+    }
+
+    static Cleanable register(Object obj, Runnable action) {
+        return CLEANER.register(obj, action)::clean;
+    }
+}
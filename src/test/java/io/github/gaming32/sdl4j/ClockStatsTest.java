@@ -0,0 +1,99 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ClockStatsTest {
+    private static final double DELTA = 1e-9;
+
+    // With a frequency of 1000, a tick is a millisecond
+    private static Clock clock(int statsWindow, long... frameTimes) {
+        Clock clock = new Clock(statsWindow, 1000);
+        for (long time : frameTimes) {
+            clock.record(time);
+        }
+        return clock;
+    }
+
+    @Test
+    public void emptyIsZero() {
+        Clock clock = clock(8);
+        assertEquals(0, clock.getAverageFrameTime(), DELTA);
+        assertEquals(0, clock.getFrameTimePercentile(50), DELTA);
+        assertEquals(0, clock.getMaxFrameTime(), DELTA);
+        assertEquals(0, clock.getFps(), DELTA);
+    }
+
+    @Test
+    public void partiallyFilled() {
+        // The zeroes in the rest of the window mustn't count
+        Clock clock = clock(8, 20, 10, 30);
+        assertEquals(20, clock.getAverageFrameTime(), DELTA);
+        assertEquals(30, clock.getMaxFrameTime(), DELTA);
+        assertEquals(10, clock.getFrameTimePercentile(0), DELTA);
+        assertEquals(10, clock.getFrameTimePercentile(33), DELTA);
+        assertEquals(20, clock.getFrameTimePercentile(50), DELTA);
+        assertEquals(30, clock.getFrameTimePercentile(95), DELTA);
+        assertEquals(30, clock.getFrameTimePercentile(100), DELTA);
+        assertEquals(50, clock.getFps(), DELTA);
+    }
+
+    @Test
+    public void wrapsAround() {
+        // 1 and 2 have been pushed out by 5 and 6
+        Clock clock = clock(4, 1, 2, 3, 4, 5, 6);
+        assertEquals(4.5, clock.getAverageFrameTime(), DELTA);
+        assertEquals(6, clock.getMaxFrameTime(), DELTA);
+        assertEquals(3, clock.getFrameTimePercentile(0), DELTA);
+        assertEquals(4, clock.getFrameTimePercentile(50), DELTA);
+        assertEquals(5, clock.getFrameTimePercentile(75), DELTA);
+        assertEquals(6, clock.getFrameTimePercentile(99), DELTA);
+        assertEquals(4 * 1000.0 / 18, clock.getFps(), DELTA);
+    }
+
+    @Test
+    public void fpsUsesTheLatestFrames() {
+        Clock clock = clock(16);
+        for (int i = 0; i < 5; i++) {
+            clock.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            clock.record(10);
+        }
+        assertEquals(100, clock.getFps(), DELTA);
+        // Past the end of the window, the last 10 frames wrap around to its start
+        for (int i = 0; i < 3; i++) {
+            clock.record(40);
+        }
+        assertEquals(10 * 1000.0 / 190, clock.getFps(), DELTA);
+        assertEquals((3 * 100 + 10 * 10 + 3 * 40) / 16.0, clock.getAverageFrameTime(), DELTA);
+    }
+
+    @Test
+    public void percentileFollowsNewFrames() {
+        Clock clock = clock(4, 10, 20, 30, 40);
+        assertEquals(40, clock.getP99FrameTime(), DELTA);
+        assertEquals(10, clock.getFrameTimePercentile(0), DELTA);
+        clock.record(5);
+        assertEquals(20, clock.getFrameTimePercentile(50), DELTA);
+        assertEquals(5, clock.getFrameTimePercentile(0), DELTA);
+    }
+
+    @Test
+    public void resetForgetsFrames() {
+        Clock clock = clock(4, 1, 2, 3, 4, 5);
+        clock.resetStats();
+        assertEquals(0, clock.getAverageFrameTime(), DELTA);
+        assertEquals(0, clock.getFps(), DELTA);
+        clock.record(8);
+        assertEquals(8, clock.getAverageFrameTime(), DELTA);
+        assertEquals(8, clock.getFrameTimePercentile(50), DELTA);
+        assertEquals(125, clock.getFps(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPercentilesOutOfRange() {
+        clock(4, 1).getFrameTimePercentile(101);
+    }
+}
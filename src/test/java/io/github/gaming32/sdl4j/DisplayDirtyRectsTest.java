@@ -0,0 +1,60 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class DisplayDirtyRectsTest {
+    private static final int WIDTH = 100, HEIGHT = 100;
+
+    private static int[] merge(int... rects) {
+        int[] merged = new int[rects.length];
+        int n = Display.mergeDirtyRects(rects, rects.length / 4, WIDTH, HEIGHT, merged);
+        return Arrays.copyOf(merged, n * 4);
+    }
+
+    @Test
+    public void clipsToScreen() {
+        assertArrayEquals(new int[] {0, 0, 5, 5}, merge(-5, -5, 10, 10));
+        assertArrayEquals(new int[] {90, 95, 10, 5}, merge(90, 95, 20, 20));
+    }
+
+    @Test
+    public void clipsWithoutOverflow() {
+        assertArrayEquals(new int[] {10, 10, 90, 90}, merge(10, 10, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void dropsEmptyAndOffscreen() {
+        assertEquals(0, merge(10, 10, 0, 5, 10, 10, 5, -1, 100, 0, 10, 10, -20, 50, 20, 10).length);
+    }
+
+    @Test
+    public void keepsSeparateRects() {
+        // Touching edges don't count as overlapping
+        assertArrayEquals(new int[] {0, 0, 10, 10, 10, 0, 10, 10, 50, 50, 5, 5}, merge(0, 0, 10, 10, 10, 0, 10, 10, 50, 50, 5, 5));
+    }
+
+    @Test
+    public void mergesOverlapping() {
+        assertArrayEquals(new int[] {0, 0, 15, 20}, merge(0, 0, 10, 10, 5, 5, 10, 15));
+    }
+
+    @Test
+    public void mergesEverythingABridgeTouches() {
+        assertArrayEquals(new int[] {0, 0, 30, 10}, merge(0, 0, 10, 10, 20, 0, 10, 10, 5, 5, 20, 2));
+    }
+
+    @Test
+    public void mergesWhatTheGrownRectReaches() {
+        // The last rect bridges the first two, and the box they make then covers the one placed before them
+        // all, which none of them overlaps on its own
+        assertArrayEquals(
+            new int[] {0, 0, 30, 11},
+            merge(12, 8, 3, 3, 0, 0, 10, 10, 20, 0, 10, 10, 5, 5, 20, 2)
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.gaming32.sdl4j;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Common;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Key;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Motion;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_KeyboardEvent;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Keysym;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_MouseMotionEvent;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+
+/**
+ * Compares the per-event cost of reading events through JNA's reflective {@code Structure} accessors
+ * against reading them at the precomputed {@link LowLevel.EventLayout} offsets. Doesn't need SDL itself.
+ */
+public class EventAccessBenchmark {
+    private static final int EVENTS = 128;
+    // Building an SDL_Event wrapper costs on the order of a millisecond, so the reflective path gets far fewer rounds
+    private static final int REFLECTIVE_ROUNDS = 2;
+    private static final int OFFSET_ROUNDS = 20000;
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        Memory buffer = new Memory((long)EVENTS * SDL_Event.SIZE);
+        buffer.clear();
+        for (int i = 0; i < EVENTS; i++) {
+            long offset = (long)i * SDL_Event.SIZE;
+            if (i % 2 == 0) {
+                buffer.setInt(offset + Common.TYPE, SDL_EventType.MOUSEMOTION);
+                buffer.setInt(offset + Motion.X, i);
+                buffer.setInt(offset + Motion.Y, -i);
+                buffer.setInt(offset + Motion.XREL, 1);
+                buffer.setInt(offset + Motion.YREL, -1);
+            } else {
+                buffer.setInt(offset + Common.TYPE, SDL_EventType.KEYDOWN);
+                buffer.setInt(offset + Key.SCANCODE, 4);
+                buffer.setInt(offset + Key.SYM, 'a');
+            }
+        }
+
+        reflective(buffer);
+        offsets(buffer);
+        report("Structure.readField/getProperValue", reflective(buffer), REFLECTIVE_ROUNDS);
+        report("EventLayout offsets", offsets(buffer), OFFSET_ROUNDS);
+    }
+
+    private static void report(String name, long nanos, int rounds) {
+        System.out.printf("%-36s %12.1f ns/event%n", name, (double)nanos / ((long)EVENTS * rounds));
+    }
+
+    private static long reflective(Memory buffer) {
+        long start = System.nanoTime();
+        for (int round = 0; round < REFLECTIVE_ROUNDS; round++) {
+            for (int i = 0; i < EVENTS; i++) {
+                SDL_Event event = new SDL_Event(buffer.share((long)i * SDL_Event.SIZE, SDL_Event.SIZE));
+                event.read();
+                if (event.getType() == SDL_EventType.MOUSEMOTION) {
+                    SDL_MouseMotionEvent motion = event.getProperValue(SDL_MouseMotionEvent.class);
+                    sink += motion.x + motion.y + motion.xrel + motion.yrel;
+                } else {
+                    SDL_Keysym keysym = (SDL_Keysym)event.getProperValue(SDL_KeyboardEvent.class).readField("keysym");
+                    sink += keysym.scancode + keysym.sym + keysym.mod;
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long offsets(Pointer buffer) {
+        long start = System.nanoTime();
+        for (int round = 0; round < OFFSET_ROUNDS; round++) {
+            for (int i = 0; i < EVENTS; i++) {
+                long offset = (long)i * SDL_Event.SIZE;
+                if (buffer.getInt(offset + Common.TYPE) == SDL_EventType.MOUSEMOTION) {
+                    sink += buffer.getInt(offset + Motion.X) + buffer.getInt(offset + Motion.Y) +
+                        buffer.getInt(offset + Motion.XREL) + buffer.getInt(offset + Motion.YREL);
+                } else {
+                    sink += buffer.getInt(offset + Key.SCANCODE) + buffer.getInt(offset + Key.SYM) +
+                        buffer.getShort(offset + Key.MOD);
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.sun.jna.Memory;
+
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Common;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Motion;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Window;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+import io.github.gaming32.sdl4j.sdl_enums.SDL4J_EventCode;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_WindowEventID;
+
+public class EventCoalescerTest {
+    private static final int SIZE = SDL_Event.SIZE;
+
+    private final Memory events = new Memory(16 * SIZE);
+    private int count;
+
+    public EventCoalescerTest() {
+        events.clear();
+    }
+
+    private long next(int type, int timestamp) {
+        long offset = (long)count++ * SIZE;
+        events.setInt(offset + Common.TYPE, type);
+        events.setInt(offset + Common.TIMESTAMP, timestamp);
+        return offset;
+    }
+
+    private void motion(int timestamp, int windowId, int which, int x, int y, int xrel, int yrel) {
+        long offset = next(SDL_EventType.MOUSEMOTION, timestamp);
+        events.setInt(offset + Motion.WINDOW_ID, windowId);
+        events.setInt(offset + Motion.WHICH, which);
+        events.setInt(offset + Motion.X, x);
+        events.setInt(offset + Motion.Y, y);
+        events.setInt(offset + Motion.XREL, xrel);
+        events.setInt(offset + Motion.YREL, yrel);
+    }
+
+    private void window(int type, int eventId, int timestamp, int windowId, int data1, int data2) {
+        long offset = next(type, timestamp);
+        events.setInt(offset + Window.WINDOW_ID, windowId);
+        events.setByte(offset + Window.EVENT, (byte)eventId);
+        events.setInt(offset + Window.DATA1, data1);
+        events.setInt(offset + Window.DATA2, data2);
+    }
+
+    private void windowEvent(int eventId, int timestamp, int windowId, int data1, int data2) {
+        window(SDL_EventType.WINDOWEVENT, eventId, timestamp, windowId, data1, data2);
+    }
+
+    private int coalesce() {
+        return EventCoalescer.coalesce(events, count);
+    }
+
+    private int getInt(int index, int field) {
+        return events.getInt((long)index * SIZE + field);
+    }
+
+    @Test
+    public void mergesMotion() {
+        motion(1, 1, 0, 10, 10, 1, 2);
+        motion(2, 1, 0, 13, 15, 3, 5);
+        motion(3, 1, 0, 20, 11, 7, -4);
+        assertEquals(1, coalesce());
+        assertEquals(3, getInt(0, Common.TIMESTAMP));
+        assertEquals(20, getInt(0, Motion.X));
+        assertEquals(11, getInt(0, Motion.Y));
+        assertEquals(11, getInt(0, Motion.XREL));
+        assertEquals(3, getInt(0, Motion.YREL));
+    }
+
+    @Test
+    public void mergesMotionPerMouse() {
+        motion(1, 1, 0, 10, 10, 1, 1);
+        motion(2, 1, 1, 50, 50, 2, 2);
+        motion(3, 1, 0, 11, 11, 1, 1);
+        motion(4, 1, 1, 52, 52, 2, 2);
+        assertEquals(2, coalesce());
+        assertEquals(0, getInt(0, Motion.WHICH));
+        assertEquals(2, getInt(0, Motion.XREL));
+        assertEquals(1, getInt(1, Motion.WHICH));
+        assertEquals(4, getInt(1, Motion.XREL));
+    }
+
+    @Test
+    public void otherEventsSplitMotion() {
+        motion(1, 1, 0, 10, 10, 1, 1);
+        next(SDL_EventType.MOUSEBUTTONDOWN, 2);
+        motion(3, 1, 0, 11, 11, 1, 1);
+        motion(4, 1, 0, 12, 12, 1, 1);
+        assertEquals(3, coalesce());
+        assertEquals(SDL_EventType.MOUSEMOTION, getInt(0, Common.TYPE));
+        assertEquals(1, getInt(0, Motion.XREL));
+        assertEquals(SDL_EventType.MOUSEBUTTONDOWN, getInt(1, Common.TYPE));
+        assertEquals(SDL_EventType.MOUSEMOTION, getInt(2, Common.TYPE));
+        assertEquals(2, getInt(2, Motion.XREL));
+        assertEquals(4, getInt(2, Common.TIMESTAMP));
+    }
+
+    @Test
+    public void mergesWindowEvents() {
+        windowEvent(SDL_WindowEventID.RESIZED, 1, 1, 100, 100);
+        windowEvent(SDL_WindowEventID.RESIZED, 2, 1, 120, 110);
+        windowEvent(SDL_WindowEventID.RESIZED, 3, 1, 140, 130);
+        assertEquals(1, coalesce());
+        assertEquals(SDL_EventType.WINDOWEVENT, getInt(0, Common.TYPE));
+        assertEquals(3, getInt(0, Common.TIMESTAMP));
+        assertEquals(140, getInt(0, Window.DATA1));
+        assertEquals(130, getInt(0, Window.DATA2));
+    }
+
+    @Test
+    public void keepsDifferentWindowEvents() {
+        windowEvent(SDL_WindowEventID.RESIZED, 1, 1, 100, 100);
+        windowEvent(SDL_WindowEventID.MOVED, 2, 1, 5, 5);
+        windowEvent(SDL_WindowEventID.MOVED, 3, 2, 6, 6);
+        windowEvent(SDL_WindowEventID.EXPOSED, 4, 2, 0, 0);
+        windowEvent(SDL_WindowEventID.EXPOSED, 5, 2, 0, 0);
+        assertEquals(5, coalesce());
+    }
+
+    @Test
+    public void mergesTranslatedWindowEvents() {
+        window(SDL4J_EventCode.WINDOWMOVED, SDL_WindowEventID.MOVED, 1, 1, 5, 5);
+        windowEvent(SDL_WindowEventID.MOVED, 2, 1, 8, 9);
+        window(SDL4J_EventCode.WINDOWSIZECHANGED, SDL_WindowEventID.SIZE_CHANGED, 3, 1, 100, 100);
+        window(SDL4J_EventCode.WINDOWSIZECHANGED, SDL_WindowEventID.SIZE_CHANGED, 4, 1, 200, 150);
+        assertEquals(2, coalesce());
+        assertEquals(SDL4J_EventCode.WINDOWMOVED, getInt(0, Common.TYPE));
+        assertEquals(8, getInt(0, Window.DATA1));
+        assertEquals(9, getInt(0, Window.DATA2));
+        assertEquals(SDL4J_EventCode.WINDOWSIZECHANGED, getInt(1, Common.TYPE));
+        assertEquals(200, getInt(1, Window.DATA1));
+        assertEquals(4, getInt(1, Common.TIMESTAMP));
+    }
+}
@@ -0,0 +1,172 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.jna.Memory;
+
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Common;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Key;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Motion;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Text;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Wheel;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Window;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_WindowEventID;
+
+public class EventReplayTest {
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    private static List<Event> poll() {
+        return Event.get(null, false, null);
+    }
+
+    private static void push(Memory event) {
+        if (LowLevel.getInstance().SDL_PushEvent(event) < 0) {
+            SDLException.throwNew();
+        }
+        event.clear();
+    }
+
+    private static void pushSession() {
+        Memory event = new Memory(SDL_Event.SIZE);
+        event.clear();
+
+        event.setInt(Common.TYPE, SDL_EventType.MOUSEMOTION);
+        event.setInt(Motion.X, 10);
+        event.setInt(Motion.Y, 20);
+        event.setInt(Motion.XREL, 3);
+        event.setInt(Motion.YREL, -4);
+        push(event);
+
+        event.setInt(Common.TYPE, SDL_EventType.KEYDOWN);
+        event.setByte(Key.STATE, SDL2Library.SDL_PRESSED);
+        event.setInt(Key.SCANCODE, 4);
+        event.setInt(Key.SYM, 'a');
+        push(event);
+
+        // Turned into wheel button clicks by the event filter
+        event.setInt(Common.TYPE, SDL_EventType.MOUSEWHEEL);
+        event.setInt(Wheel.Y, 2);
+        push(event);
+
+        // Turned into a VIDEORESIZE by the event filter
+        event.setInt(Common.TYPE, SDL_EventType.WINDOWEVENT);
+        event.setByte(Window.EVENT, (byte)SDL_WindowEventID.RESIZED);
+        event.setInt(Window.DATA1, 32);
+        event.setInt(Window.DATA2, 48);
+        push(event);
+    }
+
+    private static void pushTyping() {
+        Memory event = new Memory(SDL_Event.SIZE);
+        event.clear();
+
+        event.setInt(Common.TYPE, SDL_EventType.KEYDOWN);
+        event.setByte(Key.STATE, SDL2Library.SDL_PRESSED);
+        event.setInt(Key.SCANCODE, 8);
+        event.setInt(Key.SYM, 'e');
+        push(event);
+
+        // Not what the key's symbol would give, so the unicode of both key events must come from here
+        event.setInt(Common.TYPE, SDL_EventType.TEXTINPUT);
+        event.setString(Text.TEXT, "\u00e9", "UTF-8");
+        push(event);
+
+        event.setInt(Common.TYPE, SDL_EventType.KEYUP);
+        event.setInt(Key.SCANCODE, 8);
+        event.setInt(Key.SYM, 'e');
+        push(event);
+    }
+
+    private static List<String> describe(List<Event> events) {
+        List<String> result = new ArrayList<>(events.size());
+        for (Event event : events) {
+            result.add(event.toString());
+        }
+        return result;
+    }
+
+    private static List<Event> record(Path file, Runnable session) throws IOException {
+        poll();
+        try (EventRecorder recorder = new EventRecorder(file)) {
+            Event.setRecorder(recorder);
+            session.run();
+            List<Event> recorded = poll();
+            assertEquals(recorded.size(), recorder.getRecordedCount());
+            return recorded;
+        } finally {
+            Event.setRecorder(null);
+        }
+    }
+
+    private static List<Event> replay(Path file) throws IOException {
+        List<Event> replayed = new ArrayList<>();
+        try (EventReplayer replayer = new EventReplayer(file, false)) {
+            while (!replayer.isFinished()) {
+                replayer.replay();
+                replayed.addAll(poll());
+            }
+            assertEquals(replayed.size(), replayer.getReplayedCount());
+        }
+        return replayed;
+    }
+
+    @Test
+    public void replayMatchesRecording() throws IOException {
+        Path file = Files.createTempFile("sdl4j-events", ".bin");
+        try {
+            List<Event> recorded = record(file, EventReplayTest::pushSession);
+            assertTrue("Nothing was recorded", recorded.size() > 4);
+            assertEquals(describe(recorded), describe(replay(file)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void replayKeepsTypedText() throws IOException {
+        Path file = Files.createTempFile("sdl4j-events", ".bin");
+        try {
+            List<Event> recorded = record(file, EventReplayTest::pushTyping);
+            assertEquals(3, recorded.size());
+            assertEquals("\u00e9", recorded.get(0).getData().get("unicode"));
+            assertEquals("\u00e9", recorded.get(2).getData().get("unicode"));
+            assertEquals(describe(recorded), describe(replay(file)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void recordingReplacesTheFile() throws IOException {
+        Path file = Files.createTempFile("sdl4j-events", ".bin");
+        try {
+            record(file, EventReplayTest::pushSession);
+            List<Event> recorded = record(file, EventReplayTest::pushTyping);
+            assertEquals(describe(recorded), describe(replay(file)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+
+public class EventTypeRangesTest {
+    private static final int FIRST = SDL_EventType.FIRSTEVENT;
+    private static final int LAST = SDL_EventType.LASTEVENT;
+
+    @Test
+    public void coalescesConsecutiveTypes() {
+        assertArrayEquals(
+            new int[] {SDL_EventType.QUIT, SDL_EventType.QUIT, SDL_EventType.KEYDOWN, SDL_EventType.TEXTEDITING},
+            Event.typeRanges(new int[] {SDL_EventType.TEXTEDITING, SDL_EventType.KEYDOWN, SDL_EventType.QUIT, SDL_EventType.KEYUP})
+        );
+    }
+
+    @Test
+    public void ignoresDuplicates() {
+        assertArrayEquals(new int[] {5, 6}, Event.typeRanges(new int[] {6, 5, 6, 5}));
+    }
+
+    @Test
+    public void emptyTypes() {
+        assertArrayEquals(new int[0], Event.typeRanges(new int[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidType() {
+        Event.typeRanges(new int[] {LAST + 1});
+    }
+
+    @Test
+    public void complementOfNothingIsEverything() {
+        assertArrayEquals(new int[] {FIRST, LAST}, Event.complementRanges(new int[0]));
+    }
+
+    @Test
+    public void complementInTheMiddle() {
+        assertArrayEquals(
+            new int[] {FIRST, 9, 11, 19, 31, LAST},
+            Event.complementRanges(Event.typeRanges(new int[] {10, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30}))
+        );
+    }
+
+    @Test
+    public void complementAtTheEnds() {
+        assertArrayEquals(new int[] {1, LAST - 1}, Event.complementRanges(Event.typeRanges(new int[] {FIRST, LAST})));
+        assertArrayEquals(new int[0], Event.complementRanges(new int[] {FIRST, LAST}));
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.gaming32.sdl4j;
+
+import com.sun.jna.Memory;
+import com.sun.jna.ptr.IntByReference;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2FrameLibrary;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_eventaction;
+
+/**
+ * Compares the per-call latency of the interface-mapped {@link SDL2Library} against {@link DirectFrameLibrary}
+ * for a few of the per-frame functions. Only initializes SDL's event subsystem, so it doesn't need a display.
+ */
+public class FrameBackendBenchmark {
+    private static final int CALLS = 200_000;
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        SDL2Library lib = LowLevel.getInstance();
+        if (lib.SDL_Init(SDL2Library.SDL_INIT_EVENTS) < 0) {
+            SDLException.throwNew();
+        }
+        try {
+            SDL2FrameLibrary jna = lib;
+            SDL2FrameLibrary direct = DirectFrameLibrary.load();
+            Memory events = new Memory(16L * SDL_Event.SIZE);
+            IntByReference x = new IntByReference(), y = new IntByReference();
+
+            for (int warmup = 0; warmup < 3; warmup++) {
+                run(jna, events, x, y);
+                run(direct, events, x, y);
+            }
+            report("jna", run(jna, events, x, y));
+            report("direct", run(direct, events, x, y));
+        } finally {
+            lib.SDL_Quit();
+        }
+    }
+
+    private static void report(String name, long[] nanos) {
+        System.out.printf(
+            "%-8s SDL_GetTicks %7.1f ns   SDL_PeepEvents %7.1f ns   SDL_GetMouseState %7.1f ns%n",
+            name, (double)nanos[0] / CALLS, (double)nanos[1] / CALLS, (double)nanos[2] / CALLS
+        );
+    }
+
+    private static long[] run(SDL2FrameLibrary frame, Memory events, IntByReference x, IntByReference y) {
+        long[] result = new long[3];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            sink += frame.SDL_GetTicks();
+        }
+        result[0] = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            sink += frame.SDL_PeepEvents(events, 16, SDL_eventaction.PEEKEVENT, SDL_EventType.FIRSTEVENT, SDL_EventType.LASTEVENT);
+        }
+        result[1] = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            sink += frame.SDL_GetMouseState(x, y);
+        }
+        result[2] = System.nanoTime() - start;
+
+        return result;
+    }
+}
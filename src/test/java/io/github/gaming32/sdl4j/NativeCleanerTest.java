@@ -0,0 +1,48 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+
+public class NativeCleanerTest {
+    /**
+     * Collect garbage until {@code condition} holds, giving up after a few seconds.
+     */
+    static boolean gcUntil(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return condition.getAsBoolean();
+    }
+
+    @Test
+    public void runsOnceUnreachable() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        NativeCleaner.register(new Object(), runs::incrementAndGet);
+        assertTrue("Cleanup never ran", gcUntil(() -> runs.get() > 0));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void cleanRunsOnlyOnce() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        Object obj = new Object();
+        NativeCleaner.Cleanable cleanable = NativeCleaner.register(obj, runs::incrementAndGet);
+        cleanable.clean();
+        assertEquals(1, runs.get());
+        cleanable.clean();
+        assertEquals(1, runs.get());
+
+        obj = null;
+        // Give the cleaner a chance to run the action again, which it mustn't
+        AtomicInteger canary = new AtomicInteger();
+        NativeCleaner.register(new Object(), canary::incrementAndGet);
+        assertTrue(gcUntil(() -> canary.get() > 0));
+        assertEquals(1, runs.get());
+    }
+}
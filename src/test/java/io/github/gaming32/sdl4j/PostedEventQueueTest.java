@@ -0,0 +1,129 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.sun.jna.Pointer;
+
+public class PostedEventQueueTest {
+    // A NOEVENT that doesn't need SDL to create
+    private static Event event() {
+        return new Event((Pointer)null, 0) {
+        };
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCapacityNotPowerOfTwo() {
+        new PostedEventQueue(12);
+    }
+
+    @Test
+    public void drainsInOrder() {
+        PostedEventQueue queue = new PostedEventQueue(8);
+        Event[] events = new Event[5];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = event();
+            assertTrue(queue.offer(events[i]));
+        }
+        List<Event> out = new ArrayList<>();
+        assertEquals(5, queue.drainTo(out));
+        for (int i = 0; i < events.length; i++) {
+            assertSame(events[i], out.get(i));
+        }
+        assertEquals(0, queue.drainTo(out));
+    }
+
+    @Test
+    public void fullUntilDrained() {
+        PostedEventQueue queue = new PostedEventQueue(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(event()));
+        }
+        assertFalse(queue.offer(event()));
+        List<Event> out = new ArrayList<>();
+        assertEquals(4, queue.drainTo(out));
+        assertTrue(queue.offer(event()));
+    }
+
+    @Test
+    public void wrapsAround() {
+        PostedEventQueue queue = new PostedEventQueue(4);
+        List<Event> out = new ArrayList<>();
+        for (int lap = 0; lap < 10; lap++) {
+            Event first = event(), second = event(), third = event();
+            assertTrue(queue.offer(first));
+            assertTrue(queue.offer(second));
+            assertTrue(queue.offer(third));
+            out.clear();
+            assertEquals(3, queue.drainTo(out));
+            assertSame(first, out.get(0));
+            assertSame(second, out.get(1));
+            assertSame(third, out.get(2));
+        }
+    }
+
+    @Test
+    public void concurrentProducers() throws InterruptedException {
+        int producers = 4, perProducer = 20_000;
+        PostedEventQueue queue = new PostedEventQueue(256);
+        CountDownLatch start = new CountDownLatch(1);
+        Event[][] posted = new Event[producers][perProducer];
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            Event[] mine = posted[p];
+            for (int i = 0; i < perProducer; i++) {
+                mine[i] = event();
+            }
+            threads[p] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (Event event : mine) {
+                    while (!queue.offer(event)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        start.countDown();
+        List<Event> out = new ArrayList<>();
+        while (out.size() < producers * perProducer) {
+            if (queue.drainTo(out) == 0) {
+                Thread.yield();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, queue.drainTo(out));
+
+        // Every event comes out exactly once, and each producer's events in the order it posted them
+        Map<Event, Integer> positions = new IdentityHashMap<>();
+        for (int i = 0; i < out.size(); i++) {
+            assertNull(positions.put(out.get(i), i));
+        }
+        for (Event[] mine : posted) {
+            int last = -1;
+            for (Event event : mine) {
+                int position = positions.get(event);
+                assertTrue(position > last);
+                last = position;
+            }
+        }
+    }
+}
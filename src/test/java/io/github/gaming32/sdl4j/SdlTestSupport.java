@@ -0,0 +1,38 @@
+package io.github.gaming32.sdl4j;
+
+import org.junit.Assume;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
+import io.github.gaming32.sdl4j.math.Vector2;
+
+/**
+ * Starts SDL4J headless under the {@code dummy} video driver, for tests that need a real SDL. Those tests
+ * are skipped where the SDL2 library can't be loaded.
+ */
+final class SdlTestSupport {
+    private static boolean initialized;
+
+    private SdlTestSupport() {
+    }
+
+    static void initDummyVideo() {
+        SDL2Library lib;
+        try {
+            lib = LowLevel.getInstance();
+        } catch (RuntimeException | LinkageError e) {
+            Assume.assumeNoException("SDL2 isn't available", e);
+            return;
+        }
+        lib.SDL_setenv("SDL_VIDEODRIVER", "dummy", true);
+        SDL4J.init();
+        initialized = true;
+        Display.setMode(new Vector2(64, 64));
+    }
+
+    static void quit() {
+        if (initialized) {
+            initialized = false;
+            SDL4J.quit();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SoftwareRendererTest {
+    private static final int BLACK = 0xff000000;
+    private static final int RED = 0xffff0000;
+    private static final int GREEN = 0xff00ff00;
+
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    private static Surface solid(int width, int height, int argb) {
+        Surface surface = new Surface(width, height);
+        SurfaceOps.fill(surface, SurfaceOps.mapRGB(surface, argb >>> 16 & 0xff, argb >>> 8 & 0xff, argb & 0xff));
+        return surface;
+    }
+
+    @Test
+    public void spriteBatchDrawsToSurface() {
+        Assume.assumeTrue("SDL_RenderGeometry needs SDL 2.0.18", Renderer.isGeometrySupported());
+        try (
+            Surface target = new Surface(16, 16);
+            Surface red = solid(4, 4, RED);
+            Surface green = solid(2, 2, GREEN);
+            Renderer renderer = new Renderer(target)
+        ) {
+            Texture redTexture = renderer.createTexture(red);
+            Texture greenTexture = renderer.createTexture(green);
+            renderer.setDrawColor(0, 0, 0, 0xff);
+            renderer.clear();
+
+            SpriteBatch batch = new SpriteBatch(renderer);
+            batch.draw(redTexture, 2, 3);
+            batch.draw(greenTexture, 12, 12);
+            batch.draw(redTexture, 8, 0, 2, 2);
+            assertEquals(3, batch.getQueuedCount());
+            // One SDL_RenderGeometry per texture
+            assertEquals(2, batch.flush());
+            assertEquals(0, batch.getQueuedCount());
+
+            int[] pixels = new int[16 * 16];
+            renderer.readPixels(null, pixels);
+            assertEquals(BLACK, pixels[0]);
+            assertEquals(RED, pixels[3 * 16 + 2]);
+            assertEquals(RED, pixels[6 * 16 + 5]);
+            assertEquals(BLACK, pixels[7 * 16 + 6]);
+            assertEquals(GREEN, pixels[13 * 16 + 13]);
+            assertEquals(RED, pixels[1 * 16 + 9]);
+            assertEquals(BLACK, pixels[2 * 16 + 10]);
+
+            int[] area = new int[2 * 2];
+            renderer.readPixels(new int[] {12, 12, 2, 2}, area);
+            for (int pixel : area) {
+                assertEquals(GREEN, pixel);
+            }
+        }
+    }
+}
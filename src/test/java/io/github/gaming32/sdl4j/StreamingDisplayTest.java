@@ -0,0 +1,60 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.jna.Pointer;
+
+import io.github.gaming32.sdl4j.LowLevel.SurfaceLayout;
+import io.github.gaming32.sdl4j.enums.DisplayFlags;
+import io.github.gaming32.sdl4j.math.Vector2;
+
+public class StreamingDisplayTest {
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    private static void assertFollowsLock(Surface screen) {
+        Pointer locked = Display.getLockedTexturePixels();
+        assertNotNull(locked);
+        // Both the native SDL_Surface and the view lock() hands out must see the new memory
+        assertEquals(locked, screen.surf.getPointer().getPointer(SurfaceLayout.PIXELS));
+        assertEquals(screen.getPitch(), screen.surf.getPointer().getInt(SurfaceLayout.PITCH));
+        screen.lockInts().put(0, 0xff00ff00);
+        screen.unlock();
+        assertEquals(0xff00ff00, locked.getInt(0));
+    }
+
+    @Test
+    public void screenFollowsTheLockAcrossFlips() {
+        Surface screen = Display.setMode(new Vector2(32, 24), DisplayFlags.SCALED | DisplayFlags.STREAMING);
+        assertTrue(Display.isStreaming());
+        assertFollowsLock(screen);
+        for (int i = 0; i < 2; i++) {
+            Display.flip();
+            assertFollowsLock(screen);
+        }
+    }
+
+    @Test
+    public void copiesWithoutTheFlag() {
+        Surface screen = Display.setMode(new Vector2(32, 24), DisplayFlags.SCALED);
+        assertFalse(Display.isStreaming());
+        Display.flip();
+        assertNull(Display.getLockedTexturePixels());
+        assertEquals(32, screen.getWidth());
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.IntBuffer;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.github.gaming32.sdl4j.sdl_enums.SDL_PixelFormatEnum;
+
+public class SurfaceBlitTest {
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    /**
+     * An opaque surface where every pixel is different: its position is in the red and green bytes.
+     */
+    static Surface pattern(int width, int height) {
+        Surface surface = new Surface(width, height);
+        IntBuffer pixels = surface.lockInts();
+        int stride = surface.getPitch() / 4;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels.put(y * stride + x, patternPixel(x, y));
+            }
+        }
+        surface.unlock();
+        return surface;
+    }
+
+    static int patternPixel(int x, int y) {
+        return 0xff000000 | (x + 1) << 16 | (y + 1) << 8;
+    }
+
+    static int pixel(Surface surface, int x, int y) {
+        int value = surface.lockInts().get(y * (surface.getPitch() / 4) + x);
+        surface.unlock();
+        return value;
+    }
+
+    /**
+     * Check that exactly {@code dirty} of {@code target} was drawn, with the part of the pattern that starts
+     * at ({@code sx}, {@code sy}).
+     */
+    static void assertDrawn(Surface target, int[] dirty, int sx, int sy) {
+        for (int y = 0; y < target.getHeight(); y++) {
+            for (int x = 0; x < target.getWidth(); x++) {
+                boolean inside = x >= dirty[0] && x < dirty[0] + dirty[2] && y >= dirty[1] && y < dirty[1] + dirty[3];
+                int expected = inside ? patternPixel(sx + x - dirty[0], sy + y - dirty[1]) : 0;
+                assertEquals("Pixel (" + x + ", " + y + ")", expected, pixel(target, x, y));
+            }
+        }
+    }
+
+    @Test
+    public void blitsInside() {
+        try (Surface target = new Surface(8, 8); Surface source = pattern(4, 3)) {
+            int[] dirty = new int[4];
+            assertTrue(target.blit(source, 2, 1, null, dirty));
+            assertArrayEquals(new int[] {2, 1, 4, 3}, dirty);
+            assertDrawn(target, dirty, 0, 0);
+        }
+    }
+
+    @Test
+    public void clipsTopLeft() {
+        try (Surface target = new Surface(8, 8); Surface source = pattern(4, 4)) {
+            int[] dirty = new int[4];
+            assertTrue(target.blit(source, -2, -3, null, dirty));
+            assertArrayEquals(new int[] {0, 0, 2, 1}, dirty);
+            assertDrawn(target, dirty, 2, 3);
+        }
+    }
+
+    @Test
+    public void clipsBottomRight() {
+        try (Surface target = new Surface(8, 8); Surface source = pattern(4, 4)) {
+            int[] dirty = new int[4];
+            assertTrue(target.blit(source, 6, 5, null, dirty));
+            assertArrayEquals(new int[] {6, 5, 2, 3}, dirty);
+            assertDrawn(target, dirty, 0, 0);
+        }
+    }
+
+    @Test
+    public void clipsAreaToSource() {
+        try (Surface target = new Surface(8, 8); Surface source = pattern(4, 4)) {
+            int[] dirty = new int[4];
+            // The area starts one pixel left of the source and runs past its bottom
+            assertTrue(target.blit(source, 1, 1, new int[] {-1, 2, 3, 5}, dirty));
+            assertArrayEquals(new int[] {2, 1, 2, 2}, dirty);
+            assertDrawn(target, dirty, 0, 2);
+        }
+    }
+
+    @Test
+    public void skipsOffscreen() {
+        try (Surface target = new Surface(8, 8); Surface source = pattern(4, 4)) {
+            int[] dirty = {-1, -1, -1, -1};
+            assertFalse(target.blit(source, 8, 0, null, dirty));
+            assertFalse(target.blit(source, -4, 2, null, dirty));
+            assertFalse(target.blit(source, 0, 0, new int[] {4, 0, 2, 2}, dirty));
+            assertArrayEquals(new int[] {-1, -1, -1, -1}, dirty);
+            assertDrawn(target, new int[4], 0, 0);
+        }
+    }
+
+    @Test
+    public void convertsFormats() {
+        try (Surface target = new Surface(4, 4); Surface source = new Surface(4, 4, SDL_PixelFormatEnum.RGB888)) {
+            SurfaceOps.fill(source, 0xff0000);
+            assertTrue(target.blit(source, 1, 1));
+            assertEquals(0xffff0000, pixel(target, 1, 1));
+            assertEquals(0, pixel(target, 0, 0));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsLockedSurfaces() {
+        try (Surface target = new Surface(4, 4); Surface source = pattern(2, 2)) {
+            source.lock();
+            target.blit(source, 0, 0);
+        }
+    }
+}
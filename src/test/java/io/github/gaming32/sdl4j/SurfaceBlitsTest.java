@@ -0,0 +1,98 @@
+package io.github.gaming32.sdl4j;
+
+import static io.github.gaming32.sdl4j.SurfaceBlitTest.pattern;
+import static io.github.gaming32.sdl4j.SurfaceBlitTest.patternPixel;
+import static io.github.gaming32.sdl4j.SurfaceBlitTest.pixel;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SurfaceBlitsTest {
+    // Four tiles of a 4x4 sheet: one inside, one off the left and top, one off the right, and one that
+    // misses the target
+    private static final int[] SRC_RECTS = {0, 0, 2, 2, 2, 0, 2, 2, 0, 2, 2, 2, 2, 2, 2, 2};
+    private static final int[] DST_POINTS = {3, 3, -1, -1, 7, 4, 8, 0};
+    private static final int[] DIRTY = {3, 3, 2, 2, 0, 0, 1, 1, 7, 4, 1, 2};
+
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    private static IntBuffer direct(int[] values) {
+        IntBuffer buffer = ByteBuffer.allocateDirect(values.length * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        buffer.put(values).flip();
+        return buffer;
+    }
+
+    private static void assertTiles(Surface target) {
+        assertEquals(patternPixel(0, 0), pixel(target, 3, 3));
+        assertEquals(patternPixel(1, 1), pixel(target, 4, 4));
+        // The second tile starts at (2, 0) and lost its first row and column
+        assertEquals(patternPixel(3, 1), pixel(target, 0, 0));
+        assertEquals(0, pixel(target, 1, 0));
+        assertEquals(patternPixel(0, 2), pixel(target, 7, 4));
+        assertEquals(patternPixel(0, 3), pixel(target, 7, 5));
+        assertEquals(0, pixel(target, 7, 3));
+    }
+
+    @Test
+    public void packsDirtyRectsOfWhatWasDrawn() {
+        try (Surface target = new Surface(8, 8); Surface sheet = pattern(4, 4)) {
+            int[] dirty = new int[16];
+            Arrays.fill(dirty, -1);
+            assertEquals(3, target.blits(sheet, SRC_RECTS, DST_POINTS, 4, dirty));
+            assertArrayEquals(DIRTY, Arrays.copyOf(dirty, 12));
+            assertArrayEquals(new int[] {-1, -1, -1, -1}, Arrays.copyOfRange(dirty, 12, 16));
+            assertTiles(target);
+        }
+    }
+
+    @Test
+    public void buffersMatchArrays() {
+        try (Surface target = new Surface(8, 8); Surface sheet = pattern(4, 4)) {
+            int[] dirty = new int[16];
+            assertEquals(3, target.blits(sheet, direct(SRC_RECTS), direct(DST_POINTS), 4, dirty));
+            assertArrayEquals(DIRTY, Arrays.copyOf(dirty, 12));
+            assertTiles(target);
+        }
+    }
+
+    @Test
+    public void manySourcesMatchOneAtATime() {
+        try (Surface target = new Surface(8, 8); Surface sheet = pattern(4, 4); Surface small = pattern(2, 2)) {
+            Surface[] sources = {sheet, small, sheet};
+            int[] positions = {6, 6, -1, 3, 2, 0};
+            int[] dirty = new int[12];
+            assertEquals(3, target.blits(sources, positions, null, 3, dirty));
+            assertArrayEquals(new int[] {6, 6, 2, 2, 0, 3, 1, 2, 2, 0, 4, 4}, dirty);
+            assertEquals(patternPixel(1, 0), pixel(target, 0, 3));
+
+            // With areas, a blit that misses leaves no gap in the dirty rects
+            int[] areas = {0, 0, 4, 4, 0, 0, 2, 2, 0, 0, 1, 1};
+            positions = new int[] {0, 0, 9, 9, 4, 4};
+            assertEquals(2, target.blits(sources, positions, areas, 3, dirty));
+            assertArrayEquals(new int[] {0, 0, 4, 4, 4, 4, 1, 1}, Arrays.copyOf(dirty, 8));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsShortArrays() {
+        try (Surface target = new Surface(8, 8); Surface sheet = pattern(4, 4)) {
+            target.blits(sheet, SRC_RECTS, DST_POINTS, 4, new int[12]);
+        }
+    }
+}
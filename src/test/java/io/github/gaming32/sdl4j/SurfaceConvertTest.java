@@ -0,0 +1,84 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.github.gaming32.sdl4j.sdl_enums.SDL_PixelFormatEnum;
+
+public class SurfaceConvertTest {
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    // Not the format of any display, so convert() always makes a copy
+    private static Surface source() {
+        return new Surface(8, 8, SDL_PixelFormatEnum.RGB565);
+    }
+
+    @Test
+    public void cachesUntilModified() {
+        try (Surface source = source()) {
+            Surface first = source.convert();
+            assertEquals(Display.getFormat(), first.getFormat());
+            assertSame(first, source.convert());
+
+            source.lock();
+            source.unlock();
+            Surface second = source.convert();
+            assertNotSame(first, second);
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void staleCopyStaysUsable() {
+        Surface copy;
+        try (Surface source = source()) {
+            copy = source.convert();
+            SurfaceOps.fill(source, 0);
+            source.convert().close();
+        }
+        // Neither a newer conversion nor closing the source frees a copy that was handed out
+        assertEquals(8, copy.getWidth());
+        copy.lock().putInt(0, 0x123456);
+        copy.unlock();
+        copy.close();
+    }
+
+    @Test
+    public void closedCopyIsReplaced() {
+        try (Surface source = source()) {
+            Surface first = source.convert();
+            first.close();
+            Surface second = source.convert();
+            assertNotSame(first, second);
+            assertEquals(8, second.getHeight());
+            second.close();
+        }
+    }
+
+    @Test
+    public void softwareRendererInvalidates() {
+        try (Surface source = source(); Renderer renderer = new Renderer(source)) {
+            Surface first = source.convert();
+            renderer.setDrawColor(0xff, 0, 0, 0xff);
+            renderer.clear();
+            Surface second = source.convert();
+            assertNotSame(first, second);
+            first.close();
+            second.close();
+        }
+    }
+}
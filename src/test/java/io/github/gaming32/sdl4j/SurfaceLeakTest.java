@@ -0,0 +1,61 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SurfaceLeakTest {
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    /**
+     * Wait until everything registered with the cleaner so far has been cleaned, as far as can be told: the
+     * cleaner handles references in the order they're enqueued, so wait for one registered afterwards.
+     */
+    private static void awaitCleaner() throws InterruptedException {
+        AtomicInteger canary = new AtomicInteger();
+        NativeCleaner.register(new Object(), canary::incrementAndGet);
+        assertTrue("Cleaner never ran", NativeCleanerTest.gcUntil(() -> canary.get() > 0));
+        // The canary may have been enqueued before the surfaces, so give them a little longer
+        System.gc();
+        Thread.sleep(200);
+    }
+
+    @Test
+    public void countsSurfacesThatWerentClosed() throws InterruptedException {
+        long before = Surface.getLeakedCount();
+        for (int i = 0; i < 3; i++) {
+            new Surface(4, 4);
+        }
+        assertTrue("Leaks weren't counted", NativeCleanerTest.gcUntil(() -> Surface.getLeakedCount() >= before + 3));
+        awaitCleaner();
+        assertEquals(before + 3, Surface.getLeakedCount());
+    }
+
+    @Test
+    public void closedSurfacesArentLeaks() throws InterruptedException {
+        long before = Surface.getLeakedCount();
+        for (int i = 0; i < 3; i++) {
+            new Surface(4, 4).close();
+        }
+        // Detached surfaces belong to someone else now
+        Surface detached = new Surface(4, 4);
+        Surface adopted = new Surface(detached.detach());
+        detached = null;
+        awaitCleaner();
+        assertEquals(before, Surface.getLeakedCount());
+        adopted.close();
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.github.gaming32.sdl4j.sdl_enums.SDL_PixelFormatEnum;
+
+public class SurfaceLockTest {
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    @Test
+    public void locksNest() {
+        try (Surface surface = new Surface(8, 4)) {
+            IntBuffer outer = surface.lockInts();
+            IntBuffer inner = surface.lockInts();
+            assertEquals(2, surface.getLockCount());
+            inner.put(3, 0x11223344);
+            assertEquals(0x11223344, outer.get(3));
+
+            surface.unlock();
+            assertTrue(surface.isLocked());
+            // Still locked, so the outer view is still good
+            outer.put(5, 0x55667788);
+            surface.unlock();
+            assertFalse(surface.isLocked());
+
+            IntBuffer again = surface.lockInts();
+            assertEquals(0x11223344, again.get(3));
+            assertEquals(0x55667788, again.get(5));
+            surface.unlock();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unlockWithoutLockFails() {
+        try (Surface surface = new Surface(4, 4)) {
+            surface.lock();
+            surface.unlock();
+            surface.unlock();
+        }
+    }
+
+    @Test
+    public void viewCoversEveryRow() {
+        // Three bytes per pixel, so SDL pads the rows
+        try (Surface surface = new Surface(5, 3, SDL_PixelFormatEnum.RGB24)) {
+            ByteBuffer pixels = surface.lock();
+            assertEquals(surface.getPitch() * 3, pixels.capacity());
+            assertEquals(0, pixels.position());
+            // Each lock hands out its own view
+            pixels.position(10);
+            assertEquals(0, surface.lock().position());
+            surface.unlock();
+            surface.unlock();
+        }
+    }
+
+    @Test
+    public void everyLockCountsAsModified() {
+        try (Surface surface = new Surface(4, 4)) {
+            int before = surface.getModCount();
+            surface.lock();
+            surface.lock();
+            surface.unlock();
+            surface.unlock();
+            assertEquals(before + 2, surface.getModCount());
+            surface.getWidth();
+            assertEquals(before + 2, surface.getModCount());
+        }
+    }
+
+    @Test
+    public void closeUnlocks() {
+        Surface surface = new Surface(4, 4);
+        surface.lock();
+        surface.lock();
+        surface.close();
+        assertEquals(0, surface.getLockCount());
+    }
+}
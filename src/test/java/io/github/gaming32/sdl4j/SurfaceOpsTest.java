@@ -0,0 +1,163 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.github.gaming32.sdl4j.sdl_enums.SDL_PixelFormatEnum;
+
+/**
+ * Checks each operation against a plain loop over an {@code int[]}, on a surface small enough to be done on
+ * one thread and one big enough to be split across the fork-join pool.
+ */
+public class SurfaceOpsTest {
+    private static final int[][] SIZES = {{37, 23}, {301, 257}};
+
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+        assertTrue(SIZES[1][0] * SIZES[1][1] >= SurfaceOps.PARALLEL_CUTOFF);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return pixels;
+    }
+
+    private static int[] read(Surface surface) {
+        int width = surface.getWidth(), height = surface.getHeight(), stride = surface.getPitch() / 4;
+        int[] result = new int[width * height];
+        IntBuffer pixels = surface.lockInts();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                result[y * width + x] = pixels.get(y * stride + x);
+            }
+        }
+        surface.unlock();
+        return result;
+    }
+
+    private static int scale(int channel, int factor) {
+        return (int)Math.round(channel * factor / 255.0);
+    }
+
+    private static int luminance(int argb) {
+        return ((argb >> 16 & 0xff) * 77 + (argb >> 8 & 0xff) * 150 + (argb & 0xff) * 29) / 256;
+    }
+
+    private interface Op {
+        void apply(Surface surface);
+    }
+
+    /**
+     * Apply {@code op} to surfaces of random pixels, and compare them with {@code expected} applied to each
+     * pixel on its own.
+     */
+    private static void assertMatchesScalar(Op op, IntUnaryOperator expected) {
+        for (int[] size : SIZES) {
+            int[] argb = randomPixels(size[0] * size[1], size[0]);
+            try (Surface surface = new Surface(size[0], size[1])) {
+                SurfaceOps.mapRGBA(surface, argb);
+                assertArrayEquals(argb, read(surface));
+                op.apply(surface);
+                int[] scalar = new int[argb.length];
+                for (int i = 0; i < argb.length; i++) {
+                    scalar[i] = expected.applyAsInt(argb[i]);
+                }
+                assertArrayEquals(size[0] + "x" + size[1], scalar, read(surface));
+            }
+        }
+    }
+
+    @Test
+    public void tint() {
+        assertMatchesScalar(s -> SurfaceOps.tint(s, 255, 128, 3), argb ->
+            argb & 0xff000000 | (argb >> 16 & 0xff) << 16 | scale(argb >> 8 & 0xff, 128) << 8 | scale(argb & 0xff, 3)
+        );
+    }
+
+    @Test
+    public void threshold() {
+        assertMatchesScalar(s -> SurfaceOps.threshold(s, 100, 0xffffffff, 0x80000000), argb ->
+            luminance(argb) >= 100 ? 0xffffffff : 0x80000000
+        );
+    }
+
+    @Test
+    public void grayscale() {
+        assertMatchesScalar(SurfaceOps::grayscale, argb -> {
+            int l = luminance(argb);
+            return argb & 0xff000000 | l * 0x010101;
+        });
+    }
+
+    @Test
+    public void premultiplyAlpha() {
+        assertMatchesScalar(SurfaceOps::premultiplyAlpha, argb -> {
+            int a = argb >>> 24;
+            return argb & 0xff000000 | scale(argb >> 16 & 0xff, a) << 16 | scale(argb >> 8 & 0xff, a) << 8 | scale(argb & 0xff, a);
+        });
+    }
+
+    @Test
+    public void transform() {
+        assertMatchesScalar(s -> SurfaceOps.transform(s, argb -> ~argb), argb -> ~argb);
+    }
+
+    @Test
+    public void fillRect() {
+        for (int[] size : SIZES) {
+            int width = size[0], height = size[1];
+            int[] rect = {-5, 7, width / 2, height * 2};
+            try (Surface surface = new Surface(width, height)) {
+                SurfaceOps.fill(surface, 0xff102030);
+                SurfaceOps.fill(surface, rect, 0xffa0b0c0);
+                int[] pixels = read(surface);
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        boolean inside = x < rect[0] + rect[2] && y >= rect[1];
+                        assertEquals(inside ? 0xffa0b0c0 : 0xff102030, pixels[y * width + x]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void packsSixteenBitPixels() {
+        try (Surface surface = new Surface(3, 2, SDL_PixelFormatEnum.RGB565)) {
+            assertEquals(0xf800, SurfaceOps.mapRGB(surface, 255, 0, 0));
+            assertEquals(0x07e0, SurfaceOps.mapRGB(surface, 0, 255, 0));
+            assertEquals(0x001f, SurfaceOps.mapRGB(surface, 0, 0, 255));
+            assertEquals(0x8410, SurfaceOps.mapRGB(surface, 0x80, 0x80, 0x80));
+
+            SurfaceOps.mapRGBA(surface, new int[] {0xffff0000, 0xff00ff00, 0xff0000ff, 0xff808080, 0xffffffff, 0});
+            SurfaceOps.grayscale(surface);
+            ByteBuffer pixels = surface.lock();
+            int pitch = surface.getPitch();
+            // Pure red comes back as luminance 76, which is 9/31 and 19/63 after packing
+            assertEquals(9 << 11 | 19 << 5 | 9, pixels.getShort(0) & 0xffff);
+            assertEquals(0xffff, pixels.getShort(pitch + 2) & 0xffff);
+            assertEquals(0, pixels.getShort(pitch + 4) & 0xffff);
+            surface.unlock();
+        }
+    }
+}
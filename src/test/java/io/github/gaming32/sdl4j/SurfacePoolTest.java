@@ -0,0 +1,122 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.github.gaming32.sdl4j.sdl_enums.SDL_PixelFormatEnum;
+
+public class SurfacePoolTest {
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        SurfacePool pool = new SurfacePool(4);
+        Surface a = pool.acquire(16, 16);
+        pool.release(a);
+        assertNotSame(a, pool.acquire(16, 8));
+        assertNotSame(a, pool.acquire(16, 16, SDL_PixelFormatEnum.RGB565));
+        assertSame(a, pool.acquire(16, 16));
+        assertNotSame(a, pool.acquire(16, 16));
+        assertEquals(1, pool.getHitCount());
+        assertEquals(4, pool.getMissCount());
+        assertEquals(0, pool.size());
+        pool.clear();
+    }
+
+    @Test
+    public void reusesMostRecentlyReleased() {
+        SurfacePool pool = new SurfacePool(4);
+        Surface a = pool.acquire(16, 16), b = pool.acquire(16, 16);
+        pool.release(a);
+        pool.release(b);
+        assertSame(b, pool.acquire(16, 16));
+        assertSame(a, pool.acquire(16, 16));
+        a.close();
+        b.close();
+    }
+
+    @Test
+    public void evictsLeastRecentlyReleased() {
+        SurfacePool pool = new SurfacePool(3);
+        Surface a = pool.acquire(16, 16), b = pool.acquire(32, 32), c = pool.acquire(16, 16);
+        Surface d = pool.acquire(8, 8), e = pool.acquire(16, 16);
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+        pool.release(d);
+        assertNull(a.surf);
+        pool.release(e);
+        assertNull(b.surf);
+        assertEquals(2, pool.getEvictionCount());
+        assertEquals(3, pool.size());
+
+        // Taking a surface out makes it the newest again once it's put back
+        assertSame(e, pool.acquire(16, 16));
+        pool.release(e);
+        pool.release(pool.acquire(4, 4));
+        assertNull(c.surf);
+        pool.release(pool.acquire(2, 2));
+        assertNull(d.surf);
+        assertNotNull(e.surf);
+        assertEquals(4, pool.getEvictionCount());
+        pool.clear();
+        assertNull(e.surf);
+    }
+
+    @Test
+    public void dropsEmptyBuckets() {
+        SurfacePool pool = new SurfacePool(2);
+        Surface a = pool.acquire(16, 16);
+        pool.release(a);
+        pool.release(pool.acquire(32, 32));
+        assertEquals(2, pool.bucketCount());
+        assertSame(a, pool.acquire(16, 16));
+        assertEquals(1, pool.bucketCount());
+        // Evicts the 32x32 surface, the last of its size
+        pool.release(a);
+        pool.release(pool.acquire(8, 8));
+        assertEquals(2, pool.bucketCount());
+        for (int size = 1; size <= 20; size++) {
+            pool.release(pool.acquire(size, size, SDL_PixelFormatEnum.RGB565));
+        }
+        assertEquals(2, pool.bucketCount());
+        assertEquals(2, pool.size());
+        pool.clear();
+        assertEquals(0, pool.bucketCount());
+    }
+
+    @Test
+    public void ignoresDoubleRelease() {
+        SurfacePool pool = new SurfacePool(2);
+        Surface a = pool.acquire(16, 16);
+        pool.release(a);
+        pool.release(a);
+        assertEquals(1, pool.size());
+        pool.clear();
+    }
+
+    @Test
+    public void retainsNothingWhenEmpty() {
+        SurfacePool pool = new SurfacePool(0);
+        Surface a = pool.acquire(16, 16);
+        pool.release(a);
+        assertNull(a.surf);
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.getEvictionCount());
+    }
+}
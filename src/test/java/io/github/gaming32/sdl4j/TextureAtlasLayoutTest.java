@@ -0,0 +1,122 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import io.github.gaming32.sdl4j.TextureAtlas.Region;
+import io.github.gaming32.sdl4j.TextureAtlas.Skyline;
+
+public class TextureAtlasLayoutTest {
+    private final int[] pos = new int[2];
+
+    private int[] place(Skyline skyline, int w, int h) {
+        assertTrue(skyline.place(w, h, pos));
+        return pos.clone();
+    }
+
+    private static boolean overlaps(int[] a, int[] b) {
+        return a[0] < b[0] + b[2] && b[0] < a[0] + a[2] && a[1] < b[1] + b[3] && b[1] < a[1] + a[3];
+    }
+
+    private static void assertPacked(int width, int height, List<int[]> boxes) {
+        for (int i = 0; i < boxes.size(); i++) {
+            int[] box = boxes.get(i);
+            assertTrue(box[0] >= 0 && box[1] >= 0 && box[0] + box[2] <= width && box[1] + box[3] <= height);
+            for (int j = 0; j < i; j++) {
+                assertFalse(overlaps(box, boxes.get(j)));
+            }
+        }
+    }
+
+    @Test
+    public void placesLowestThenLeftmost() {
+        Skyline skyline = new Skyline(100, 100);
+        assertArrayEquals(new int[] {0, 0}, place(skyline, 30, 10));
+        assertArrayEquals(new int[] {30, 0}, place(skyline, 30, 20));
+        assertArrayEquals(new int[] {60, 0}, place(skyline, 30, 5));
+        // Only 10 pixels are left at the bottom right, so the lowest spot is on top of the 5 pixel box
+        assertArrayEquals(new int[] {60, 5}, place(skyline, 30, 10));
+        // A narrow box still fits in the bottom right corner
+        assertArrayEquals(new int[] {90, 0}, place(skyline, 10, 10));
+        assertArrayEquals(new int[] {0, 10}, place(skyline, 10, 10));
+    }
+
+    @Test
+    public void mergesLevelSegments() {
+        Skyline skyline = new Skyline(100, 100);
+        place(skyline, 50, 10);
+        place(skyline, 50, 10);
+        assertEquals(1, skyline.segments.size());
+        assertArrayEquals(new int[] {0, 10}, place(skyline, 100, 10));
+    }
+
+    @Test
+    public void rejectsWhatDoesNotFit() {
+        Skyline skyline = new Skyline(100, 100);
+        assertFalse(skyline.place(101, 1, pos));
+        assertFalse(skyline.place(1, 101, pos));
+        place(skyline, 100, 60);
+        assertFalse(skyline.place(10, 41, pos));
+        assertArrayEquals(new int[] {0, 60}, place(skyline, 10, 40));
+    }
+
+    @Test
+    public void randomBoxesDontOverlap() {
+        Random random = new Random(7);
+        Skyline skyline = new Skyline(256, 256);
+        List<int[]> boxes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int w = 1 + random.nextInt(40), h = 1 + random.nextInt(40);
+            if (skyline.place(w, h, pos)) {
+                boxes.add(new int[] {pos[0], pos[1], w, h});
+            }
+        }
+        assertTrue(boxes.size() > 20);
+        assertPacked(256, 256, boxes);
+    }
+
+    @Test
+    public void layoutPacksTallestFirst() {
+        List<Region> order = new ArrayList<>();
+        order.add(new Region(null, 10, 2));
+        order.add(new Region(null, 10, 8));
+        order.add(new Region(null, 20, 8));
+        order.add(new Region(null, 10, 4));
+        int[] placed = new int[order.size() * 2];
+        assertNotNull(TextureAtlas.layout(64, 64, 1, order, placed));
+
+        int[] heights = new int[order.size()];
+        List<int[]> boxes = new ArrayList<>();
+        for (int i = 0; i < order.size(); i++) {
+            Region region = order.get(i);
+            heights[i] = region.getHeight();
+            // Positions aren't applied to the regions by layout itself
+            assertEquals(0, region.getX());
+            boxes.add(new int[] {placed[i * 2], placed[i * 2 + 1], region.getWidth() + 1, region.getHeight() + 1});
+        }
+        assertArrayEquals(new int[] {8, 8, 4, 2}, heights);
+        assertEquals(20, order.get(0).getWidth());
+        assertPacked(64, 64, boxes);
+    }
+
+    @Test
+    public void layoutFailsWhenFull() {
+        List<Region> order = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            order.add(new Region(null, 16, 16));
+        }
+        assertNull(TextureAtlas.layout(32, 32, 0, order, new int[order.size() * 2]));
+        order.remove(4);
+        assertNotNull(TextureAtlas.layout(32, 32, 0, order, new int[order.size() * 2]));
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.jna.Memory;
+
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Common;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Wheel;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+import io.github.gaming32.sdl4j.enums.MouseFlags;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+
+public class WheelEmulationTest {
+    private final EventView view = new EventView(64);
+
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    @After
+    public void restore() {
+        Event.setWheelEmulation(true);
+    }
+
+    private static void pushWheel(int x, int y) {
+        Memory event = new Memory(SDL_Event.SIZE);
+        event.clear();
+        event.setInt(Common.TYPE, SDL_EventType.MOUSEWHEEL);
+        event.setInt(Wheel.X, x);
+        event.setInt(Wheel.Y, y);
+        if (LowLevel.getInstance().SDL_PushEvent(event) < 0) {
+            SDLException.throwNew();
+        }
+    }
+
+    /**
+     * Push a wheel event and fetch what comes out of the queue.
+     *
+     * @return the number of {@code MOUSEWHEEL} events, followed by the button and type of each button event
+     */
+    private List<Integer> scroll(int x, int y) {
+        Event.get(view);
+        pushWheel(x, y);
+        Event.get(view);
+        int wheels = 0;
+        List<Integer> buttons = new ArrayList<>();
+        while (view.next()) {
+            switch (view.type()) {
+                case SDL_EventType.MOUSEWHEEL:
+                    assertEquals(y, view.y());
+                    wheels++;
+                    break;
+                case SDL_EventType.MOUSEBUTTONDOWN:
+                case SDL_EventType.MOUSEBUTTONUP:
+                    buttons.add(view.button());
+                    buttons.add(view.type());
+            }
+        }
+        buttons.add(0, wheels);
+        return buttons;
+    }
+
+    private static List<Integer> clicks(int button, int count) {
+        List<Integer> result = new ArrayList<>();
+        result.add(1);
+        for (int i = 0; i < count; i++) {
+            result.add(button);
+            result.add(SDL_EventType.MOUSEBUTTONDOWN);
+            result.add(button);
+            result.add(SDL_EventType.MOUSEBUTTONUP);
+        }
+        return result;
+    }
+
+    @Test
+    public void clicksOncePerNotch() {
+        assertEquals(clicks(MouseFlags.WHEELUP, 1), scroll(0, 1));
+        assertEquals(clicks(MouseFlags.WHEELUP, 3), scroll(0, 3));
+        assertEquals(clicks(MouseFlags.WHEELDOWN, 2), scroll(0, -2));
+        // More clicks than the last time, so the event buffer has to grow
+        assertEquals(clicks(MouseFlags.WHEELDOWN, 20), scroll(0, -20));
+    }
+
+    @Test
+    public void horizontalScrollingDoesntClick() {
+        assertEquals(clicks(0, 0), scroll(4, 0));
+    }
+
+    @Test
+    public void emptyWheelEventsAreDropped() {
+        List<Integer> none = new ArrayList<>();
+        none.add(0);
+        assertEquals(none, scroll(0, 0));
+    }
+
+    @Test
+    public void onlyTheDeltaWithoutEmulation() {
+        Event.setWheelEmulation(false);
+        assertEquals(clicks(0, 0), scroll(0, 5));
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.gaming32.sdl4j;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.jna.Memory;
+
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Common;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Key;
+import io.github.gaming32.sdl4j.LowLevel.EventLayout.Window;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library;
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_Event;
+import io.github.gaming32.sdl4j.sdl_enums.SDL4J_AppCode;
+import io.github.gaming32.sdl4j.sdl_enums.SDL4J_EventCode;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+import io.github.gaming32.sdl4j.sdl_enums.SDL_WindowEventID;
+
+/**
+ * The event filter only copies the events it derives others from. Check that window events still turn into
+ * their SDL 1.2 style counterparts, and come through untouched themselves.
+ */
+public class WindowEventFilterTest {
+    @BeforeClass
+    public static void setUp() {
+        SdlTestSupport.initDummyVideo();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SdlTestSupport.quit();
+    }
+
+    private static void pushWindowEvent(int id, int data1, int data2) {
+        Memory event = new Memory(SDL_Event.SIZE);
+        event.clear();
+        event.setInt(Common.TYPE, SDL_EventType.WINDOWEVENT);
+        event.setByte(Window.EVENT, (byte)id);
+        event.setInt(Window.DATA1, data1);
+        event.setInt(Window.DATA2, data2);
+        if (LowLevel.getInstance().SDL_PushEvent(event) < 0) {
+            SDLException.throwNew();
+        }
+    }
+
+    private static List<Event> ofType(List<Event> events, int type) {
+        List<Event> result = new ArrayList<>();
+        for (Event event : events) {
+            if (event.getType() == type) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    private static List<Event> poll() {
+        return Event.get(null, false, null);
+    }
+
+    @Test
+    public void resizeBecomesVideoResize() {
+        poll();
+        pushWindowEvent(SDL_WindowEventID.RESIZED, 32, 48);
+        List<Event> events = poll();
+
+        List<Event> resizes = ofType(events, SDL4J_EventCode.VIDEORESIZE);
+        assertEquals(1, resizes.size());
+        assertEquals(32, resizes.get(0).getData().get("w"));
+        assertEquals(48, resizes.get(0).getData().get("h"));
+
+        List<Event> windowEvents = ofType(events, SDL4J_EventCode.WINDOWRESIZED);
+        assertEquals(1, windowEvents.size());
+        assertEquals(32, windowEvents.get(0).getData().get("x"));
+        assertEquals(48, windowEvents.get(0).getData().get("y"));
+    }
+
+    @Test
+    public void onlyTheLastResizeIsKept() {
+        poll();
+        pushWindowEvent(SDL_WindowEventID.RESIZED, 32, 48);
+        pushWindowEvent(SDL_WindowEventID.RESIZED, 64, 80);
+        List<Event> events = poll();
+
+        List<Event> resizes = ofType(events, SDL4J_EventCode.VIDEORESIZE);
+        assertEquals(1, resizes.size());
+        assertEquals(64, resizes.get(0).getData().get("w"));
+        assertEquals(80, resizes.get(0).getData().get("h"));
+        assertEquals(2, ofType(events, SDL4J_EventCode.WINDOWRESIZED).size());
+    }
+
+    @Test
+    public void exposeBecomesVideoExpose() {
+        poll();
+        pushWindowEvent(SDL_WindowEventID.EXPOSED, 0, 0);
+        pushWindowEvent(SDL_WindowEventID.EXPOSED, 0, 0);
+        List<Event> events = poll();
+        assertEquals(1, ofType(events, SDL4J_EventCode.VIDEOEXPOSE).size());
+        assertEquals(2, ofType(events, SDL4J_EventCode.WINDOWEXPOSED).size());
+    }
+
+    @Test
+    public void focusAndMinimizeBecomeActiveEvents() {
+        poll();
+        pushWindowEvent(SDL_WindowEventID.FOCUS_GAINED, 0, 0);
+        pushWindowEvent(SDL_WindowEventID.MINIMIZED, 0, 0);
+        List<Event> active = ofType(poll(), SDL4J_EventCode.ACTIVEEVENT);
+        assertEquals(2, active.size());
+        assertEquals(true, active.get(0).getData().get("gain"));
+        assertEquals(SDL4J_AppCode.APPINPUTFOCUS, active.get(0).getData().get("state"));
+        assertEquals(false, active.get(1).getData().get("gain"));
+        assertEquals(SDL4J_AppCode.APPACTIVE, active.get(1).getData().get("state"));
+    }
+
+    @Test
+    public void otherEventsPassUnchanged() {
+        poll();
+        Memory event = new Memory(SDL_Event.SIZE);
+        event.clear();
+        event.setInt(Common.TYPE, SDL_EventType.KEYUP);
+        event.setByte(Key.STATE, SDL2Library.SDL_RELEASED);
+        event.setInt(Key.SCANCODE, 4);
+        event.setInt(Key.SYM, 'a');
+        if (LowLevel.getInstance().SDL_PushEvent(event) < 0) {
+            SDLException.throwNew();
+        }
+        List<Event> events = poll();
+        assertEquals(1, events.size());
+        assertEquals(SDL_EventType.KEYUP, events.get(0).getType());
+        assertEquals(4, events.get(0).getData().get("scancode"));
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.gaming32.sdl4j.modules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.sun.jna.Memory;
+
+import io.github.gaming32.sdl4j.LowLevel.SDL2Library.SDL_TextInputEvent;
+
+public class ScancodeTextMapTest {
+    private static final int SCANCODES = 512;
+
+    private final Memory event = new Memory(SDL_TextInputEvent.TEXT_SIZE);
+
+    private void put(ScancodeTextMap map, int scancode, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        event.clear();
+        event.write(0, bytes, 0, bytes.length);
+        map.put(scancode, event, 0);
+    }
+
+    @Test
+    public void putAndGet() {
+        ScancodeTextMap map = new ScancodeTextMap();
+        put(map, 4, "a");
+        put(map, 5, "é");
+        assertEquals(2, map.size());
+        // Single ASCII characters come from the shared table
+        assertSame(ScancodeTextMap.charString('a'), map.get(4, false));
+        assertEquals("é", map.get(5, false));
+        assertNull(map.get(6, false));
+    }
+
+    @Test
+    public void replacesText() {
+        ScancodeTextMap map = new ScancodeTextMap();
+        put(map, 4, "a");
+        assertEquals("a", map.get(4, false));
+        put(map, 4, "A");
+        assertEquals("A", map.get(4, false));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void keepsDecodedText() {
+        ScancodeTextMap map = new ScancodeTextMap();
+        put(map, 4, "é");
+        String text = map.get(4, false);
+        put(map, 4, "é");
+        assertSame(text, map.get(4, false));
+    }
+
+    @Test
+    public void removeOnGet() {
+        ScancodeTextMap map = new ScancodeTextMap();
+        put(map, 4, "a");
+        assertEquals("a", map.get(4, true));
+        assertEquals(0, map.size());
+        assertNull(map.get(4, false));
+    }
+
+    @Test
+    public void removeKeepsProbeRuns() {
+        // Every scancode at once makes plenty of collisions, and removing them in a scrambled order
+        // shifts entries back across the whole table
+        ScancodeTextMap map = new ScancodeTextMap();
+        List<Integer> order = new ArrayList<>();
+        for (int scancode = 0; scancode < SCANCODES; scancode++) {
+            put(map, scancode, Integer.toString(scancode));
+            order.add(scancode);
+        }
+        assertEquals(SCANCODES, map.size());
+
+        Collections.shuffle(order, new Random(42));
+        for (int i = 0; i < order.size(); i++) {
+            int removed = order.get(i);
+            assertEquals(Integer.toString(removed), map.get(removed, true));
+            assertNull(map.get(removed, false));
+            for (int j = i + 1; j < order.size(); j++) {
+                int scancode = order.get(j);
+                assertEquals(Integer.toString(scancode), map.get(scancode, false));
+            }
+        }
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void matchesHashMap() {
+        ScancodeTextMap map = new ScancodeTextMap();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            int scancode = random.nextInt(SCANCODES);
+            if (random.nextBoolean()) {
+                String text = String.valueOf((char)('a' + random.nextInt(26)));
+                put(map, scancode, text);
+                expected.put(scancode, text);
+            } else {
+                boolean remove = random.nextBoolean();
+                assertEquals(remove ? expected.remove(scancode) : expected.get(scancode), map.get(scancode, remove));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+    }
+}
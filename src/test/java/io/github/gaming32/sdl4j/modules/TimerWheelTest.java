@@ -0,0 +1,84 @@
+package io.github.gaming32.sdl4j.modules;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import io.github.gaming32.sdl4j.sdl_enums.SDL_EventType;
+
+/**
+ * Drives the wheel with explicit ticks through {@link TimerWheel#add} and {@link TimerWheel#advance}, so no
+ * thread is started and SDL isn't needed.
+ */
+public class TimerWheelTest {
+    private static final int A = SDL_EventType.USEREVENT;
+    private static final int B = SDL_EventType.USEREVENT + 1;
+    private static final int WHEEL_SIZE = 512;
+
+    private final TimerWheel wheel = new TimerWheel();
+
+    @Test
+    public void firesAtDeadline() {
+        wheel.add(A, 5, 0, 0);
+        assertEquals(0, wheel.advance(4));
+        assertEquals(1, wheel.advance(5));
+        assertEquals(A, wheel.due[0]);
+        assertEquals(0, wheel.advance(9));
+        assertEquals(1, wheel.advance(10));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void waitsWholeRounds() {
+        int millis = 2 * WHEEL_SIZE + 276;
+        wheel.add(A, millis, 1, 0);
+        assertEquals(0, wheel.advance(millis - WHEEL_SIZE));
+        assertEquals(0, wheel.advance(millis - 1));
+        assertEquals(1, wheel.advance(millis));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void sharesSlotAcrossRounds() {
+        wheel.add(A, 3, 1, 0);
+        wheel.add(B, 3 + WHEEL_SIZE, 1, 0);
+        assertEquals(1, wheel.advance(3));
+        assertEquals(A, wheel.due[0]);
+        assertEquals(0, wheel.advance(2 + WHEEL_SIZE));
+        assertEquals(1, wheel.advance(3 + WHEEL_SIZE));
+        assertEquals(B, wheel.due[0]);
+    }
+
+    @Test
+    public void catchesUpWithLoops() {
+        wheel.add(A, 10, 3, 0);
+        assertEquals(3, wheel.advance(100));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(A, wheel.due[i]);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void replacesAndCancels() {
+        wheel.add(A, 5, 0, 0);
+        wheel.add(A, 20, 0, 0);
+        assertEquals(1, wheel.size());
+        assertEquals(0, wheel.advance(19));
+        assertEquals(1, wheel.advance(20));
+        wheel.add(A, 0, 0, 20);
+        assertEquals(0, wheel.size());
+        assertEquals(0, wheel.advance(1000));
+    }
+
+    @Test
+    public void startsFromNowAfterIdling() {
+        wheel.add(A, 5, 1, 0);
+        assertEquals(1, wheel.advance(5));
+        // Added while nothing was scheduled and the wheel had stopped turning
+        wheel.add(B, 5, 1, 1000);
+        assertEquals(0, wheel.advance(1004));
+        assertEquals(1, wheel.advance(1005));
+        assertEquals(B, wheel.due[0]);
+    }
+}